@@ -0,0 +1,47 @@
+package kr.co.lupintech.core.auth.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRole;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 한 번당 토큰 인증 비용: 기존 (요청마다 verifier 생성) vs 공유 verifier vs 필터 (principal 캐시)
+ * ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MyJwtAuthorizationFilterBenchmark {
+
+    private String jwt;
+    private MyJwtAuthorizationFilter filter;
+
+    @Setup
+    public void setUp() {
+        User user = User.builder().id(1L).role(UserRole.ROLE_USER).build();
+        jwt = MyJwtProvider.createAccess(user).replace(MyJwtProvider.TOKEN_PREFIX, "");
+        filter = new MyJwtAuthorizationFilter(authentication -> authentication, new TokenRevocationList(null)); // 폐기 확인은 맵 조회만 (DB 안 씀)
+        filter.authenticate(jwt); // 캐시 채우기
+    }
+
+    @Benchmark
+    public DecodedJWT newVerifierPerRequest() {
+        return JWT.require(Algorithm.HMAC512(MyJwtProvider.ACCESS_SECRET)).build().verify(jwt);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifier() {
+        return MyJwtProvider.verify(jwt);
+    }
+
+    @Benchmark
+    public Authentication filterCached() {
+        return filter.authenticate(jwt);
+    }
+}
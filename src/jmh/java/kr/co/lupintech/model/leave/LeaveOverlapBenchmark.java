@@ -0,0 +1,107 @@
+package kr.co.lupintech.model.leave;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 세 달치 달력 조회: 전체 조회 후 자바에서 거르기 vs (start_date, end_date) 인덱스를 타는 겹침 쿼리 + user join
+ * 과거 이력 leave_tb 건수를 늘려가며 비교한다. ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class LeaveOverlapBenchmark {
+
+    @Param({"1000", "100000"})
+    private int historyCount;
+
+    private Connection connection;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench" + historyCount + ";MODE=MySQL", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("create table user_tb (id bigint auto_increment primary key, username varchar(20), profile varchar(255))");
+            st.execute("create table leave_tb (id bigint auto_increment primary key, user_id bigint, type varchar(20), " +
+                    "status varchar(20), start_date date, end_date date)");
+            st.execute("create index idx_leave_start_end on leave_tb (start_date, end_date)");
+        }
+
+        int userCount = 1000;
+        try (PreparedStatement ps = connection.prepareStatement("insert into user_tb (username, profile) values (?, ?)")) {
+            for (int i = 0; i < userCount; i++) {
+                ps.setString(1, "사원" + i);
+                ps.setString(2, "person.png");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        // 10년치 이력을 고르게 분포
+        LocalDate first = LocalDate.of(2014, 1, 1);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into leave_tb (user_id, type, status, start_date, end_date) values (?, 'ANNUAL', 'APPROVAL', ?, ?)")) {
+            for (int i = 0; i < historyCount; i++) {
+                LocalDate start = first.plusDays(i % 3650);
+                ps.setLong(1, 1 + (i % userCount));
+                ps.setDate(2, Date.valueOf(start));
+                ps.setDate(3, Date.valueOf(start.plusDays(i % 5)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        startDate = LocalDate.of(2023, 6, 1);
+        endDate = LocalDate.of(2023, 8, 31);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void findAllThenFilter(Blackhole bh) throws SQLException {
+        List<long[]> leaves = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("select id, user_id, start_date, end_date from leave_tb")) {
+            while (rs.next()) {
+                LocalDate start = rs.getDate(3).toLocalDate();
+                LocalDate end = rs.getDate(4).toLocalDate();
+                if (!start.isAfter(endDate) && !end.isBefore(startDate)) {
+                    leaves.add(new long[]{rs.getLong(1), rs.getLong(2)});
+                }
+            }
+        }
+        // 기존 코드는 행마다 user를 지연 로딩
+        try (PreparedStatement ps = connection.prepareStatement("select username, profile from user_tb where id = ?")) {
+            for (long[] leave : leaves) {
+                ps.setLong(1, leave[1]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) bh.consume(rs.getString(1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void overlapQuery(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "select l.id, u.id, u.username, u.profile from leave_tb l join user_tb u on l.user_id = u.id " +
+                        "where l.start_date <= ? and l.end_date >= ? order by l.id")) {
+            ps.setDate(1, Date.valueOf(endDate));
+            ps.setDate(2, Date.valueOf(startDate));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) bh.consume(rs.getString(3));
+            }
+        }
+    }
+}
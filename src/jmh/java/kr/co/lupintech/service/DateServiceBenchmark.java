@@ -0,0 +1,88 @@
+package kr.co.lupintech.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URISyntaxException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영업일 계산: 기존 하루씩 세는 방식 vs 연도별 누적합 인덱스
+ * ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class DateServiceBenchmark {
+
+    @Param({"1", "31", "365"})
+    private int rangeDays;
+
+    private HolidayService holidayService;
+    private DateService dateService;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() throws URISyntaxException {
+        holidayService = new FixedHolidayService();
+        dateService = new DateService(holidayService);
+        startDate = LocalDate.of(2023, 3, 2);
+        endDate = startDate.plusDays(rangeDays - 1);
+        dateService.getWeekDayCount(startDate, endDate); // 인덱스 미리 생성
+    }
+
+    @Benchmark
+    public Integer loop() throws URISyntaxException {
+        Integer weekdayCount = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                String year = String.valueOf(date.getYear());
+                String month = String.format("%02d", date.getMonthValue());
+                Set<LocalDate> holidays = holidayService.getHolidays(year, month);
+                if(holidays.contains(date)) continue;
+                weekdayCount++;
+            }
+        }
+        return weekdayCount;
+    }
+
+    @Benchmark
+    public Integer index() throws URISyntaxException {
+        return dateService.getWeekDayCount(startDate, endDate);
+    }
+
+    // 네트워크 없이 캐시가 찬 상태를 흉내낸다
+    private static class FixedHolidayService extends HolidayService {
+        private final Map<YearMonth, Set<LocalDate>> holidays = new HashMap<>();
+
+        private FixedHolidayService() {
+            super("");
+            for (int year = 2023; year <= 2024; year++) {
+                for (int month = 1; month <= 12; month++) {
+                    holidays.put(YearMonth.of(year, month), new HashSet<>());
+                }
+            }
+            Arrays.asList("2023-03-01", "2023-05-05", "2023-05-29", "2023-06-06", "2023-08-15",
+                    "2023-09-28", "2023-09-29", "2023-10-03", "2023-10-09", "2023-12-25")
+                    .forEach(day -> {
+                        LocalDate date = LocalDate.parse(day);
+                        holidays.get(YearMonth.from(date)).add(date);
+                    });
+        }
+
+        @Override
+        public Set<LocalDate> getHolidays(YearMonth yearMonth) {
+            return holidays.getOrDefault(yearMonth, Collections.emptySet());
+        }
+
+        @Override
+        public boolean hasYear(int year) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package kr.co.lupintech.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cost 별 초당 로그인(비밀번호 검증) 수. 스레드 1개 = 코어 1개 기준이고, 해싱 풀은 대기열을 거치는 비용까지 포함
+ * ./gradlew jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"10", "12"})
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 10);
+        encodedPassword = passwordEncoder.encode("1234");
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Benchmark
+    public boolean loginDirect() {
+        return passwordEncoder.matches("1234", encodedPassword);
+    }
+
+    @Benchmark
+    public boolean loginHashingPool() {
+        return passwordHashingService.matches("1234", encodedPassword);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("1234");
+    }
+}
@@ -5,6 +5,7 @@ import kr.co.lupintech.dto.leave.LeaveResponse;
 import kr.co.lupintech.core.annotation.MyErrorLog;
 import kr.co.lupintech.core.annotation.MyLog;
 import kr.co.lupintech.dto.PageDTO;
+import kr.co.lupintech.dto.SliceDTO;
 import kr.co.lupintech.dto.user.UserRequest;
 import kr.co.lupintech.dto.user.UserResponse;
 import kr.co.lupintech.model.user.User;
@@ -38,10 +39,16 @@ public class AdminController {
 
     @MyLog
     @MyErrorLog
-    @GetMapping("/admin") // /admin?query=김&page=0&size=10
+    @GetMapping("/admin") // /admin?query=김&page=0&size=10, 키셋: /admin?afterId=0&size=10&withTotal=true
     public ResponseEntity<?> search(@RequestParam(defaultValue = "") String query,
                                     @RequestParam(defaultValue = "0") int page,
-                                    @RequestParam(defaultValue = "10") int size) {
+                                    @RequestParam(defaultValue = "10") int size,
+                                    @RequestParam(required = false) Long afterId,
+                                    @RequestParam(defaultValue = "false") boolean withTotal) {
+        if (afterId != null) { // 키셋 페이징: OFFSET, COUNT(*) 없이 다음 페이지
+            SliceDTO<UserResponse.UserOutDTO> sliceDTO = userService.사원목록(query, afterId, size, withTotal);
+            return ResponseEntity.ok(new ResponseDTO<>(sliceDTO));
+        }
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
         PageDTO<UserResponse.UserOutDTO, User> pageDTO = userService.사원검색(query, pageable);
         ResponseDTO<PageDTO<UserResponse.UserOutDTO, User>> responseDTO = new ResponseDTO<>(pageDTO);
@@ -1,6 +1,7 @@
 package kr.co.lupintech.controller;
 
 import kr.co.lupintech.core.auth.session.MyUserDetails;
+import kr.co.lupintech.dto.alarm.AlarmRequest;
 import kr.co.lupintech.dto.alarm.AlarmResponse;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.user.UserRole;
@@ -8,34 +9,77 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import kr.co.lupintech.dto.ResponseDTO;
 import kr.co.lupintech.service.AlarmService;
 
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @RestController
 public class AlarmController {
+    private static final Set<LeaveStatus> USER_STATUSES = Collections.unmodifiableSet(EnumSet.of(LeaveStatus.APPROVAL, LeaveStatus.REJECTION));
+    private static final Set<LeaveStatus> MANAGER_STATUSES = Collections.unmodifiableSet(EnumSet.of(LeaveStatus.WAITING));
 
     private final AlarmService alarmService;
     @GetMapping("/auth/alarm")
     public ResponseEntity<?> getUserAlarms(@AuthenticationPrincipal MyUserDetails myUserDetails)
     {
-        List<AlarmResponse.AlarmOutDTO> alarmOutDTOS = new ArrayList<>();
-        //ROLE_USER 는 승인/대기 알람만 보여주면 된다
+        List<AlarmResponse.AlarmOutDTO> alarmOutDTOS;
+        //ROLE_USER 는 승인/거절 알람만 보여주면 된다
         if(myUserDetails.getUser().getRole() == UserRole.ROLE_USER)
         {
-            alarmOutDTOS.addAll(alarmService.findByUserIdAndLeaveStatus(myUserDetails.getUser().getId(), LeaveStatus.APPROVAL));
-            alarmOutDTOS.addAll(alarmService.findByUserIdAndLeaveStatus(myUserDetails.getUser().getId(), LeaveStatus.REJECTION));
+            alarmOutDTOS = alarmService.findByUserIdAndLeaveStatuses(myUserDetails.getUser().getId(), USER_STATUSES);
         }
         else //ROLE_ADMIN OR ROLE_MASTER
         {
-            alarmOutDTOS.addAll(alarmService.findByLeaveStatus(LeaveStatus.WAITING));
+            alarmOutDTOS = alarmService.findByUserIdAndLeaveStatuses(null, MANAGER_STATUSES);
         }
-     
+
         ResponseDTO<?> responseDTO = new ResponseDTO<>(alarmOutDTOS);
         return ResponseEntity.ok(responseDTO);
     }
+
+    // /auth/alarm/feed?size=20&status=APPROVAL,REJECTION&cursor=... (status 생략 시 /auth/alarm 과 같은 기준)
+    @GetMapping("/auth/alarm/feed")
+    public ResponseEntity<?> getAlarmFeed(@AuthenticationPrincipal MyUserDetails myUserDetails,
+                                          @RequestParam(required = false) Set<LeaveStatus> status,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "20") int size)
+    {
+        boolean isUser = myUserDetails.getUser().getRole() == UserRole.ROLE_USER;
+        Long userId = isUser ? myUserDetails.getUser().getId() : null; // 사원은 본인 알람만
+        Set<LeaveStatus> statuses = (status == null || status.isEmpty()) ? (isUser ? USER_STATUSES : MANAGER_STATUSES) : status;
+
+        AlarmResponse.FeedOutDTO feedOutDTO = alarmService.알람피드(userId, statuses, cursor, size);
+        ResponseDTO<?> responseDTO = new ResponseDTO<>(feedOutDTO);
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    // 뱃지 폴링용
+    @GetMapping("/auth/alarm/count")
+    public ResponseEntity<?> getAlarmCount(@AuthenticationPrincipal MyUserDetails myUserDetails)
+    {
+        boolean isManager = myUserDetails.getUser().getRole() != UserRole.ROLE_USER;
+        AlarmResponse.CountOutDTO countOutDTO = alarmService.알람개수(myUserDetails.getUser().getId(), isManager);
+        ResponseDTO<?> responseDTO = new ResponseDTO<>(countOutDTO);
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    // body 없이 보내면 안 읽은 알람 전부 읽음. 응답은 읽음 처리된 개수
+    @PostMapping("/auth/alarm/read")
+    public ResponseEntity<?> readAlarms(@RequestBody(required = false) AlarmRequest.ReadInDTO readInDTO,
+                                       @AuthenticationPrincipal MyUserDetails myUserDetails)
+    {
+        List<Long> ids = readInDTO == null ? null : readInDTO.getIds();
+        AlarmResponse.CountOutDTO countOutDTO = alarmService.알람읽기(myUserDetails.getUser().getId(), ids);
+        ResponseDTO<?> responseDTO = new ResponseDTO<>(countOutDTO);
+        return ResponseEntity.ok(responseDTO);
+    }
 }
@@ -6,11 +6,14 @@ import kr.co.lupintech.core.auth.session.MyUserDetails;
 import kr.co.lupintech.core.exception.Exception400;
 import kr.co.lupintech.dto.leave.LeaveRequest;
 import kr.co.lupintech.dto.leave.LeaveResponse;
+import kr.co.lupintech.service.LeaveExportService;
 import kr.co.lupintech.service.LeaveService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -20,8 +23,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import kr.co.lupintech.dto.ResponseDTO;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.IOException;
 import java.util.List;
@@ -32,6 +37,7 @@ import java.util.List;
 public class LeaveController {
 
     private final LeaveService leaveService;
+    private final LeaveExportService leaveExportService;
 
     @PostMapping("/auth/leave/apply")
     public ResponseEntity<?> apply(@RequestBody @Valid LeaveRequest.ApplyInDTO applyInDTO, Errors errors, @AuthenticationPrincipal MyUserDetails myUserDetails){
@@ -49,10 +55,17 @@ public class LeaveController {
     }
 
     @GetMapping("/auth/leave/month/{month}")
-    public ResponseEntity<?> getByMonth(@PathVariable(required = true) String month) {
+    public ResponseEntity<?> getByMonth(@PathVariable(required = true) String month,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // 세 달 모두 바뀐 게 없으면 본문 없이 304
+        String eTag = leaveService.연차당직세달치ETag(month);
+        if (eTagMatches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
         List<LeaveResponse.InfoOutDTO> leaveDataList = leaveService.연차당직정보가져오기세달치(month);
         ResponseDTO<List<LeaveResponse.InfoOutDTO>> responseDTO = new ResponseDTO<>(leaveDataList);
-        return ResponseEntity.ok(responseDTO);
+        return ResponseEntity.ok().eTag(eTag).body(responseDTO);
     }
 
     @GetMapping("/auth/leave/all")
@@ -71,13 +84,51 @@ public class LeaveController {
 
     @MyLog
     @MyErrorLog
-    @GetMapping("/auth/leave/download")
-    public ResponseEntity<?> download() throws IOException {
-        Resource resource = leaveService.엑셀다운로드();
+    @GetMapping("/auth/leave/download") // /auth/leave/download?startDate=2023-01-01&endDate=2023-12-31&status=APPROVAL&type=ANNUAL
+    public void download(LeaveRequest.ExportInDTO exportInDTO, HttpServletResponse response) throws IOException {
+        exportInDTO.validate(); // 응답 헤더를 정하기 전에 검증해야 에러를 json으로 응답할 수 있다
         String filename = "annual_leave_duty.xlsx"; // 다운로드할 파일 이름
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\""); // 다운로드, 이름지정
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE); // 일반적인 이진 데이터
+        leaveService.엑셀다운로드(exportInDTO, response.getOutputStream()); // 임시 파일 없이 응답으로 바로 쓰기
+    }
+
+    // 큰 기간은 비동기로: 요청 -> SSE "export" 이벤트로 진행 상황 -> 완료되면 다운로드
+    @PostMapping("/auth/leave/export")
+    public ResponseEntity<?> export(@RequestBody LeaveRequest.ExportJobInDTO exportJobInDTO, @AuthenticationPrincipal MyUserDetails myUserDetails) {
+        LeaveResponse.ExportJobOutDTO exportJobOutDTO = leaveExportService.내보내기요청(exportJobInDTO, myUserDetails.getUser().getId());
+        ResponseDTO<?> responseDTO = new ResponseDTO<>(exportJobOutDTO);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(responseDTO);
+    }
+
+    @GetMapping("/auth/leave/export/{id}")
+    public ResponseEntity<?> exportStatus(@PathVariable String id, @AuthenticationPrincipal MyUserDetails myUserDetails) {
+        LeaveResponse.ExportJobOutDTO exportJobOutDTO = leaveExportService.내보내기상태(id, myUserDetails.getUser().getId());
+        ResponseDTO<?> responseDTO = new ResponseDTO<>(exportJobOutDTO);
+        return ResponseEntity.ok(responseDTO);
+    }
+
+    @GetMapping("/auth/leave/export/{id}/download")
+    public ResponseEntity<Resource> exportDownload(@PathVariable String id, @AuthenticationPrincipal MyUserDetails myUserDetails) {
+        LeaveExportService.ExportJob job = leaveExportService.내보내기파일(id, myUserDetails.getUser().getId());
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"") // 다운로드, 이름지정
-                .contentType(MediaType.APPLICATION_OCTET_STREAM) // 일반적인 이진 데이터
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFilename() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(job.getFile()));
+    }
+
+    // If-None-Match 는 약한 비교 : W/ 는 떼고 보고, 쉼표로 나열된 값 중 하나라도 같거나 * 이면 일치
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) return false;
+        String target = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || stripWeak(candidate).equals(target)) return true;
+        }
+        return false;
+    }
+
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
     }
 }
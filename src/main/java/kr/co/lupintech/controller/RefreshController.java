@@ -1,6 +1,7 @@
 package kr.co.lupintech.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.util.Pair;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -20,8 +21,12 @@ public class RefreshController
     public ResponseEntity<?> refreshToken(HttpServletRequest request) {
 
         // RefreshService를 통해 액세스 토큰 재발급
-        String accessjwt = refreshService.액세스재발급(request);
+        // 리프레시 토큰도 새로 바뀐다 (이전 토큰은 다시 쓸 수 없음)
+        Pair<String, String> tokenInfo = refreshService.액세스재발급(request);
 
-        return ResponseEntity.ok().header(MyJwtProvider.HEADER, accessjwt).build();
+        return ResponseEntity.ok()
+                .header(MyJwtProvider.HEADER, tokenInfo.getFirst())
+                .header(MyJwtProvider.HEADER_REFRESH, tokenInfo.getSecond())
+                .build();
     }
 }
@@ -1,7 +1,6 @@
 package kr.co.lupintech.controller;
 
-import kr.co.lupintech.model.user.User;
-import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
@@ -9,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import kr.co.lupintech.core.auth.session.MyUserDetails;
@@ -17,7 +17,6 @@ import kr.co.lupintech.core.exception.Exception500;
 import kr.co.lupintech.service.SseService;
 
 import java.io.IOException;
-import java.util.Optional;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -26,21 +25,21 @@ public class SseController {
 
     private final SseService sseService;
 
-    private final UserRepository userRepository;
+    private final UserSnapshotCache userSnapshotCache;
 
     @GetMapping(value = "/auth/connect", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public ResponseEntity<SseEmitter> connect( @AuthenticationPrincipal MyUserDetails myUserDetails) {
+    public ResponseEntity<SseEmitter> connect(@AuthenticationPrincipal MyUserDetails myUserDetails,
+                                              @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
 
         Long userId = myUserDetails.getUser().getId();
-        SseEmitter emitter = sseService.add(userId);
+        SseEmitter emitter = sseService.add(userId, parseEventId(lastEventId)); // 재연결이면 놓친 알람만 다시 받는다
 
         try {
             emitter.send(SseEmitter.event()
                     .name("connect")
                     .data("You are connected!"));
 
-            Optional<User> userPS = userRepository.findById(myUserDetails.getUser().getId());
-            log.info("{} connected", userPS.get().getUsername());
+            log.info("{} connected", usernameOf(userId));
         }
         catch (IOException e)
         {
@@ -51,14 +50,27 @@ public class SseController {
         return ResponseEntity.ok(emitter);
     }
 
+    // 로그용 사원명. 요청마다 user_tb 를 읽지 않게 스냅샷에서
+    private String usernameOf(Long userId) {
+        return userSnapshotCache.get(userId).map(UserSnapshotCache.Snapshot::getUsername).orElse("id " + userId);
+    }
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null; // 잘못된 값이면 새 연결로 취급
+        }
+    }
+
     @PostMapping("/auth/disconnect")
     public ResponseEntity<?> disconnect(@AuthenticationPrincipal MyUserDetails myUserDetails) {
         Long userId = myUserDetails.getUser().getId();
         boolean disconnected = sseService.remove(userId);
 
         if (disconnected) {
-            Optional<User> userPS = userRepository.findById(myUserDetails.getUser().getId());
-            log.info("{} disconnected", userPS.get().getUsername());
+            log.info("{} disconnected", usernameOf(userId));
             return ResponseEntity.ok().build();
         } else {
             throw new Exception400("id", "연결되지 않은 유저입니다.");
@@ -3,6 +3,7 @@ package kr.co.lupintech.core.advice;
 import kr.co.lupintech.core.exception.*;
 import kr.co.lupintech.dto.ValidDTO;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -45,6 +46,14 @@ public class MyExceptionAdvice {
         return new ResponseEntity<>(e.body(), e.status());
     }
 
+    @MyErrorLog
+    @ExceptionHandler(Exception429.class)
+    public ResponseEntity<?> tooManyRequests(Exception429 e){
+        return ResponseEntity.status(e.status())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.body());
+    }
+
     @MyErrorLog
     @ExceptionHandler(Exception500.class)
     public ResponseEntity<?> serverError(Exception500 e){
@@ -0,0 +1,97 @@
+package kr.co.lupintech.core.auth.jwt;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import kr.co.lupintech.model.user.UserRole;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 최근에 검증한 액세스 토큰 -> (id, 권한). 같은 토큰이면 서명 검증과 claim 디코딩을 다시 하지 않는다.
+ * 토큰의 만료 시각이 지나면 쓰지 않는다. 가득 차면 만료된 것만 지우고, 그래도 가득이면 새로 넣지 않는다.
+ */
+public class JwtPrincipalCache {
+
+    private final int maxSize;
+    private final Map<String, Principal> principals = new ConcurrentHashMap<>();
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public JwtPrincipalCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // 없거나 만료됐으면 null
+    public Principal get(String jwt) {
+        Principal principal = principals.get(jwt);
+        if (principal == null) {
+            missCount.increment();
+            return null;
+        }
+        if (principal.isExpired(System.currentTimeMillis())) {
+            principals.remove(jwt, principal);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return principal;
+    }
+
+    public void put(String jwt, Principal principal) {
+        if (principals.size() >= maxSize) {
+            removeExpired();
+            if (principals.size() >= maxSize) return;
+        }
+        principals.put(jwt, principal);
+    }
+
+    public int size() {
+        return principals.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private void removeExpired() {
+        long now = System.currentTimeMillis();
+        principals.values().removeIf(principal -> principal.isExpired(now));
+    }
+
+    @Getter
+    public static class Principal {
+        private final Long id;
+        private final UserRole role;
+        private final long issuedAt; // epoch seconds
+        private final long expiresAt; // epoch millis
+
+        public Principal(Long id, UserRole role, long issuedAt, long expiresAt) {
+            this.id = id;
+            this.role = role;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public static Principal of(DecodedJWT decodedJWT) {
+            Long id = decodedJWT.getClaim("id").asLong();
+            String role = decodedJWT.getClaim("role").asString();
+            long expiresAt = decodedJWT.getExpiresAt() == null ? Long.MAX_VALUE : decodedJWT.getExpiresAt().getTime();
+            // iat 없이 발급된 예전 토큰은 만료 시각에서 거꾸로 계산
+            long issuedAt = decodedJWT.getIssuedAt() != null ? decodedJWT.getIssuedAt().getTime() / 1000
+                    : (expiresAt == Long.MAX_VALUE ? 0 : (expiresAt - MyJwtProvider.EXP_ACCESS) / 1000);
+            return new Principal(id, UserRole.valueOf(role.toUpperCase()), issuedAt, expiresAt);
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import kr.co.lupintech.core.auth.session.MyUserDetails;
 import kr.co.lupintech.model.user.User;
-import kr.co.lupintech.model.user.UserRole;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,8 +21,14 @@ import java.io.IOException;
 @Slf4j
 public class MyJwtAuthorizationFilter extends BasicAuthenticationFilter {
 
-    public MyJwtAuthorizationFilter(AuthenticationManager authenticationManager) {
+    private static final int PRINCIPAL_CACHE_SIZE = 10_000;
+
+    private final JwtPrincipalCache principalCache = new JwtPrincipalCache(PRINCIPAL_CACHE_SIZE);
+    private final TokenRevocationList tokenRevocationList;
+
+    public MyJwtAuthorizationFilter(AuthenticationManager authenticationManager, TokenRevocationList tokenRevocationList) {
         super(authenticationManager);
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
@@ -38,20 +43,12 @@ public class MyJwtAuthorizationFilter extends BasicAuthenticationFilter {
         String jwt = prefixJwt.replace(MyJwtProvider.TOKEN_PREFIX, "");
         try {
             //System.out.println("디버그 : 토큰 있음");
-            DecodedJWT decodedJWT = MyJwtProvider.verify(jwt);
-            Long id = decodedJWT.getClaim("id").asLong();
-            String role = decodedJWT.getClaim("role").asString();
-            UserRole userRole = UserRole.valueOf(role.toUpperCase());
-
-            User user = User.builder().id(id).role(userRole).build();
-            MyUserDetails myUserDetails = new MyUserDetails(user);
-            Authentication authentication =
-                    new UsernamePasswordAuthenticationToken(
-                            myUserDetails,
-                            myUserDetails.getPassword(),
-                            myUserDetails.getAuthorities()
-                    );
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            Authentication authentication = authenticate(jwt);
+            if (authentication == null) {
+                log.error("폐기된 토큰");
+            } else {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
             //System.out.println("디버그 : 인증 객체 만들어짐");
         } catch (SignatureVerificationException sve) {
             log.error("토큰 검증 실패");
@@ -61,4 +58,29 @@ public class MyJwtAuthorizationFilter extends BasicAuthenticationFilter {
             chain.doFilter(request, response);
         }
     }
+
+    // 최근에 검증한 토큰이면 캐시에서, 아니면 서명 검증 후 캐시에 넣는다. 퇴사/권한수정으로 폐기된 토큰이면 null
+    Authentication authenticate(String jwt) {
+        JwtPrincipalCache.Principal principal = principalCache.get(jwt);
+        if (principal == null) {
+            DecodedJWT decodedJWT = MyJwtProvider.verify(jwt);
+            principal = JwtPrincipalCache.Principal.of(decodedJWT);
+            principalCache.put(jwt, principal);
+        }
+        if (tokenRevocationList.isRevoked(principal.getId(), principal.getIssuedAt())) {
+            return null;
+        }
+
+        User user = User.builder().id(principal.getId()).role(principal.getRole()).build();
+        MyUserDetails myUserDetails = new MyUserDetails(user);
+        return new UsernamePasswordAuthenticationToken(
+                myUserDetails,
+                myUserDetails.getPassword(),
+                myUserDetails.getAuthorities()
+        );
+    }
+
+    public JwtPrincipalCache getPrincipalCache() {
+        return principalCache;
+    }
 }
\ No newline at end of file
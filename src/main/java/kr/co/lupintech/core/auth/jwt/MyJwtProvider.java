@@ -5,12 +5,16 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.SignatureVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
 import kr.co.lupintech.model.token.RefreshTokenEntity;
 import kr.co.lupintech.model.token.TokenStatus;
 import kr.co.lupintech.model.user.User;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
 import java.util.UUID;
 
@@ -19,7 +23,7 @@ public class MyJwtProvider {
 
     protected static final String SUBJECT = "jwtstudy";
     protected static final int EXP_ACCESS = 1000 * 60 * 60* 24; // 24시간
-    protected static final int EXP_REFRESH = 1000 * 60 * 60* 24 * 7; // 7일
+    public static final int EXP_REFRESH = 1000 * 60 * 60* 24 * 7; // 7일
     public static final String TOKEN_PREFIX = "Bearer "; // 스페이스 필요함
     public static final String HEADER = "Authorization";
 
@@ -29,33 +33,51 @@ public class MyJwtProvider {
 
     //private static final String SECRET = System.getenv("HS512_SECRET");
 
+    // Algorithm, JWTVerifier 는 thread-safe 라서 요청마다 만들지 않고 같이 쓴다
+    private static final Algorithm ACCESS_ALGORITHM = Algorithm.HMAC512(ACCESS_SECRET);
+    private static final Algorithm REFRESH_ALGORITHM = Algorithm.HMAC512(REFRESH_SECRET);
+    private static final JWTVerifier ACCESS_VERIFIER = JWT.require(ACCESS_ALGORITHM).build();
+    private static final JWTVerifier REFRESH_VERIFIER = JWT.require(REFRESH_ALGORITHM).build();
+
     public static String createAccess(User user) {
         String jwt = JWT.create()
                 .withSubject(SUBJECT)
+                .withIssuedAt(new Date()) // 폐기 여부 확인용 (TokenRevocationList)
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXP_ACCESS))
                 .withClaim("id", user.getId())
                 .withClaim("role", user.getRole().name())   //string -> enum 으로 바뀌면서 .name()클래스 추가
-                .sign(Algorithm.HMAC512(ACCESS_SECRET));
+                .sign(ACCESS_ALGORITHM);
         return TOKEN_PREFIX + jwt;
     }
 
     public static Pair<String, RefreshTokenEntity> createRefresh(User user) {
+        return createRefresh(user, null);
+    }
+
+    // familyId 가 null 이면 새 family (로그인), 아니면 같은 family 로 교체 (재발급)
+    public static Pair<String, RefreshTokenEntity> createRefresh(User user, String familyId) {
 
         String uuid = UUID.randomUUID().toString();
+        LocalDateTime issuedAt = LocalDateTime.now();
+        LocalDateTime expiresAt = issuedAt.plus(EXP_REFRESH, ChronoUnit.MILLIS);
 
-        RefreshTokenEntity refreshToken = new RefreshTokenEntity(user, uuid, TokenStatus.VALID);
+        RefreshTokenEntity refreshToken = new RefreshTokenEntity(user, uuid, familyId == null ? uuid : familyId,
+                TokenStatus.VALID, issuedAt, expiresAt);
 
         String jwt = JWT.create()
                 .withSubject(SUBJECT)
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXP_REFRESH))
+                .withExpiresAt(Date.from(expiresAt.atZone(ZoneId.systemDefault()).toInstant()))
                 .withClaim("uuid", uuid)
-                .sign(Algorithm.HMAC512(REFRESH_SECRET));
+                .sign(REFRESH_ALGORITHM);
         return Pair.of(TOKEN_PREFIX + jwt, refreshToken);
     }
 
     public static DecodedJWT verify(String jwt) throws SignatureVerificationException, TokenExpiredException {
-        DecodedJWT decodedJWT = JWT.require(Algorithm.HMAC512(ACCESS_SECRET))
-                .build().verify(jwt);
+        DecodedJWT decodedJWT = ACCESS_VERIFIER.verify(jwt);
         return decodedJWT;
     }
+
+    public static DecodedJWT verifyRefresh(String jwt) throws SignatureVerificationException, TokenExpiredException {
+        return REFRESH_VERIFIER.verify(jwt);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package kr.co.lupintech.core.auth.jwt;
+
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 사원별 "이 시각(초) 전에 발급된 액세스 토큰은 무효" 맵. 필터가 요청마다 DB 없이 O(1)로 확인한다.
+ * 퇴사/권한수정 시 user_tb.token_revoked_at 을 남기고 커밋 후 바로 반영한다.
+ * 다른 서버에서 폐기한 것은 MyScheduleUtil 이 바뀐 행만 주기적으로 읽어 반영한다.
+ * 액세스 토큰 유효기간(EXP_ACCESS)이 지난 항목은 더 막을 토큰이 없으므로 지운다.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final long POLL_OVERLAP_SECONDS = 60; // 늦게 커밋된 폐기도 놓치지 않도록 겹쳐서 읽는다
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Long> notBefore = new ConcurrentHashMap<>(); // userId -> epoch seconds
+    private volatile LocalDateTime lastPolledAt;
+
+    // 지표
+    private final LongAdder rejectCount = new LongAdder();
+
+    public TokenRevocationList(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // issuedAt(초) 에 발급된 토큰이 폐기됐는지
+    public boolean isRevoked(Long userId, long issuedAt) {
+        Long revokedAt = notBefore.get(userId);
+        if (revokedAt == null || issuedAt >= revokedAt) return false;
+        rejectCount.increment();
+        return true;
+    }
+
+    // 지금까지 발급된 이 사원의 액세스 토큰 폐기. 트랜잭션 안이면 커밋 후 반영
+    public void revoke(User user) {
+        Long userId = user.getId();
+        long revokedAt = toEpochSecond(user.getTokenRevokedAt());
+        MyTransactionUtil.afterCommit(() -> notBefore.merge(userId, revokedAt, Math::max));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        poll(LocalDateTime.now().minusSeconds(MyJwtProvider.EXP_ACCESS / 1000));
+    }
+
+    // 지난번 읽은 뒤로 폐기된 사원만 읽는다
+    public int refresh() {
+        LocalDateTime since = lastPolledAt == null
+                ? LocalDateTime.now().minusSeconds(MyJwtProvider.EXP_ACCESS / 1000)
+                : lastPolledAt.minusSeconds(POLL_OVERLAP_SECONDS);
+        int count = poll(since);
+        removeExpired();
+        return count;
+    }
+
+    public int size() {
+        return notBefore.size();
+    }
+
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+
+    private int poll(LocalDateTime since) {
+        LocalDateTime polledAt = LocalDateTime.now();
+        int count = 0;
+        for (User user : userRepository.findByTokenRevokedAtAfter(since)) {
+            notBefore.merge(user.getId(), toEpochSecond(user.getTokenRevokedAt()), Math::max);
+            count++;
+        }
+        lastPolledAt = polledAt;
+        if (count > 0) log.debug("token revocations loaded: {}", count);
+        return count;
+    }
+
+    private void removeExpired() {
+        long expiredBefore = System.currentTimeMillis() / 1000 - MyJwtProvider.EXP_ACCESS / 1000;
+        notBefore.values().removeIf(revokedAt -> revokedAt < expiredBefore);
+    }
+
+    // JWT iat 는 초 단위라서 폐기 시각도 초로 자른다. 같은 초에 새로 받은 토큰은 유효
+    private long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+}
@@ -1,26 +1,60 @@
 package kr.co.lupintech.core.auth.session;
 
+import kr.co.lupintech.core.cache.LocalTtlCache;
+import kr.co.lupintech.core.cache.UserCredentialCache;
 import kr.co.lupintech.model.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import kr.co.lupintech.model.user.User;
 
+import java.util.Optional;
+
+@Slf4j
 @RequiredArgsConstructor
 @Service
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
+    private final UserCredentialCache userCredentialCache;
 
     /**
      * login 시 username, password -> email, password 로 바뀜에 따른 코드 수정
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User userPS = userRepository.findByEmail(email).orElseThrow(
+        LocalTtlCache.Entry<UserCredentialCache.Credential> cached = userCredentialCache.get(email);
+        if (cached != null) {
+            if (cached.getValue() == null) throw new InternalAuthenticationServiceException("인증 실패");
+            return new MyUserDetails(cached.getValue().toUser());
+        }
+
+        long version = userCredentialCache.version();
+        Optional<User> userOP = userRepository.findByEmail(email);
+        userCredentialCache.put(email, userOP.orElse(null), version);
+        User userPS = userOP.orElseThrow(
                 () -> new InternalAuthenticationServiceException("인증 실패")); // 나중에 테스트할 때 설명해드림.
         return new MyUserDetails(userPS);
     }
+
+    /**
+     * 로그인 성공 후 저장된 해시의 cost 가 password.bcrypt.strength 보다 낮으면 DaoAuthenticationProvider 가 호출한다.
+     * 방금 검증한 비밀번호를 새 cost 로 해싱한 값으로 바꿔 저장한다.
+     */
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Long id = ((MyUserDetails) user).getUser().getId();
+        User userPS = userRepository.findById(id).orElseThrow(
+                () -> new InternalAuthenticationServiceException("인증 실패"));
+        userPS.changePassword(newPassword);
+        userCredentialCache.evict(userPS.getEmail());
+        log.debug("password hash upgraded, userId: {}", id);
+        return new MyUserDetails(userPS);
+    }
 }
@@ -0,0 +1,148 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.alarm.Alarm;
+import kr.co.lupintech.model.alarm.AlarmRepository;
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 알람 뱃지용 카운터. 사원별 안 읽은 알람 수와 관리자용 신청대기 알람 수를 메모리에 들고 있다.
+ * 처음 조회할 때 DB 에서 한 번 세고, 그 뒤로는 알람 생성/읽음/대기 해소 시 커밋 후 더하고 뺀다.
+ * 다른 서버에는 CacheInvalidationBus 로 알려서, 받은 서버는 그 카운터를 버리고 다음 조회에서 DB 로 다시 센다 ("unread:사원id", "waiting").
+ * 놓친 변경이 있어도 MyScheduleUtil 이 주기적으로 resync 해서 맞춘다.
+ */
+@Slf4j
+@Component
+public class AlarmCounter implements CacheInvalidationBus.Listener {
+
+    private static final long NOT_LOADED = -1;
+    private static final String UNREAD_PREFIX = "unread:";
+    private static final String WAITING = "waiting";
+
+    private final AlarmRepository alarmRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<Long, AtomicLong> unreadCounts = new ConcurrentHashMap<>();
+    private final AtomicLong waitingCount = new AtomicLong(NOT_LOADED);
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder(); // DB count 쿼리
+    private final LongAdder resyncCount = new LongAdder();
+
+    public AlarmCounter(AlarmRepository alarmRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.alarmRepository = alarmRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    // 사원의 안 읽은 (승인/거절) 알람 수
+    public long unread(Long userId) {
+        AtomicLong count = unreadCounts.get(userId);
+        if (count != null) {
+            hitCount.increment();
+            return Math.max(0, count.get());
+        }
+        count = unreadCounts.computeIfAbsent(userId, id -> {
+            loadCount.increment();
+            return new AtomicLong(alarmRepository.countUnreadByUserId(id));
+        });
+        return Math.max(0, count.get());
+    }
+
+    // 모든 사원의 신청대기 알람 수 (관리자)
+    public long waiting() {
+        long count = waitingCount.get();
+        if (count != NOT_LOADED) {
+            hitCount.increment();
+            return count;
+        }
+        synchronized (this) {
+            if (waitingCount.get() == NOT_LOADED) {
+                loadCount.increment();
+                waitingCount.set(alarmRepository.countByLeaveStatus(LeaveStatus.WAITING));
+            }
+        }
+        return Math.max(0, waitingCount.get());
+    }
+
+    // 알람 저장 직후 호출. 신청(대기) 알람은 관리자 카운터, 승인/거절 알람은 신청자의 안 읽은 카운터
+    public void created(Alarm alarm) {
+        if (alarm.getLeave().getStatus() == LeaveStatus.WAITING) {
+            addWaiting(1);
+        } else if (alarm.getReadAt() == null) {
+            addUnread(alarm.getUser().getId(), 1);
+        }
+    }
+
+    // 결정, 취소, 자정 삭제로 대기 상태를 벗어난 신청 수
+    public void waitingResolved(int count) {
+        if (count > 0) addWaiting(-count);
+    }
+
+    public void read(Long userId, int count) {
+        if (count > 0) addUnread(userId, -count);
+    }
+
+    // DB 기준으로 다시 맞춘다. 사원별 카운터는 비워 두면 다음 조회에서 다시 센다
+    public void resync() {
+        long waiting = alarmRepository.countByLeaveStatus(LeaveStatus.WAITING);
+        synchronized (this) {
+            waitingCount.set(waiting);
+        }
+        unreadCounts.clear();
+        resyncCount.increment();
+        log.debug("alarm counter resynced, waiting: {}", waiting);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getResyncCount() {
+        return resyncCount.sum();
+    }
+
+    // 아직 센 적 없는 카운터는 건드리지 않는다 (다음 조회에서 DB 로 센다)
+    private void addUnread(Long userId, long delta) {
+        MyTransactionUtil.afterCommit(() -> unreadCounts.computeIfPresent(userId, (id, count) -> {
+            count.addAndGet(delta);
+            return count;
+        }));
+        cacheInvalidationBus.publish(cacheName(), UNREAD_PREFIX + userId);
+    }
+
+    private void addWaiting(long delta) {
+        MyTransactionUtil.afterCommit(() -> waitingCount.updateAndGet(count -> count == NOT_LOADED ? count : Math.max(0, count + delta)));
+        cacheInvalidationBus.publish(cacheName(), WAITING);
+    }
+
+    @Override
+    public String cacheName() {
+        return "alarmCounter";
+    }
+
+    // 다른 서버의 증감은 값이 아니라 무효화로 받는다. 다음 조회에서 DB 로 센다
+    @Override
+    public void onRemoteInvalidation(String key) {
+        if (WAITING.equals(key)) {
+            synchronized (this) {
+                waitingCount.set(NOT_LOADED);
+            }
+        } else if (key.startsWith(UNREAD_PREFIX)) {
+            unreadCounts.remove(Long.valueOf(key.substring(UNREAD_PREFIX.length())));
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.dto.leave.LeaveResponse;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 달력 화면용 월(yyyy-MM) 단위 연차/당직 캐시.
+ * 연차/당직이 바뀌면 그 기간에 걸친 달만 세대(generation)를 올려 무효화한다. 세대 값은 ETag 로도 쓴다.
+ * 무효화한 달은 CacheInvalidationBus 로 다른 서버에도 알린다 ("2023-05~2023-06", 모든 달이면 "*").
+ */
+@Component
+public class LeaveCalendarCache implements CacheInvalidationBus.Listener {
+
+    private static final String ALL_MONTHS = "*";
+
+    private static final int MAX_MONTHS = 36;
+
+    private final long epoch = System.currentTimeMillis(); // 재시작 후 예전 ETag와 겹치지 않도록
+    private final AtomicLong globalGeneration = new AtomicLong(); // 모든 달 무효화
+    private final Map<YearMonth, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Map<YearMonth, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public LeaveCalendarCache(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    public List<LeaveResponse.InfoOutDTO> get(YearMonth month, Function<YearMonth, List<LeaveResponse.InfoOutDTO>> loader) {
+        long global = globalGeneration.get();
+        long generation = generation(month);
+        Bucket bucket = buckets.get(month);
+        if (bucket != null && bucket.global == global && bucket.generation == generation) return bucket.leaves;
+
+        // 읽는 도중 무효화되면 세대가 달라져 다음 조회에서 다시 읽는다
+        List<LeaveResponse.InfoOutDTO> leaves = Collections.unmodifiableList(loader.apply(month));
+        buckets.put(month, new Bucket(global, generation, leaves));
+        evictIfFull();
+        return leaves;
+    }
+
+    public String eTag(YearMonth... months) {
+        StringBuilder sb = new StringBuilder("\"").append(epoch).append('-').append(globalGeneration.get());
+        for (YearMonth month : months) {
+            sb.append('-').append(generation(month));
+        }
+        return sb.append('"').toString();
+    }
+
+    // [start, end] 기간에 걸친 달 무효화. 트랜잭션 안이면 커밋 후에 무효화
+    public void evict(LocalDate start, LocalDate end) {
+        YearMonth from = YearMonth.from(start);
+        YearMonth to = YearMonth.from(end);
+        MyTransactionUtil.afterCommit(() -> evictMonths(from, to));
+        cacheInvalidationBus.publish(cacheName(), from + "~" + to);
+    }
+
+    // 사원명, 프로필 등 모든 달에 걸친 정보가 바뀐 경우
+    public void evictAll() {
+        MyTransactionUtil.afterCommit(this::evictAllMonths);
+        cacheInvalidationBus.publish(cacheName(), ALL_MONTHS);
+    }
+
+    @Override
+    public String cacheName() {
+        return "leaveCalendar";
+    }
+
+    @Override
+    public void onRemoteInvalidation(String key) {
+        if (ALL_MONTHS.equals(key)) {
+            evictAllMonths();
+            return;
+        }
+        int separator = key.indexOf('~');
+        evictMonths(YearMonth.parse(key.substring(0, separator)), YearMonth.parse(key.substring(separator + 1)));
+    }
+
+    private void evictAllMonths() {
+        globalGeneration.incrementAndGet();
+        buckets.clear();
+    }
+
+    private void evictMonths(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            generations.computeIfAbsent(month, m -> new AtomicLong()).incrementAndGet();
+            buckets.remove(month);
+        }
+    }
+
+    private long generation(YearMonth month) {
+        AtomicLong generation = generations.get(month);
+        return generation == null ? 0 : generation.get();
+    }
+
+    // 이번 달에서 가장 먼 달부터 제거
+    private void evictIfFull() {
+        YearMonth now = YearMonth.now();
+        while (buckets.size() > MAX_MONTHS) {
+            buckets.keySet().stream()
+                    .max(Comparator.comparingLong(month -> Math.abs(ChronoUnit.MONTHS.between(now, month))))
+                    .ifPresent(buckets::remove);
+        }
+    }
+
+    private static class Bucket {
+        private final long global;
+        private final long generation;
+        private final List<LeaveResponse.InfoOutDTO> leaves;
+
+        private Bucket(long global, long generation, List<LeaveResponse.InfoOutDTO> leaves) {
+            this.global = global;
+            this.generation = generation;
+            this.leaves = leaves;
+        }
+    }
+}
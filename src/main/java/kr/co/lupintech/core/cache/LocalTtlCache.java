@@ -0,0 +1,120 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DB 에서 읽은 값을 ttl 동안 들고 있는 서버 메모리 캐시의 공통 부분 (UserSnapshotCache, UserCredentialCache).
+ * 값을 바꾸는 쪽은 evict 를 부른다: 바로 빼고, 트랜잭션 안이면 커밋 후 한 번 더 뺀다(커밋 전에 읽어 간 옛 값 제거).
+ * 커밋 후에는 CacheInvalidationBus 로 다른 서버에도 같은 키를 빼라고 알린다.
+ * 읽기 전에 version() 을 받아 두고 store 에 넘기면, 읽는 사이에 무효화된 값은 넣지 않는다.
+ * ttl 이 0 이하면 넣지 않는다. 가득 차면 만료된 것만 지우고 그래도 가득이면 넣지 않는다.
+ */
+public abstract class LocalTtlCache<K, V> implements CacheInvalidationBus.Listener {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong(); // 무효화할 때마다 증가
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictCount = new LongAdder();
+
+    protected LocalTtlCache(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    protected abstract long ttlSeconds();
+
+    // 다른 서버에서 받은 키 문자열을 K 로
+    protected abstract K parseKey(String key);
+
+    // 없거나 만료됐으면 null. 값이 null 인 Entry 는 "없음"으로 캐시된 것
+    protected Entry<V> lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            if (entry != null) entries.remove(key, entry);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry;
+    }
+
+    // DB 에서 읽기 전에 받아 두고 store 할 때 넘긴다
+    public long version() {
+        return version.get();
+    }
+
+    protected void store(K key, V value, long versionAtLoad) {
+        long ttlSeconds = ttlSeconds();
+        if (ttlSeconds <= 0) return;
+        long now = System.currentTimeMillis();
+        if (entries.size() >= MAX_SIZE) {
+            entries.values().removeIf(entry -> entry.isExpired(now));
+            if (entries.size() >= MAX_SIZE) return;
+        }
+        Entry<V> entry = new Entry<>(value, now + ttlSeconds * 1000);
+        entries.put(key, entry);
+        if (version.get() != versionAtLoad) entries.remove(key, entry); // 읽는 동안 무효화됐다
+    }
+
+    public void evict(K key) {
+        if (key == null) return;
+        invalidate(key);
+        MyTransactionUtil.afterCommit(() -> invalidate(key));
+        cacheInvalidationBus.publish(cacheName(), String.valueOf(key));
+    }
+
+    @Override
+    public void onRemoteInvalidation(String key) {
+        invalidate(parseKey(key));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictCount() {
+        return evictCount.sum();
+    }
+
+    private void invalidate(K key) {
+        version.incrementAndGet();
+        entries.remove(key);
+        evictCount.increment();
+    }
+
+    @Getter
+    public static class Entry<V> {
+        private final V value;
+        private final long expiresAt; // epoch millis
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
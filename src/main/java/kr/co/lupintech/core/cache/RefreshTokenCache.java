@@ -0,0 +1,127 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 사용 중인(VALID) 리프레시 토큰 uuid -> (사원 id, 토큰 family). 재발급할 때 토큰을 DB 에서 읽지 않는다.
+ * 권한은 서버마다 따로 바뀌면 어긋나므로 담지 않는다. 재발급은 권한/재직 여부를 매번 DB 에서 읽는다.
+ * 발급/교체는 커밋 후 넣고, 회수/교체/퇴사는 바로 뺀다. 없으면 DB 에서 읽는다.
+ * 뺀 것은 CacheInvalidationBus 로 다른 서버에도 알린다 ("uuid:", "family:", "user:" + 값).
+ * 가득 차면 만료된 것만 지우고, 그래도 가득이면 새로 넣지 않는다.
+ */
+@Component
+public class RefreshTokenCache implements CacheInvalidationBus.Listener {
+
+    private static final int MAX_SIZE = 50_000;
+    private static final String UUID_PREFIX = "uuid:";
+    private static final String FAMILY_PREFIX = "family:";
+    private static final String USER_PREFIX = "user:";
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public RefreshTokenCache(CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    public Entry get(String uuid) {
+        Entry entry = entries.get(uuid);
+        if (entry == null || entry.isExpired(LocalDateTime.now())) {
+            if (entry != null) entries.remove(uuid, entry);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry;
+    }
+
+    // 트랜잭션 안이면 커밋 후 반영
+    public void put(String uuid, Entry entry) {
+        MyTransactionUtil.afterCommit(() -> {
+            if (entries.size() >= MAX_SIZE) {
+                LocalDateTime now = LocalDateTime.now();
+                entries.values().removeIf(e -> e.isExpired(now));
+                if (entries.size() >= MAX_SIZE) return;
+            }
+            entries.put(uuid, entry);
+        });
+    }
+
+    public void evict(String uuid) {
+        entries.remove(uuid);
+        cacheInvalidationBus.publish(cacheName(), UUID_PREFIX + uuid);
+    }
+
+    public void evictFamily(String familyId) {
+        removeFamily(familyId);
+        cacheInvalidationBus.publish(cacheName(), FAMILY_PREFIX + familyId);
+    }
+
+    // 퇴사
+    public void evictUser(Long userId) {
+        removeUser(userId);
+        cacheInvalidationBus.publish(cacheName(), USER_PREFIX + userId);
+    }
+
+    @Override
+    public String cacheName() {
+        return "refreshToken";
+    }
+
+    @Override
+    public void onRemoteInvalidation(String key) {
+        if (key.startsWith(UUID_PREFIX)) entries.remove(key.substring(UUID_PREFIX.length()));
+        else if (key.startsWith(FAMILY_PREFIX)) removeFamily(key.substring(FAMILY_PREFIX.length()));
+        else if (key.startsWith(USER_PREFIX)) removeUser(Long.valueOf(key.substring(USER_PREFIX.length())));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private void removeFamily(String familyId) {
+        entries.values().removeIf(entry -> entry.getFamilyId().equals(familyId));
+    }
+
+    private void removeUser(Long userId) {
+        entries.values().removeIf(entry -> entry.getUserId().equals(userId));
+    }
+
+    @Getter
+    public static class Entry {
+        private final Long userId;
+        private final String familyId;
+        private final LocalDateTime expiresAt;
+
+        public Entry(Long userId, String familyId, LocalDateTime expiresAt) {
+            this.userId = userId;
+            this.familyId = familyId;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(LocalDateTime now) {
+            return expiresAt != null && !now.isBefore(expiresAt);
+        }
+    }
+}
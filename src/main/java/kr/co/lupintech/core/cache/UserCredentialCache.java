@@ -0,0 +1,83 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRole;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 로그인용 이메일 -> 인증 정보(id, 이메일, 비밀번호 해시, 권한, 상태). 같은 이메일로 다시 로그인하면 user_tb 를 읽지 않는다.
+ * 엔티티가 아니라 값만 복사해 두고, 꺼낼 때마다 새 User 를 만들어 준다(요청 스레드끼리 같은 객체를 나눠 쓰지 않음).
+ * 없는 이메일도 "없음"으로 넣어 두어서 같은 이메일로 반복되는 시도가 DB 까지 가지 않는다.
+ * 회원가입/개인정보수정/권한수정/퇴사 시 evict 한다. 다른 서버에는 폴링 주기 뒤에 전달되므로,
+ * 그 사이나 전달이 실패했을 때를 생각해 ttl 은 몇 초로 짧게 둔다(같은 이메일로 몰리는 시도만 막는 용도).
+ */
+@Component
+public class UserCredentialCache extends LocalTtlCache<String, UserCredentialCache.Credential> {
+
+    @Value("${user.credential-cache.ttl-seconds:5}")
+    private long ttlSeconds = 5; // 0 이면 캐시하지 않음
+
+    public UserCredentialCache(CacheInvalidationBus cacheInvalidationBus) {
+        super(cacheInvalidationBus);
+    }
+
+    // 없거나 만료됐으면 null. 없는 이메일로 캐시된 경우 Entry.value 가 null
+    public Entry<Credential> get(String email) {
+        return lookup(email);
+    }
+
+    // DB 에서 읽기 전에 version() 을 받아 두고 넘긴다. user 가 null 이면 없는 이메일
+    public void put(String email, User user, long versionAtLoad) {
+        store(email, user == null ? null : new Credential(user), versionAtLoad);
+    }
+
+    @Override
+    public String cacheName() {
+        return "userCredential";
+    }
+
+    @Override
+    protected long ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    @Override
+    protected String parseKey(String key) {
+        return key;
+    }
+
+    // 로그인에 필요한 값만. 불변
+    @Getter
+    public static class Credential {
+        private final Long id;
+        private final String username;
+        private final String email;
+        private final String password; // BCrypt 해시
+        private final UserRole role;
+        private final Boolean status;
+
+        private Credential(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+            this.password = user.getPassword();
+            this.role = user.getRole();
+            this.status = user.getStatus();
+        }
+
+        // 꺼낼 때마다 새로 만든다. 영속성 컨텍스트와 무관한 User
+        public User toUser() {
+            return User.builder()
+                    .id(id)
+                    .username(username)
+                    .email(email)
+                    .password(password)
+                    .role(role)
+                    .status(status)
+                    .build();
+        }
+    }
+}
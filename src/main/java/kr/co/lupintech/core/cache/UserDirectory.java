@@ -0,0 +1,204 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.model.user.UserRole;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재직 중인 사원의 (id, 사원명, 권한) 디렉터리. 권한별 id 목록을 미리 만들어 둔다.
+ * 시작할 때 한 번 읽고, 회원가입/권한수정/퇴사/개인정보수정 시 커밋 후 반영한다. 매일 자정 전체를 다시 읽는다.
+ * 바뀐 id 는 CacheInvalidationBus 로 다른 서버에도 알리고, 받은 서버는 그 사원만 DB 에서 다시 읽는다.
+ * 읽기는 잠금 없이 스냅샷을 보고, 쓰기는 새 스냅샷을 만들어 바꿔 끼운다.
+ */
+@Slf4j
+@Component
+public class UserDirectory implements CacheInvalidationBus.Listener {
+
+    private static final Set<UserRole> MANAGER_ROLES = Collections.unmodifiableSet(EnumSet.of(UserRole.ROLE_ADMIN, UserRole.ROLE_MASTER));
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private volatile Snapshot snapshot; // null 이면 아직 적재 전
+
+    // 전체 적재 중에 커밋된 변경 (id -> 값, null 값은 퇴사). 적재가 끝나면 읽어온 값 위에 다시 적용한다. this 로 잠금
+    private Map<Long, Entry> pending;
+    private int loading;
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder(); // 적재 전 조회
+    private final LongAdder refreshCount = new LongAdder(); // 전체 적재
+    private final LongAdder updateCount = new LongAdder(); // 한 명 반영
+
+    public UserDirectory(UserRepository userRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.userRepository = userRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        synchronized (this) {
+            if (loading++ == 0) pending = new HashMap<>();
+        }
+        Map<Long, Entry> byId = new HashMap<>();
+        boolean loaded = false;
+        try {
+            for (User user : userRepository.findAllActive()) {
+                byId.put(user.getId(), new Entry(user));
+            }
+            loaded = true;
+        } finally {
+            synchronized (this) {
+                if (loaded) {
+                    // DB 를 읽는 동안 커밋된 변경은 읽은 값에 빠져 있을 수 있다
+                    pending.forEach((id, entry) -> {
+                        if (entry == null) byId.remove(id);
+                        else byId.put(id, entry);
+                    });
+                    snapshot = new Snapshot(byId);
+                }
+                if (--loading == 0) pending = null;
+            }
+        }
+        refreshCount.increment();
+        log.info("user directory loaded: {}", byId.size());
+    }
+
+    // 관리자(ADMIN, MASTER) id
+    public List<Long> managerIds() {
+        return idsByRoles(MANAGER_ROLES);
+    }
+
+    public List<Long> idsByRoles(Set<UserRole> roles) {
+        Snapshot current = current();
+        if (roles.size() == 1) return current.idsByRole.get(roles.iterator().next());
+
+        List<Long> ids = new ArrayList<>();
+        for (UserRole role : roles) {
+            ids.addAll(current.idsByRole.get(role));
+        }
+        return ids;
+    }
+
+    public Optional<Entry> get(Long id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+
+    // 재직 중인 사원인지
+    public boolean contains(Long id) {
+        return current().byId.containsKey(id);
+    }
+
+    public int size() {
+        return current().byId.size();
+    }
+
+    // 가입, 권한/사원명 변경. 트랜잭션 안이면 커밋 후 반영. 퇴사한 사원은 두지 않는다
+    public void put(User user) {
+        Long id = user.getId();
+        Entry entry = Boolean.TRUE.equals(user.getStatus()) ? new Entry(user) : null; // 값은 지금 복사
+        MyTransactionUtil.afterCommit(() -> update(id, entry));
+        cacheInvalidationBus.publish(cacheName(), String.valueOf(id));
+    }
+
+    // 퇴사
+    public void remove(Long id) {
+        MyTransactionUtil.afterCommit(() -> update(id, null));
+        cacheInvalidationBus.publish(cacheName(), String.valueOf(id));
+    }
+
+    @Override
+    public String cacheName() {
+        return "userDirectory";
+    }
+
+    // 다른 서버에서 바뀐 사원. 커밋된 값을 DB 에서 다시 읽는다
+    @Override
+    public void onRemoteInvalidation(String key) {
+        Long id = Long.valueOf(key);
+        Entry entry = userRepository.findById(id)
+                .filter(user -> Boolean.TRUE.equals(user.getStatus()))
+                .map(Entry::new)
+                .orElse(null);
+        update(id, entry);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long getUpdateCount() {
+        return updateCount.sum();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hitCount.increment();
+            return current;
+        }
+        missCount.increment();
+        refresh();
+        return snapshot;
+    }
+
+    private void update(Long id, Entry entry) {
+        synchronized (this) {
+            if (pending != null) pending.put(id, entry); // 적재 중이면 끝날 때 다시 적용
+            if (snapshot == null) return; // 적재할 때 DB에서 읽는다
+            Map<Long, Entry> byId = new HashMap<>(snapshot.byId);
+            if (entry == null) byId.remove(id);
+            else byId.put(id, entry);
+            snapshot = new Snapshot(byId);
+        }
+        updateCount.increment();
+    }
+
+    @Getter
+    public static class Entry {
+        private final Long id;
+        private final String username;
+        private final UserRole role;
+
+        private Entry(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.role = user.getRole();
+        }
+    }
+
+    private static class Snapshot {
+        private final Map<Long, Entry> byId;
+        private final Map<UserRole, List<Long>> idsByRole = new EnumMap<>(UserRole.class);
+
+        private Snapshot(Map<Long, Entry> byId) {
+            this.byId = Collections.unmodifiableMap(byId);
+            for (UserRole role : UserRole.values()) {
+                idsByRole.put(role, new ArrayList<>());
+            }
+            byId.values().stream()
+                    .filter(entry -> entry.getRole() != null)
+                    .forEach(entry -> idsByRole.get(entry.getRole()).add(entry.getId()));
+            idsByRole.replaceAll((role, ids) -> Collections.unmodifiableList(ids));
+        }
+    }
+}
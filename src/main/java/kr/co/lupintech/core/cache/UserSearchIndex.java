@@ -0,0 +1,300 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 관리자 사원검색용 메모리 색인. 재직 중인 사원의 사원명과 이메일(@ 앞부분)을 2글자씩(bigram) 잘라 id 목록을 만들어 둔다.
+ * 검색어에 @ 가 있으면 이메일 전체와 비교한다.
+ * 사원명은 초성 문자열("김신입" -> "ㄱㅅㅇ")도 따로 색인해서 "ㄱㅅ", "김ㅅ" 같은 초성 검색이 된다.
+ * 검색어의 bigram 중 id 가 가장 적은 것을 후보로 잡고 실제 값과 다시 비교한다. 한 글자 검색은 전체를 메모리에서 훑는다.
+ * 시작할 때 한 번 읽고, 회원가입/개인정보수정/퇴사 시 커밋 후 반영한다(다른 서버는 CacheInvalidationBus 로 받아 DB 에서 다시 읽음). 매일 자정 전체를 다시 읽는다.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex implements CacheInvalidationBus.Listener {
+
+    private static final String CHOSEONG = "ㄱㄲㄴㄷㄸㄹㅁㅂㅃㅅㅆㅇㅈㅉㅊㅋㅌㅍㅎ";
+    private static final char HANGUL_BEGIN = '가';
+    private static final char HANGUL_END = '힣';
+    private static final int SYLLABLES_PER_CHOSEONG = 21 * 28; // 중성 * 종성
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${user.search-index.enabled:true}")
+    private boolean enabled = true; // false 면 사원검색이 DB like 검색을 쓴다
+
+    private volatile Index index; // null 이면 아직 적재 전
+
+    // 전체 적재 중에 커밋된 변경 (id -> 문서, null 값은 퇴사). 적재가 끝나면 읽어온 색인 위에 다시 적용한다. this 로 잠금
+    private Map<Long, Doc> pending;
+    private int loading;
+
+    // 지표
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder scanCount = new LongAdder(); // 후보 없이 전체를 훑은 검색
+    private final LongAdder updateCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+
+    public UserSearchIndex(UserRepository userRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.userRepository = userRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        if (!enabled) return;
+        synchronized (this) {
+            if (loading++ == 0) pending = new HashMap<>();
+        }
+        Index loaded = new Index();
+        boolean done = false;
+        try {
+            for (User user : userRepository.findAllActive()) {
+                loaded.add(new Doc(user));
+            }
+            done = true;
+        } finally {
+            synchronized (this) {
+                if (done) {
+                    // DB 를 읽는 동안 커밋된 변경은 읽은 값에 빠져 있을 수 있다
+                    pending.forEach((id, doc) -> {
+                        loaded.remove(id);
+                        if (doc != null) loaded.add(doc);
+                    });
+                    index = loaded;
+                }
+                if (--loading == 0) pending = null;
+            }
+        }
+        refreshCount.increment();
+        log.info("user search index loaded: {}", loaded.docs.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 사원명 또는 이메일에 query 가 들어 있는 재직 중인 사원 id (오름차순)
+    public List<Long> search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) return Collections.emptyList();
+        searchCount.increment();
+
+        Index current = current();
+        boolean choseongMode = hasChoseong(q);
+        Collection<Long> candidates = choseongMode
+                ? current.candidates(current.choseongGrams, toChoseong(q))
+                : current.candidates(current.grams, q.contains("@") ? q.substring(0, q.indexOf('@')) : q);
+        if (candidates == null) {
+            scanCount.increment();
+            candidates = current.docs.keySet();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Long id : candidates) {
+            Doc doc = current.docs.get(id);
+            if (doc != null && doc.matches(q, choseongMode)) ids.add(id);
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    public int size() {
+        return current().docs.size();
+    }
+
+    // 가입, 사원명/이메일 변경. 트랜잭션 안이면 커밋 후 반영. 퇴사한 사원은 색인에 두지 않는다
+    public void put(User user) {
+        if (!enabled) return;
+        Long id = user.getId();
+        Doc doc = Boolean.TRUE.equals(user.getStatus()) ? new Doc(user) : null; // 값은 지금 복사
+        MyTransactionUtil.afterCommit(() -> update(id, doc));
+        cacheInvalidationBus.publish(cacheName(), String.valueOf(id));
+    }
+
+    // 퇴사
+    public void remove(Long id) {
+        if (!enabled) return;
+        MyTransactionUtil.afterCommit(() -> update(id, null));
+        cacheInvalidationBus.publish(cacheName(), String.valueOf(id));
+    }
+
+    @Override
+    public String cacheName() {
+        return "userSearchIndex";
+    }
+
+    // 다른 서버에서 바뀐 사원. 커밋된 값을 DB 에서 다시 읽는다
+    @Override
+    public void onRemoteInvalidation(String key) {
+        if (!enabled) return;
+        Long id = Long.valueOf(key);
+        Doc doc = userRepository.findById(id)
+                .filter(user -> Boolean.TRUE.equals(user.getStatus()))
+                .map(Doc::new)
+                .orElse(null);
+        update(id, doc);
+    }
+
+    public long getSearchCount() {
+        return searchCount.sum();
+    }
+
+    public long getScanCount() {
+        return scanCount.sum();
+    }
+
+    public long getUpdateCount() {
+        return updateCount.sum();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    private Index current() {
+        Index current = index;
+        if (current != null) return current;
+        refresh();
+        return index;
+    }
+
+    private void update(Long id, Doc doc) {
+        synchronized (this) {
+            if (pending != null) pending.put(id, doc); // 적재 중이면 끝날 때 다시 적용
+            if (index == null) return; // 적재할 때 DB에서 읽는다
+            index.remove(id);
+            if (doc != null) index.add(doc);
+        }
+        updateCount.increment();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isChoseong(char c) {
+        return CHOSEONG.indexOf(c) >= 0;
+    }
+
+    private static boolean hasChoseong(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isChoseong(text.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    // 한글 음절은 초성으로, 나머지 글자는 그대로
+    private static char choseongOf(char c) {
+        if (c < HANGUL_BEGIN || c > HANGUL_END) return c;
+        return CHOSEONG.charAt((c - HANGUL_BEGIN) / SYLLABLES_PER_CHOSEONG);
+    }
+
+    private static String toChoseong(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            sb.append(choseongOf(text.charAt(i)));
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> bigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 2 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    private static class Doc {
+        private final Long id;
+        private final String username;
+        private final String email;
+        private final String emailLocal; // @ 앞부분. 도메인은 모두 비슷해서 색인하지 않는다
+        private final String usernameChoseong;
+
+        private Doc(User user) {
+            this.id = user.getId();
+            this.username = normalize(user.getUsername());
+            this.email = normalize(user.getEmail());
+            int at = email.indexOf('@');
+            this.emailLocal = at < 0 ? email : email.substring(0, at);
+            this.usernameChoseong = toChoseong(username);
+        }
+
+        private boolean matches(String q, boolean choseongMode) {
+            if (choseongMode) return matchesChoseong(q);
+            if (q.indexOf('@') >= 0) return email.contains(q);
+            return username.contains(q) || emailLocal.contains(q);
+        }
+
+        // 검색어의 초성 글자는 같은 초성의 음절과, 나머지 글자는 같은 글자와 맞으면 된다
+        private boolean matchesChoseong(String q) {
+            for (int start = 0; start + q.length() <= username.length(); start++) {
+                int i = 0;
+                while (i < q.length()) {
+                    char p = q.charAt(i);
+                    char c = username.charAt(start + i);
+                    if (isChoseong(p) ? usernameChoseong.charAt(start + i) != p : c != p) break;
+                    i++;
+                }
+                if (i == q.length()) return true;
+            }
+            return false;
+        }
+    }
+
+    private static class Index {
+        private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>(); // 사원명 + 이메일 @ 앞부분
+        private final Map<String, Set<Long>> choseongGrams = new ConcurrentHashMap<>(); // 사원명 초성
+
+        private void add(Doc doc) {
+            docs.put(doc.id, doc);
+            Set<String> textGrams = bigrams(doc.username);
+            textGrams.addAll(bigrams(doc.emailLocal));
+            textGrams.forEach(gram -> grams.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(doc.id));
+            bigrams(doc.usernameChoseong).forEach(gram -> choseongGrams.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(doc.id));
+        }
+
+        private void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc == null) return;
+            Set<String> textGrams = bigrams(doc.username);
+            textGrams.addAll(bigrams(doc.emailLocal));
+            textGrams.forEach(gram -> removePosting(grams, gram, id));
+            bigrams(doc.usernameChoseong).forEach(gram -> removePosting(choseongGrams, gram, id));
+        }
+
+        private void removePosting(Map<String, Set<Long>> postings, String gram, Long id) {
+            postings.computeIfPresent(gram, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        // key 의 bigram 중 id 가 가장 적은 목록. 한 글자 이하라 bigram 이 없으면 null (전체를 훑는다)
+        private Collection<Long> candidates(Map<String, Set<Long>> postings, String key) {
+            Collection<Long> smallest = null;
+            for (String gram : bigrams(key)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) return Collections.emptySet();
+                if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+            }
+            return smallest;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.model.user.UserRole;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 사원 id -> 읽기 전용 스냅샷(사원명, 이메일, 권한, 재직 여부, 남은 연차, 프로필).
+ * 값만 필요한 곳(당직 신청/취소, SSE 접속 로그)이 요청마다 user_tb 를 다시 읽지 않게 한다. 엔티티를 고치는 곳은 지금처럼 DB 에서 읽는다.
+ * 개인정보수정, 연차수정, 권한수정, 퇴사, 연차 사용/복구, 연차 부여에서 evict 한다.
+ */
+@Component
+public class UserSnapshotCache extends LocalTtlCache<Long, UserSnapshotCache.Snapshot> {
+
+    private final UserRepository userRepository;
+
+    @Value("${user.snapshot-cache.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    public UserSnapshotCache(UserRepository userRepository, CacheInvalidationBus cacheInvalidationBus) {
+        super(cacheInvalidationBus);
+        this.userRepository = userRepository;
+    }
+
+    // 없으면 DB 에서 읽어서 넣는다. 퇴사한 사원도 돌려준다 (status 확인은 호출하는 쪽에서)
+    public Optional<Snapshot> get(Long id) {
+        Entry<Snapshot> cached = lookup(id);
+        if (cached != null) return Optional.of(cached.getValue());
+
+        long versionAtLoad = version();
+        Optional<Snapshot> loaded = userRepository.findById(id).map(Snapshot::new);
+        loaded.ifPresent(snapshot -> store(id, snapshot, versionAtLoad));
+        return loaded;
+    }
+
+    @Override
+    public String cacheName() {
+        return "userSnapshot";
+    }
+
+    @Override
+    protected long ttlSeconds() {
+        return ttlSeconds;
+    }
+
+    @Override
+    protected Long parseKey(String key) {
+        return Long.valueOf(key);
+    }
+
+    @Getter
+    public static class Snapshot {
+        private final Long id;
+        private final String username;
+        private final String email;
+        private final UserRole role;
+        private final Boolean status;
+        private final Integer remainDays;
+        private final String profile;
+
+        public Snapshot(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.email = user.getEmail();
+            this.role = user.getRole();
+            this.status = user.getStatus();
+            this.remainDays = user.getRemainDays();
+            this.profile = user.getProfile();
+        }
+    }
+}
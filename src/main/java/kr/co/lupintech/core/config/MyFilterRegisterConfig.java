@@ -3,6 +3,8 @@ package kr.co.lupintech.core.config;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import kr.co.lupintech.core.filter.LoginRateLimitFilter;
+import kr.co.lupintech.core.filter.LoginRateLimiter;
 import kr.co.lupintech.core.filter.MyTempFilter;
 
 @Configuration
@@ -15,4 +17,14 @@ public class MyFilterRegisterConfig {
         registration.setOrder(1); // 순서
         return registration;
     }
+
+    // 로그인 시도 제한. 인증(DB, BCrypt) 전에 막는다
+    @Bean
+    public FilterRegistrationBean<?> loginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new LoginRateLimitFilter(loginRateLimiter));
+        registration.addUrlPatterns("/login");
+        registration.setOrder(2);
+        return registration;
+    }
 }
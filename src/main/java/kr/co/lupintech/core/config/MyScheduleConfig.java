@@ -1,10 +1,93 @@
 package kr.co.lupintech.core.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
 
+/**
+ * MyScheduleUtil 의 작업 스레드. 스프링 기본은 스레드 하나라서 자정 작업이 오래 걸리면 그동안 폴링과 heartbeat 가 멈춘다.
+ * 주기(fixedDelay) 작업은 스레드 풀(schedule.pool-size)에서 돌리고, 크론(매일) 작업은 지금처럼 스레드 하나에서 차례로 돌린다.
+ * 자정 작업끼리는 같은 사원의 남은 연차를 고치므로 동시에 돌면 안 된다.
+ */
 @Configuration
 @EnableScheduling
-public class MyScheduleConfig {
+public class MyScheduleConfig implements SchedulingConfigurer {
+
+    @Value("${schedule.pool-size:4}")
+    private int poolSize = 4;
+
+    // 빈으로 올리지 않는다 (Executor 빈이 생기면 스프링 부트의 기본 applicationTaskExecutor 가 빠진다)
+    private ThreadPoolTaskScheduler dailyScheduler;
+    private ThreadPoolTaskScheduler periodicScheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        dailyScheduler = scheduler("schedule-daily-", 1);
+        periodicScheduler = scheduler("schedule-", poolSize);
+        registrar.setTaskScheduler(new RoutingTaskScheduler(dailyScheduler, periodicScheduler));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (dailyScheduler != null) dailyScheduler.shutdown();
+        if (periodicScheduler != null) periodicScheduler.shutdown();
+    }
+
+    private ThreadPoolTaskScheduler scheduler(String threadNamePrefix, int size) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(size);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // 크론/한 번 실행은 daily, 고정 주기는 periodic
+    private static class RoutingTaskScheduler implements TaskScheduler {
+        private final TaskScheduler daily;
+        private final TaskScheduler periodic;
+
+        private RoutingTaskScheduler(TaskScheduler daily, TaskScheduler periodic) {
+            this.daily = daily;
+            this.periodic = periodic;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+            return daily.schedule(task, trigger);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+            return daily.schedule(task, startTime);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+            return periodic.scheduleAtFixedRate(task, startTime, period);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+            return periodic.scheduleAtFixedRate(task, period);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+            return periodic.scheduleWithFixedDelay(task, startTime, delay);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+            return periodic.scheduleWithFixedDelay(task, delay);
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package kr.co.lupintech.core.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,6 +15,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import kr.co.lupintech.core.auth.jwt.MyJwtAuthorizationFilter;
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
 import kr.co.lupintech.core.exception.Exception401;
 import kr.co.lupintech.core.exception.Exception403;
 import kr.co.lupintech.core.util.MyFilterResponseUtil;
@@ -22,9 +24,16 @@ import kr.co.lupintech.core.util.MyFilterResponseUtil;
 @Configuration
 public class MySecurityConfig {
 
+    private final TokenRevocationList tokenRevocationList;
+
+    public MySecurityConfig(TokenRevocationList tokenRevocationList) {
+        this.tokenRevocationList = tokenRevocationList;
+    }
+
+    // cost 를 올리면 기존 해시는 로그인할 때 새 cost 로 다시 저장된다 (MyUserDetailsService.updatePassword)
     @Bean
-    BCryptPasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    BCryptPasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength:10}") int strength){
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -37,7 +46,7 @@ public class MySecurityConfig {
         @Override
         public void configure(HttpSecurity builder) throws Exception {
             AuthenticationManager authenticationManager = builder.getSharedObject(AuthenticationManager.class);
-            builder.addFilter(new MyJwtAuthorizationFilter(authenticationManager));
+            builder.addFilter(new MyJwtAuthorizationFilter(authenticationManager, tokenRevocationList));
             // 시큐리티 관련 필터
             super.configure(builder);
         }
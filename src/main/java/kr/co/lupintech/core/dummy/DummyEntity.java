@@ -65,7 +65,7 @@ public class DummyEntity {
     }
 
     public Alarm newMockAlarm(Long id, User user, Leave leave){
-        Alarm alarm = Alarm.builder().id(id).user(user).leave(leave).createdAt(LocalDateTime.now()).build();
+        Alarm alarm = Alarm.builder().id(id).user(user).leave(leave).leaveStatus(leave.getStatus()).createdAt(LocalDateTime.now()).build();
         leave.getAlarms().add(alarm);
 
         return alarm;
@@ -0,0 +1,32 @@
+package kr.co.lupintech.core.event;
+
+import kr.co.lupintech.dto.alarm.AlarmResponse;
+import lombok.Getter;
+
+/**
+ * 실시간 알람 전송 요청. 트랜잭션이 커밋된 뒤에만 AlarmEventListener 가 보낸다.
+ * 엔티티 대신 DTO를 담는다 (커밋 후에는 지연 로딩이 안 되므로 트랜잭션 안에서 미리 만든다).
+ */
+@Getter
+public class AlarmEvent {
+
+    private final Long targetUserId; // null 이면 관리자(ADMIN, MASTER) 전체
+    private final AlarmResponse.AlarmOutDTO alarm;
+
+    private AlarmEvent(Long targetUserId, AlarmResponse.AlarmOutDTO alarm) {
+        this.targetUserId = targetUserId;
+        this.alarm = alarm;
+    }
+
+    public static AlarmEvent toManagers(AlarmResponse.AlarmOutDTO alarm) {
+        return new AlarmEvent(null, alarm);
+    }
+
+    public static AlarmEvent toUser(Long userId, AlarmResponse.AlarmOutDTO alarm) {
+        return new AlarmEvent(userId, alarm);
+    }
+
+    public boolean isToManagers() {
+        return targetUserId == null;
+    }
+}
@@ -0,0 +1,19 @@
+package kr.co.lupintech.core.event;
+
+/**
+ * 메모리 캐시 무효화를 다른 서버(노드)에 알린다. 이 서버의 캐시는 부르는 쪽이 이미 비웠다는 전제.
+ * sse.bus=local (서버 한 대) 이면 아무것도 하지 않고, sse.bus=outbox 면 SSE 이벤트와 같은 sse_outbox_tb 폴링으로 전달한다.
+ */
+public interface CacheInvalidationBus {
+
+    // 트랜잭션 안이면 커밋 후에 보낸다 (롤백되면 보내지 않음)
+    void publish(String cache, String key);
+
+    // 다른 서버가 보낸 무효화를 받는 캐시. 받은 키는 비우거나 DB 에서 다시 읽는다
+    interface Listener {
+
+        String cacheName();
+
+        void onRemoteInvalidation(String key);
+    }
+}
@@ -0,0 +1,14 @@
+package kr.co.lupintech.core.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// 서버 한 대: 알릴 다른 서버가 없다
+@ConditionalOnProperty(name = "sse.bus", havingValue = "local", matchIfMissing = true)
+@Component
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(String cache, String key) {
+    }
+}
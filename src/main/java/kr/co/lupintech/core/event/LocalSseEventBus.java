@@ -0,0 +1,22 @@
+package kr.co.lupintech.core.event;
+
+import kr.co.lupintech.service.SseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+// 서버 한 대: 이 JVM의 연결로 바로 보낸다
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "sse.bus", havingValue = "local", matchIfMissing = true)
+@Component
+public class LocalSseEventBus implements SseEventBus {
+
+    private final SseService sseService;
+
+    @Override
+    public void sendToUsers(Collection<Long> userIds, String eventName, Object data) {
+        sseService.sendToUsers(userIds, eventName, data);
+    }
+}
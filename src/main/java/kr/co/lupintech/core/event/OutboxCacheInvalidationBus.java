@@ -0,0 +1,111 @@
+package kr.co.lupintech.core.event;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import kr.co.lupintech.core.util.MyTransactionUtil;
+import kr.co.lupintech.model.outbox.SseOutbox;
+import kr.co.lupintech.model.outbox.SseOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 서버 여러 대: 캐시 무효화를 sse_outbox_tb 에 "cache:캐시이름" 이벤트로 쓴다. OutboxSseEventBus 가 폴링하다 만나면 receive 로 넘긴다.
+ * 보낸 서버는 이미 비웠으므로 자기가 쓴 행(origin)은 건너뛴다.
+ * 커밋 후 새 트랜잭션으로 쓴다. 원래 트랜잭션이 읽기 전용이거나 이미 커밋된 뒤라도 행이 남는다.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "sse.bus", havingValue = "outbox")
+@Component
+public class OutboxCacheInvalidationBus implements CacheInvalidationBus {
+
+    public static final String EVENT_PREFIX = "cache:";
+
+    private final SseOutboxRepository sseOutboxRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate requiresNew;
+    private final ObjectProvider<Listener> listenerProvider; // 캐시들이 이 버스를 주입받으므로 처음 받을 때 찾는다
+    private final String origin = UUID.randomUUID().toString(); // 이 서버(JVM)
+
+    private volatile Map<String, Listener> listeners;
+
+    // 지표
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder receivedCount = new LongAdder();
+
+    public OutboxCacheInvalidationBus(SseOutboxRepository sseOutboxRepository, ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager, ObjectProvider<Listener> listenerProvider) {
+        this.sseOutboxRepository = sseOutboxRepository;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.listenerProvider = listenerProvider;
+    }
+
+    @Override
+    public void publish(String cache, String key) {
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("origin", origin)
+                .put("key", key);
+        SseOutbox outbox = new SseOutbox("", EVENT_PREFIX + cache, payload.toString());
+        MyTransactionUtil.afterCommit(() -> {
+            try {
+                requiresNew.executeWithoutResult(status -> sseOutboxRepository.save(outbox));
+                publishedCount.increment();
+            } catch (Exception e) { // 다른 서버는 ttl/주기 갱신으로 따라잡는다
+                log.error("cache invalidation publish failed: {} {}: {}", cache, key, e.getMessage());
+            }
+        });
+    }
+
+    // 폴링한 "cache:" 행. 다른 서버가 쓴 것만 해당 캐시에 넘긴다
+    public void receive(SseOutbox outbox) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(outbox.getPayload());
+        } catch (IOException e) {
+            log.error("cache invalidation {} unreadable: {}", outbox.getId(), e.getMessage());
+            return;
+        }
+        if (origin.equals(payload.path("origin").asText())) return;
+
+        String cache = outbox.getEventName().substring(EVENT_PREFIX.length());
+        Listener listener = listeners().get(cache);
+        if (listener == null) {
+            log.warn("cache invalidation for unknown cache: {}", cache);
+            return;
+        }
+        listener.onRemoteInvalidation(payload.path("key").asText());
+        receivedCount.increment();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+    private Map<String, Listener> listeners() {
+        Map<String, Listener> current = listeners;
+        if (current == null) {
+            current = listenerProvider.orderedStream()
+                    .collect(Collectors.toMap(Listener::cacheName, Function.identity()));
+            listeners = current;
+        }
+        return current;
+    }
+}
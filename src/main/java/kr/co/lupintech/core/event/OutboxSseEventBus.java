@@ -0,0 +1,141 @@
+package kr.co.lupintech.core.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.co.lupintech.core.exception.Exception500;
+import kr.co.lupintech.model.outbox.SseOutbox;
+import kr.co.lupintech.model.outbox.SseOutboxRepository;
+import kr.co.lupintech.service.SseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 서버 여러 대: 이벤트를 sse_outbox_tb 에 쓰고, 모든 서버가 id 순서로 폴링해서 자기 연결에 보낸다.
+ * 별도 메시지 브로커 없이 이미 공유하는 DB만 쓴다. 지연은 폴링 주기(sse.outbox.poll-ms) 만큼. 폴링/정리는 MyScheduleUtil 에서 부른다.
+ * 같은 테이블로 메모리 캐시 무효화("cache:" 이벤트, OutboxCacheInvalidationBus)도 오가므로, 다른 서버의 캐시도 폴링 주기 안에 맞춰진다.
+ * 행 id 가 SSE 이벤트 id 이고, 재연결하면 이 테이블에서 다시 보낸다 (SseReplaySource). 다시 보낼 수 있는 건 보관 기간 안의 이벤트뿐.
+ * 행은 새 트랜잭션으로 쓴다. 읽기 전용 트랜잭션 안에서 보내도(내보내기 진행 상황) 그 트랜잭션을 롤백시키지 않는다.
+ */
+@Slf4j
+@ConditionalOnProperty(name = "sse.bus", havingValue = "outbox")
+@Component
+public class OutboxSseEventBus implements SseEventBus, SseReplaySource {
+
+    private static final int REPLAY_LIMIT = 500; // findTop500ByIdBetweenAndEventNameInOrderByIdAsc 와 맞춘다
+
+    private final SseOutboxRepository sseOutboxRepository;
+    private final SseService sseService;
+    private final ObjectMapper objectMapper;
+    private final OutboxCacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate requiresNew;
+
+    @Value("${sse.outbox.retention-minutes:10}")
+    private long retentionMinutes = 10;
+
+    @Value("${sse.outbox.gap-wait-ms:2000}")
+    private long gapWaitMillis = 2000;
+
+    private long lastId = -1; // 시작 전이면 -1
+
+    public OutboxSseEventBus(SseOutboxRepository sseOutboxRepository, SseService sseService, ObjectMapper objectMapper,
+                             OutboxCacheInvalidationBus cacheInvalidationBus, PlatformTransactionManager transactionManager) {
+        this.sseOutboxRepository = sseOutboxRepository;
+        this.sseService = sseService;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        sseService.setReplaySource(this);
+    }
+
+    @Override
+    public void sendToUsers(Collection<Long> userIds, String eventName, Object data) {
+        if (userIds.isEmpty()) return;
+        String payload;
+        try {
+            payload = data instanceof String ? (String) data : objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new Exception500("sse 직렬화 실패");
+        }
+        String ids = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        SseOutbox outbox = new SseOutbox(ids, eventName, payload);
+        requiresNew.executeWithoutResult(status -> sseOutboxRepository.save(outbox));
+    }
+
+    public synchronized int poll() {
+        start();
+
+        LocalDateTime gapDeadline = LocalDateTime.now().minusNanos(gapWaitMillis * 1_000_000);
+        int delivered = 0;
+        for (SseOutbox outbox : sseOutboxRepository.findTop500ByIdGreaterThanOrderByIdAsc(lastId)) {
+            // id 사이가 비었으면 먼저 id를 받은 트랜잭션이 아직 커밋 전일 수 있다. 잠시 기다리고, 그래도 없으면(롤백) 건너뛴다
+            if (outbox.getId() != lastId + 1 && outbox.getCreatedAt().isAfter(gapDeadline)) break;
+
+            try {
+                if (outbox.getEventName().startsWith(OutboxCacheInvalidationBus.EVENT_PREFIX)) {
+                    cacheInvalidationBus.receive(outbox);
+                } else {
+                    sseService.sendToUsers(parseUserIds(outbox.getUserIds()), outbox.getEventName(), outbox.getPayload(), outbox.getId());
+                }
+            } catch (Exception e) {
+                log.error("outbox event {} failed: {}", outbox.getId(), e.getMessage());
+            }
+            lastId = outbox.getId();
+            delivered++;
+        }
+        return delivered;
+    }
+
+    // 폴링과 같은 잠금: 등록한 뒤에 온 행은 다음 폴링이, 그 전(lastId 까지)은 여기서 보낸다
+    @Override
+    public synchronized void replay(Long userId, long lastEventId, Set<String> eventNames, Runnable register, Sink sink) {
+        start();
+        register.run();
+        if (lastEventId >= lastId) return;
+
+        List<SseOutbox> rows = sseOutboxRepository.findTop500ByIdBetweenAndEventNameInOrderByIdAsc(lastEventId + 1, lastId, eventNames);
+        long minId = sseOutboxRepository.findMinId();
+        if (minId == 0 || minId > lastEventId + 1 || rows.size() == REPLAY_LIMIT) {
+            // 보관 기간이 지나 지워졌거나 너무 많이 밀렸다: 목록을 다시 받으라고 알린다. id 는 지금까지 보낸 위치
+            sink.send(lastId, "resync", "missed events");
+            return;
+        }
+        for (SseOutbox outbox : rows) {
+            if (parseUserIds(outbox.getUserIds()).contains(userId)) {
+                sink.send(outbox.getId(), outbox.getEventName(), outbox.getPayload());
+            }
+        }
+    }
+
+    public void purge() {
+        int deleted = sseOutboxRepository.deleteByCreatedAtBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (deleted > 0) log.debug("sse outbox purged: {}", deleted);
+    }
+
+    private void start() {
+        if (lastId < 0) lastId = sseOutboxRepository.findMaxId(); // 시작 전에 쌓인 이벤트는 폴링으로 보내지 않는다
+    }
+
+    private List<Long> parseUserIds(String userIds) {
+        return Arrays.stream(userIds.split(","))
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,17 @@
+package kr.co.lupintech.core.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 유저에게 SSE 이벤트 보내기. 유저의 연결이 어느 서버(노드)에 있든 닿도록 구현을 고른다.
+ * sse.bus=local (기본, 서버 한 대), sse.bus=outbox (여러 대, DB 폴링)
+ */
+public interface SseEventBus {
+
+    void sendToUsers(Collection<Long> userIds, String eventName, Object data);
+
+    default void sendToUser(Long userId, String eventName, Object data) {
+        sendToUsers(Collections.singletonList(userId), eventName, data);
+    }
+}
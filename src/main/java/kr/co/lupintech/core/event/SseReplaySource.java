@@ -0,0 +1,21 @@
+package kr.co.lupintech.core.event;
+
+import java.util.Set;
+
+/**
+ * 서버 여러 대(sse.bus=outbox): 이벤트 id 는 sse_outbox_tb 의 행 id 라서 어느 서버에 재연결해도 이어진다.
+ * 놓친 이벤트는 JVM 메모리가 아니라 그 테이블에서 다시 보낸다. 구현은 OutboxSseEventBus.
+ */
+public interface SseReplaySource {
+
+    /**
+     * register 로 연결을 등록하고, lastEventId 이후 이 유저에게 간 eventNames 이벤트를 오래된 순서로 sink 에 넘긴다.
+     * 폴링과 같은 잠금 안에서 하므로 그 사이 이벤트가 빠지거나 두 번 가지 않는다.
+     * 보관 기간이 지나 지워졌거나 너무 많이 밀렸으면 이벤트 대신 "resync" 하나만 넘긴다.
+     */
+    void replay(Long userId, long lastEventId, Set<String> eventNames, Runnable register, Sink sink);
+
+    interface Sink {
+        void send(long eventId, String eventName, String json);
+    }
+}
@@ -0,0 +1,26 @@
+package kr.co.lupintech.core.exception;
+
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import kr.co.lupintech.dto.ResponseDTO;
+
+
+// 요청이 너무 많음. retryAfterSeconds 는 Retry-After 헤더로 나간다
+@Getter
+public class Exception429 extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public Exception429(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ResponseDTO<?> body(){
+        return new ResponseDTO<>(HttpStatus.TOO_MANY_REQUESTS, "tooManyRequests", getMessage());
+    }
+
+    public HttpStatus status(){
+        return HttpStatus.TOO_MANY_REQUESTS;
+    }
+}
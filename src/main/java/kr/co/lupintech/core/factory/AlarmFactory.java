@@ -7,11 +7,14 @@ import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class AlarmFactory {
 
     public static Alarm newAlarm(User user, Leave leave){
-        Alarm alarm = Alarm.builder().user(user).leave(leave).build();
+        // 신청(대기) 알람은 신청자 본인이 만든 것이라 읽은 것으로 둔다. 안 읽은 알람 수에는 승인/거절 알람만 센다
+        LocalDateTime readAt = leave.getStatus() == LeaveStatus.WAITING ? LocalDateTime.now() : null;
+        Alarm alarm = Alarm.builder().user(user).leave(leave).leaveStatus(leave.getStatus()).readAt(readAt).build();
         leave.getAlarms().add(alarm);
 
         return alarm;
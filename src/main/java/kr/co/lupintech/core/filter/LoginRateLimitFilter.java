@@ -0,0 +1,131 @@
+package kr.co.lupintech.core.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.co.lupintech.core.exception.Exception429;
+import kr.co.lupintech.core.util.MyFilterResponseUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * POST /login 앞에서 LoginRateLimiter 로 이메일/IP 별 시도 횟수를 제한한다.
+ * 막히면 인증(DB 조회, BCrypt)까지 가지 않고 바로 429 를 돌려준다.
+ * 이메일을 읽으려고 본문을 미리 읽으므로, 뒤에서 다시 읽을 수 있게 감싸서 넘긴다.
+ * IP 는 getRemoteAddr. 프록시 뒤에서는 server.forward-headers-strategy 로 실제 클라이언트 IP 가 들어온다.
+ */
+@Slf4j
+public class LoginRateLimitFilter implements Filter {
+
+    private static final int MAX_BODY_BYTES = 4 * 1024; // 로그인 본문은 작다. 더 크면 이메일 없이 IP 로만 제한
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final ObjectMapper om = new ObjectMapper();
+
+    public LoginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (!"POST".equalsIgnoreCase(req.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = req.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        String email = body.length > MAX_BODY_BYTES ? null : readEmail(body);
+
+        long retryAfterSeconds = loginRateLimiter.tryAcquire(email, req.getRemoteAddr());
+        if (retryAfterSeconds > 0) {
+            log.warn("로그인 시도 제한 : " + req.getRemoteAddr());
+            MyFilterResponseUtil.tooManyRequests((HttpServletResponse) response,
+                    new Exception429("로그인 시도가 너무 많습니다. 잠시 후 다시 시도해주세요.", retryAfterSeconds), retryAfterSeconds);
+            return;
+        }
+        chain.doFilter(new CachedBodyRequest(req, body), response);
+    }
+
+    private String readEmail(byte[] body) {
+        try {
+            JsonNode email = om.readTree(body).get("email");
+            return email == null || !email.isTextual() ? null : email.asText();
+        } catch (IOException e) {
+            return null; // 본문이 JSON 이 아니면 컨트롤러에서 400
+        }
+    }
+
+    // 미리 읽은 앞부분 뒤에 남은 스트림을 이어 붙인다
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] head;
+        private ServletInputStream inputStream;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] head) {
+            super(request);
+            this.head = head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) inputStream = new HeadThenRestInputStream(head, super.getInputStream());
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    // head 를 다 읽으면 원래 스트림으로 넘어간다. 상태(isReady, isFinished, 리스너)는 원래 스트림 기준
+    private static class HeadThenRestInputStream extends ServletInputStream {
+        private final byte[] head;
+        private final ServletInputStream rest;
+        private int position;
+
+        private HeadThenRestInputStream(byte[] head, ServletInputStream rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position < head.length) return head[position++] & 0xff;
+            return rest.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (position < head.length) {
+                int n = Math.min(len, head.length - position);
+                System.arraycopy(head, position, b, off, n);
+                position += n;
+                return n;
+            }
+            return rest.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position >= head.length && rest.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return position < head.length || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            rest.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package kr.co.lupintech.core.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 로그인 시도 제한. 이메일별, IP별 토큰 버킷을 두고 둘 다 토큰이 있어야 통과한다.
+ * 버킷은 "토큰이 다 찰 때까지 남은 시각" 하나(AtomicLong)로 표현해서 CAS 만으로 꺼낸다 (잠금 없음).
+ * 버킷이 다시 가득 찬 키는 더 들고 있을 필요가 없으므로 맵이 가득 찰 때 지운다. 그래도 가득이면 새 키는 제한하지 않는다.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1); // 가득 찬 맵을 훑는 건 1초에 한 번만
+
+    private final Buckets emailBuckets;
+    private final Buckets ipBuckets;
+
+    // 지표
+    private final LongAdder allowedCount = new LongAdder();
+    private final LongAdder emailRejectedCount = new LongAdder();
+    private final LongAdder ipRejectedCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder(); // 맵이 가득 차서 제한하지 못한 키
+
+    public LoginRateLimiter(@Value("${login.rate-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${login.rate-limit.email.per-minute:5}") int emailPerMinute,
+                            @Value("${login.rate-limit.ip.capacity:30}") int ipCapacity,
+                            @Value("${login.rate-limit.ip.per-minute:30}") int ipPerMinute,
+                            @Value("${login.rate-limit.max-keys:50000}") int maxKeys) {
+        this.emailBuckets = new Buckets(emailCapacity, emailPerMinute, maxKeys);
+        this.ipBuckets = new Buckets(ipCapacity, ipPerMinute, maxKeys);
+    }
+
+    /**
+     * 통과하면 0, 막히면 다시 시도할 수 있을 때까지 남은 초. email 은 없을 수 있다.
+     * IP 를 먼저 보고, IP 에서 막히면 이메일 버킷은 건드리지 않는다.
+     */
+    public long tryAcquire(String email, String ip) {
+        long now = System.nanoTime();
+        long waitNanos = ip == null ? 0 : ipBuckets.tryAcquire(ip, now);
+        if (waitNanos > 0) {
+            ipRejectedCount.increment();
+            return toRetryAfterSeconds(waitNanos);
+        }
+        if (email != null && !email.isBlank()) {
+            waitNanos = emailBuckets.tryAcquire(email.trim().toLowerCase(Locale.ROOT), now);
+            if (waitNanos > 0) {
+                emailRejectedCount.increment();
+                return toRetryAfterSeconds(waitNanos);
+            }
+        }
+        allowedCount.increment();
+        return 0;
+    }
+
+    public int size() {
+        return emailBuckets.buckets.size() + ipBuckets.buckets.size();
+    }
+
+    public long getAllowedCount() {
+        return allowedCount.sum();
+    }
+
+    public long getEmailRejectedCount() {
+        return emailRejectedCount.sum();
+    }
+
+    public long getIpRejectedCount() {
+        return ipRejectedCount.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    private long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private class Buckets {
+        private final long intervalNanos; // 토큰 하나가 다시 차는 시간
+        private final long burstNanos; // capacity 개를 한 번에 쓸 수 있는 여유
+        private final int maxKeys;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong lastSweepAt = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+        private Buckets(int capacity, int perMinute, int maxKeys) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.burstNanos = intervalNanos * Math.max(1, capacity);
+            this.maxKeys = maxKeys;
+        }
+
+        // 값 = 버킷이 가득 차는 시각(nanoTime). 토큰 하나를 꺼내면 intervalNanos 만큼 뒤로 민다
+        private long tryAcquire(String key, long now) {
+            AtomicLong fullAt = buckets.get(key);
+            if (fullAt == null) {
+                if (buckets.size() >= maxKeys && !sweep(now)) {
+                    overflowCount.increment();
+                    return 0;
+                }
+                fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                if (next - now > burstNanos) return next - now - burstNanos; // 토큰 없음
+                if (fullAt.compareAndSet(current, next)) return 0;
+            }
+        }
+
+        // 다시 가득 찬 버킷 제거. 자리가 생겼으면 true
+        private boolean sweep(long now) {
+            long last = lastSweepAt.get();
+            if (now - last >= SWEEP_INTERVAL_NANOS && lastSweepAt.compareAndSet(last, now)) {
+                buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+                log.debug("login rate limit buckets swept, remaining: {}", buckets.size());
+            }
+            return buckets.size() < maxKeys;
+        }
+    }
+}
@@ -25,4 +25,14 @@ public class MyFilterResponseUtil {
         String responseBody = om.writeValueAsString(responseDto);
         resp.getWriter().println(responseBody);
     }
+
+    public static void tooManyRequests(HttpServletResponse resp, Exception e, long retryAfterSeconds) throws IOException {
+        resp.setStatus(429);
+        resp.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        resp.setContentType("application/json; charset=utf-8");
+        ResponseDTO<?> responseDto = new ResponseDTO<>(HttpStatus.TOO_MANY_REQUESTS, "tooManyRequests", e.getMessage());
+        ObjectMapper om = new ObjectMapper();
+        String responseBody = om.writeValueAsString(responseDto);
+        resp.getWriter().println(responseBody);
+    }
 }
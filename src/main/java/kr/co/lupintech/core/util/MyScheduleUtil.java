@@ -1,11 +1,23 @@
 package kr.co.lupintech.core.util;
 
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.cache.LeaveCalendarCache;
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.cache.UserSearchIndex;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
+import kr.co.lupintech.core.event.OutboxSseEventBus;
 import kr.co.lupintech.model.leave.Leave;
 import kr.co.lupintech.model.leave.LeaveRepository;
 import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.service.AlarmRetentionService;
 import kr.co.lupintech.service.DateService;
+import kr.co.lupintech.service.HolidayService;
+import kr.co.lupintech.service.LeaveExportService;
 import kr.co.lupintech.service.RefreshService;
+import kr.co.lupintech.service.SseService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +39,28 @@ public class MyScheduleUtil {
 
     private final RefreshService refreshService;
 
+    private final HolidayService holidayService;
+
+    private final LeaveCalendarCache leaveCalendarCache;
+
+    private final LeaveExportService leaveExportService;
+
+    private final UserDirectory userDirectory;
+
+    private final UserSearchIndex userSearchIndex;
+
+    private final UserSnapshotCache userSnapshotCache;
+
+    private final SseService sseService;
+
+    private final AlarmCounter alarmCounter;
+
+    private final AlarmRetentionService alarmRetentionService;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final ObjectProvider<OutboxSseEventBus> outboxSseEventBus; // sse.bus=outbox 일 때만 있음
+
     @Scheduled(cron = "0 0 0 * * ?") // 매일 자정(0시)
     @Transactional
     public void everydayWaitingRemove() { // 어제 날짜 이전 대기 상태 신청은 삭제
@@ -37,8 +71,11 @@ public class MyScheduleUtil {
             User userPS = leavePSs.get(i).getUser();
 
             userPS.increaseRemainDays(leavePS.getUsingDays());
+            userSnapshotCache.evict(userPS.getId());
             leaveRepository.delete(leavePS);
+            leaveCalendarCache.evict(leavePS.getStartDate(), leavePS.getEndDate());
         }
+        alarmCounter.waitingResolved(leavePSs.size());
     }
 
     @Scheduled(cron = "0 0 0 * * ?") // 매일 자정(0시)
@@ -52,6 +89,7 @@ public class MyScheduleUtil {
 
             int annualLimit = dateService.getAnnualLimit(userPS.getHireDate());
             userPS.setRemainDays(annualLimit);
+            userSnapshotCache.evict(userPS.getId());
         }
     }
 
@@ -66,12 +104,59 @@ public class MyScheduleUtil {
 
             if(userPS.getHireDate().equals(LocalDate.now())) continue; // 오늘 입사한 사람은 연차 없음.
             userPS.increaseRemainDays(1);
+            userSnapshotCache.evict(userPS.getId());
         }
     }
 
     @Scheduled(cron = "0 0 0 * * ?") // 매일 자정(0시)
-    public void everydayRemoveExpiredRefreshTokens() {
+    public void everydayRemoveExpiredRefreshTokens() { // exp 지난 토큰, 폐기/만료 처리된 토큰 정리
         refreshService.만료리프레쉬삭제();
     }
 
+    @Scheduled(cron = "0 0 0 * * ?") // 매일 자정(0시)
+    public void everydayHolidayPreload() { // 올해, 내년 공휴일 캐시 갱신 (API 호출은 백그라운드에서)
+        holidayService.preloadAsync();
+    }
+
+    @Scheduled(cron = "0 0 0 * * ?") // 매일 자정(0시)
+    public void everydayUserDirectoryRefresh() { // DB를 직접 고친 경우 등을 위해 사원 디렉터리 전체 다시 읽기
+        userDirectory.refresh();
+        userSearchIndex.refresh();
+    }
+
+    @Scheduled(cron = "0 0 3 * * ?") // 매일 새벽 3시 (자정 작업과 겹치지 않게)
+    public void everydayArchiveOldAlarms() { // 보관 기간 지난 알람을 alarm_archive_tb 로 옮기기
+        alarmRetentionService.오래된알람보관();
+    }
+
+    @Scheduled(fixedDelayString = "${sse.heartbeat-ms:15000}") // 기본 15초마다
+    public void everyHeartbeat() { // 프록시가 쉬는 SSE 연결을 끊지 않도록, 죽은 연결은 미리 정리
+        sseService.heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${sse.outbox.poll-ms:500}") // 기본 0.5초마다
+    public void everyOutboxPoll() { // 다른 서버가 sse_outbox_tb 에 쓴 이벤트를 이 서버의 연결로 전달
+        outboxSseEventBus.ifAvailable(OutboxSseEventBus::poll);
+    }
+
+    @Scheduled(fixedDelay = 60 * 1000) // 1분마다
+    public void everyMinuteOutboxPurge() { // 보관 기간(sse.outbox.retention-minutes) 지난 outbox 이벤트 삭제
+        outboxSseEventBus.ifAvailable(OutboxSseEventBus::purge);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-ms:5000}") // 기본 5초마다
+    public void everyTokenRevocationRefresh() { // 다른 서버에서 퇴사/권한수정으로 폐기한 토큰 반영
+        tokenRevocationList.refresh();
+    }
+
+    @Scheduled(fixedDelay = 10 * 60 * 1000) // 10분마다
+    public void everyTenMinutesRemoveExpiredExports() { // 만료된 내보내기 파일 삭제
+        leaveExportService.만료내보내기삭제();
+    }
+
+    @Scheduled(fixedDelay = 10 * 60 * 1000) // 10분마다
+    public void everyTenMinutesAlarmCounterResync() { // 놓친 변경이 있어도 알람 뱃지 카운터가 DB와 어긋난 채로 남지 않도록
+        alarmCounter.resync();
+    }
+
 }
@@ -0,0 +1,21 @@
+package kr.co.lupintech.core.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class MyTransactionUtil {
+
+    // 트랜잭션 안이면 커밋 후에 실행(롤백되면 실행하지 않음), 밖이면 바로 실행
+    public static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package kr.co.lupintech.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// 키셋(afterId) 페이징 응답. 다음 페이지는 nextAfterId 로 요청한다
+@Getter
+public class SliceDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private Long nextAfterId; // 마지막 페이지면 null
+    private Long totalElements; // withTotal 일 때만. 메모리에 들고 있는 값이라 근사치일 수 있다
+
+    public SliceDTO(List<T> content, int size, boolean hasNext, Long nextAfterId, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextAfterId = nextAfterId;
+        this.totalElements = totalElements;
+    }
+}
@@ -0,0 +1,14 @@
+package kr.co.lupintech.dto.alarm;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+public class AlarmRequest {
+
+    @Getter @Setter
+    public static class ReadInDTO {
+        private List<Long> ids; // 비어 있으면 안 읽은 알람 전부
+    }
+}
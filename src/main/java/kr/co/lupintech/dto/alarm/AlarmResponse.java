@@ -12,6 +12,7 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class AlarmResponse {
 
@@ -33,18 +34,63 @@ public class AlarmResponse {
 
         private LocalDateTime createdAt;
 
+        private boolean read;
+
         public AlarmOutDTO(Alarm alarm) {
+            this(alarm, alarm.getUser().getUsername());
+        }
+        // 사원명을 이미 알고 있으면 alarm.getUser() 를 읽지 않는다 (참조만 있는 사원을 DB 에서 읽지 않게)
+        public AlarmOutDTO(Alarm alarm, String username) {
             this.id = alarm.getId();
             this.leaveId = alarm.getLeave().getId();
-            this.username = alarm.getUser().getUsername();
+            this.username = username;
             this.type = alarm.getLeave().getType();
             this.startDate = alarm.getLeave().getStartDate();
             this.endDate = alarm.getLeave().getEndDate();
             this.usingDays = alarm.getLeave().getUsingDays();
             this.status = alarm.getLeave().getStatus();
             this.createdAt = alarm.getCreatedAt();
+            this.read = alarm.getReadAt() != null;
+        }
+        // 알람 + 연차/당직 + 유저를 한 번에 읽는 조회 쿼리(projection)용
+        public AlarmOutDTO(Long id, Long leaveId, String username, LeaveType type, LocalDate startDate, LocalDate endDate,
+                           Integer usingDays, LeaveStatus status, LocalDateTime createdAt, LocalDateTime readAt) {
+            this.id = id;
+            this.leaveId = leaveId;
+            this.username = username;
+            this.type = type;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.usingDays = usingDays;
+            this.status = status;
+            this.createdAt = createdAt;
+            this.read = readAt != null;
         }
         public AlarmOutDTO(){}
     }
 
+    // 최신순 알람 한 페이지. nextCursor 를 다음 요청의 cursor 로 넘기면 이어서 받는다
+    @Getter
+    public static class FeedOutDTO {
+        private List<AlarmOutDTO> content;
+        private String nextCursor; // 마지막 페이지면 null
+        private boolean hasNext;
+
+        public FeedOutDTO(List<AlarmOutDTO> content, String nextCursor) {
+            this.content = content;
+            this.nextCursor = nextCursor;
+            this.hasNext = nextCursor != null;
+        }
+    }
+
+    // 뱃지용. 사원은 안 읽은 승인/거절 알람 수, 관리자는 신청대기 알람 수
+    @Getter
+    public static class CountOutDTO {
+        private long count;
+
+        public CountOutDTO(long count) {
+            this.count = count;
+        }
+    }
+
 }
@@ -1,12 +1,15 @@
 package kr.co.lupintech.dto.leave;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import kr.co.lupintech.core.exception.Exception400;
 import kr.co.lupintech.model.leave.Leave;
 import lombok.Getter;
 import lombok.Setter;
+import kr.co.lupintech.model.leave.enums.ExportFormat;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import javax.validation.constraints.FutureOrPresent;
 import java.time.LocalDate;
@@ -44,4 +47,30 @@ public class LeaveRequest {
         private long id;
         private LeaveStatus status;
     }
+
+    // 엑셀 내보내기 조건. 모두 선택사항
+    @Getter @Setter
+    public static class ExportInDTO {
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate startDate;
+
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate endDate;
+
+        private LeaveStatus status;
+
+        private LeaveType type;
+
+        public void validate() {
+            if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+                throw new Exception400("startDate, endDate", "startDate가 endDate보다 늦을 수 없습니다.");
+            }
+        }
+    }
+
+    // 비동기 내보내기 요청. format이 없으면 XLSX
+    @Getter @Setter
+    public static class ExportJobInDTO extends ExportInDTO {
+        private ExportFormat format;
+    }
 }
@@ -3,10 +3,14 @@ package kr.co.lupintech.dto.leave;
 import kr.co.lupintech.model.leave.Leave;
 import lombok.Getter;
 import lombok.Setter;
+import kr.co.lupintech.model.leave.enums.ExportFormat;
+import kr.co.lupintech.model.leave.enums.ExportStatus;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
 
+import java.time.LocalDateTime;
+
 public class LeaveResponse {
 
     @Setter @Getter
@@ -24,6 +28,14 @@ public class LeaveResponse {
             this.remainDays = user.getRemainDays();
             this.status =leave.getStatus();
         }
+
+        public ApplyOutDTO(Leave leave, Integer remainDays) {
+            this.id = leave.getId();
+            this.type = leave.getType();
+            this.usingDays = leave.getUsingDays();
+            this.remainDays = remainDays;
+            this.status = leave.getStatus();
+        }
     }
 
     @Setter @Getter
@@ -34,6 +46,10 @@ public class LeaveResponse {
             this.remainDays = user.getRemainDays();
 
         }
+
+        public CancelOutDTO(Integer remainDays) {
+            this.remainDays = remainDays;
+        }
     }
 
     @Setter
@@ -81,4 +97,23 @@ public class LeaveResponse {
             this.remainDays = user.getRemainDays();
         }
     }
+
+    @Setter @Getter
+    public static class ExportJobOutDTO {
+        private String id;
+        private ExportFormat format;
+        private ExportStatus status;
+        private Integer rowCount; // 지금까지 쓴 행 수
+        private LocalDateTime createdAt;
+        private LocalDateTime finishedAt;
+
+        public ExportJobOutDTO(String id, ExportFormat format, ExportStatus status, Integer rowCount, LocalDateTime createdAt, LocalDateTime finishedAt) {
+            this.id = id;
+            this.format = format;
+            this.status = status;
+            this.rowCount = rowCount;
+            this.createdAt = createdAt;
+            this.finishedAt = finishedAt;
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package kr.co.lupintech.listener;
+
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.event.AlarmEvent;
+import kr.co.lupintech.core.event.SseEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 커밋된 알람만 전용 스레드에서 모아서 보낸다.
+ * 한 번에 꺼낸 알람들은 관리자 목록(UserDirectory)을 한 번만 보고 함께 보낸다. 신청/결정 요청은 전송을 기다리지 않는다.
+ */
+@Slf4j
+@Component
+public class AlarmEventListener {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 100;
+    private final UserDirectory userDirectory;
+    private final SseEventBus sseEventBus;
+
+    private final BlockingQueue<AlarmEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "alarm-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    public AlarmEventListener(UserDirectory userDirectory, SseEventBus sseEventBus) {
+        this.userDirectory = userDirectory;
+        this.sseEventBus = sseEventBus;
+    }
+
+    // 롤백된 트랜잭션의 알람은 여기까지 오지 않는다
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAlarm(AlarmEvent event) {
+        if (!queue.offer(event)) {
+            droppedCount.increment();
+            log.warn("alarm queue full, realtime alarm dropped: {}", event.getAlarm().getId());
+            return;
+        }
+        schedule();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false); // 종료 중
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            List<AlarmEvent> batch = new ArrayList<>(BATCH_SIZE);
+            while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+                dispatch(batch);
+                batch.clear();
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        if (!queue.isEmpty()) schedule();
+    }
+
+    private void dispatch(List<AlarmEvent> batch) {
+        List<Long> managerIds = null;
+        for (AlarmEvent event : batch) {
+            try {
+                if (event.isToManagers()) {
+                    if (managerIds == null) managerIds = userDirectory.managerIds(); // 배치당 한 번
+                    sseEventBus.sendToUsers(managerIds, "alarm", event.getAlarm());
+                } else {
+                    sseEventBus.sendToUser(event.getTargetUserId(), "alarm", event.getAlarm());
+                }
+                dispatchedCount.increment();
+            } catch (Exception e) {
+                log.error("realtime alarm failed : {}, {}", event.getAlarm().getId(), e.getMessage());
+            }
+        }
+        log.debug("realtime alarm batch sent: {}", batch.size());
+    }
+}
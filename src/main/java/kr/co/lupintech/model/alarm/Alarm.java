@@ -1,6 +1,7 @@
 package kr.co.lupintech.model.alarm;
 
 import kr.co.lupintech.model.leave.Leave;
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import lombok.*;
 import kr.co.lupintech.model.user.User;
 
@@ -11,7 +12,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
-@Table(name = "alarm_tb")
+@Table(name = "alarm_tb", indexes = {
+        @Index(name = "idx_alarm_created_at_id", columnList = "createdAt, id"), // 보관 (오래된 순)
+        @Index(name = "idx_alarm_leave_status_created_at", columnList = "leaveStatus, createdAt"), // 관리자 알람 피드 (최신순 keyset)
+        @Index(name = "idx_alarm_user_created_at", columnList = "user_id, createdAt"), // 사원 알람 피드
+        @Index(name = "idx_alarm_user_read_at", columnList = "user_id, readAt") // 안 읽은 알람 수
+})
 @Entity
 public class Alarm {
     @Id
@@ -26,6 +32,12 @@ public class Alarm {
     @JoinColumn(name = "leave_id")
     private Leave leave;
 
+    // leave_tb.status 를 옮겨 둔 것. 피드/개수를 상태로 거를 때 연차/당직을 조인하지 않고 인덱스로 찾는다
+    // 신청 상태가 바뀌면 AlarmRepository.updateLeaveStatus 로 같이 바꾼다. 이 컬럼 전의 알람은 AlarmRetentionService 가 시작할 때 채운다
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private LeaveStatus leaveStatus;
+
     //@Column(nullable = false, length = 60)
     //String content;
 
@@ -34,6 +46,12 @@ public class Alarm {
 
     LocalDateTime updatedAt;
 
+    LocalDateTime readAt; // null 이면 안 읽음
+
+    public void read() {
+        if (this.readAt == null) this.readAt = LocalDateTime.now();
+    }
+
     @PrePersist//JPA 엔티티가 처음으로 저장되기 직전에 실행되는 콜백 메서드
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
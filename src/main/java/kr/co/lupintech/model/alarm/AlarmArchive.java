@@ -0,0 +1,41 @@
+package kr.co.lupintech.model.alarm;
+
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import kr.co.lupintech.model.leave.enums.LeaveType;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+보관 기간(alarm.retention.days)이 지난 알람. alarm_tb 에서 옮겨 온다.
+화면에서 읽지 않으므로 연관관계 없이 id 와 그때의 연차/당직 상태만 남긴다. id 는 원래 알람 id.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Table(name = "alarm_archive_tb", indexes = @Index(name = "idx_alarm_archive_user_created_at", columnList = "userId, createdAt"))
+@Entity
+public class AlarmArchive {
+    @Id
+    private Long id;
+
+    private Long userId;
+
+    private Long leaveId;
+
+    @Enumerated(EnumType.STRING)
+    private LeaveType leaveType;
+
+    @Enumerated(EnumType.STRING)
+    private LeaveStatus leaveStatus;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime readAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
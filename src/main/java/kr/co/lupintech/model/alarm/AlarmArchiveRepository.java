@@ -0,0 +1,20 @@
+package kr.co.lupintech.model.alarm;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface AlarmArchiveRepository extends JpaRepository<AlarmArchive, Long> {
+
+    // 알람을 애플리케이션으로 읽지 않고 DB 안에서 바로 복사한다
+    @Modifying
+    @Query(value = "INSERT INTO alarm_archive_tb (id, user_id, leave_id, leave_type, leave_status, created_at, read_at, archived_at) " +
+            "SELECT a.id, a.user_id, a.leave_id, l.type, l.status, a.created_at, a.read_at, :archivedAt " +
+            "FROM alarm_tb a LEFT JOIN leave_tb l ON l.id = a.leave_id " +
+            "WHERE a.id IN (:ids)", nativeQuery = true)
+    int copyFromAlarms(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -1,10 +1,15 @@
 package kr.co.lupintech.model.alarm;
 
+import kr.co.lupintech.dto.alarm.AlarmResponse;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface AlarmRepository extends JpaRepository<Alarm, Long> {
@@ -12,10 +17,57 @@ public interface AlarmRepository extends JpaRepository<Alarm, Long> {
     @Query("SELECT a FROM Alarm a WHERE a.user.id = :userId")
     List<Alarm> findByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT a FROM Alarm a WHERE a.user.id = :userId AND a.leave.status = :status")
-    List<Alarm> findByUserIdAndLeaveStatus(@Param("userId") Long userId, @Param("status") LeaveStatus status);
+    @Query("SELECT COUNT(a) FROM Alarm a WHERE a.user.id = :userId AND a.readAt IS NULL")
+    long countUnreadByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT a FROM Alarm a WHERE a.leave.status = :status")
-    List<Alarm> findByLeaveStatus(@Param("status") LeaveStatus status);
+    @Query("SELECT COUNT(a) FROM Alarm a WHERE a.leaveStatus = :status")
+    long countByLeaveStatus(@Param("status") LeaveStatus status);
+
+    // 신청 상태가 바뀌면 그 신청의 알람도 같이
+    @Modifying
+    @Query("UPDATE Alarm a SET a.leaveStatus = :status WHERE a.leave.id = :leaveId")
+    int updateLeaveStatus(@Param("leaveId") Long leaveId, @Param("status") LeaveStatus status);
+
+    // leave_status 컬럼을 추가하기 전에 만든 알람 채우기
+    @Modifying
+    @Query(value = "UPDATE alarm_tb SET leave_status = (SELECT l.status FROM leave_tb l WHERE l.id = alarm_tb.leave_id) " +
+            "WHERE leave_status IS NULL", nativeQuery = true)
+    int fillLeaveStatus();
+
+    // 읽음 처리. ids 가 비어 있으면 안 읽은 알람 전부
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alarm a SET a.readAt = :readAt WHERE a.user.id = :userId AND a.readAt IS NULL AND a.id IN :ids")
+    int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Alarm a SET a.readAt = :readAt WHERE a.user.id = :userId AND a.readAt IS NULL")
+    int markAllRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    // 보관 대상. 처리 중인 신청(대기)의 알람은 남긴다
+    @Query("SELECT a.id FROM Alarm a WHERE a.createdAt < :before AND a.leaveStatus <> :excluded ORDER BY a.createdAt, a.id")
+    List<Long> findIdsCreatedBefore(@Param("before") LocalDateTime before, @Param("excluded") LeaveStatus excluded, Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Alarm a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // 사원 한 명의 알람 중 (createdAt, id) 보다 오래된 것을 최신순으로. (user_id, createdAt) 인덱스를 따라 읽고 상태는 알람 행에서 거른다
+    // 알람, 연차/당직, 유저를 한 쿼리로 DTO 에 담는다 (조인은 찾은 행에만)
+    @Query("SELECT new kr.co.lupintech.dto.alarm.AlarmResponse$AlarmOutDTO(a.id, l.id, u.username, l.type, l.startDate, l.endDate, l.usingDays, l.status, a.createdAt, a.readAt) " +
+            "FROM Alarm a JOIN a.leave l JOIN a.user u " +
+            "WHERE a.user.id = :userId AND a.leaveStatus IN :statuses " +
+            "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlarmResponse.AlarmOutDTO> findFeedByUserId(@Param("userId") Long userId, @Param("statuses") Collection<LeaveStatus> statuses,
+                                                     @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // 관리자: 모든 사원의 알람. (leaveStatus, createdAt) 인덱스
+    @Query("SELECT new kr.co.lupintech.dto.alarm.AlarmResponse$AlarmOutDTO(a.id, l.id, u.username, l.type, l.startDate, l.endDate, l.usingDays, l.status, a.createdAt, a.readAt) " +
+            "FROM Alarm a JOIN a.leave l JOIN a.user u " +
+            "WHERE a.leaveStatus IN :statuses " +
+            "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+            "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AlarmResponse.AlarmOutDTO> findFeed(@Param("statuses") Collection<LeaveStatus> statuses,
+                                             @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 
 }
\ No newline at end of file
@@ -16,7 +16,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
-@Table(name = "leave_tb")
+@Table(name = "leave_tb", indexes = @Index(name = "idx_leave_start_end", columnList = "startDate, endDate"))
 @Entity
 public class Leave {
     @Id
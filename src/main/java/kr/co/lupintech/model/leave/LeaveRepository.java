@@ -2,12 +2,18 @@ package kr.co.lupintech.model.leave;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface LeaveRepository extends JpaRepository<Leave, Long> {
 
@@ -36,6 +42,18 @@ public interface LeaveRepository extends JpaRepository<Leave, Long> {
                                     @Param("end") LocalDate endDate, @Param("id") Long userId);
 
 
+    // [start, end] 기간과 겹치는 연차/당직. (start_date, end_date) 인덱스 사용
+    @Query("select l from Leave l join fetch l.user where l.startDate <= :end and l.endDate >= :start order by l.id")
+    List<Leave> findOverlapping(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // 엑셀 내보내기용. 조건이 null이면 해당 조건은 무시. 호출하는 쪽 트랜잭션 안에서 스트림을 닫아야 한다.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select l from Leave l join fetch l.user where (:start is null or l.endDate >= :start) " +
+            "and (:end is null or l.startDate <= :end) and (:status is null or l.status = :status) " +
+            "and (:type is null or l.type = :type) order by l.id")
+    Stream<Leave> streamForExport(@Param("start") LocalDate start, @Param("end") LocalDate end,
+                                  @Param("status") LeaveStatus status, @Param("type") LeaveType type);
+
     List<Leave> findByStatus(LeaveStatus status);
 
     List<Leave> findAllByUserId(Long userId);
@@ -0,0 +1,6 @@
+package kr.co.lupintech.model.leave.enums;
+
+public enum ExportFormat {
+    XLSX,
+    CSV
+}
@@ -0,0 +1,8 @@
+package kr.co.lupintech.model.leave.enums;
+
+public enum ExportStatus {
+    WAITING, // 대기열에 들어감
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,48 @@
+package kr.co.lupintech.model.outbox;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+서버 여러 대일 때 SSE 이벤트를 모든 서버에 전달하기 위한 outbox. 각 서버가 id 순서로 읽어 자기 연결에 보낸다.
+id 는 그대로 SSE 이벤트 id 가 되고, 재연결(Last-Event-ID) 하면 이 테이블에서 다시 보낸다 (SseReplaySource).
+eventName 이 "cache:" 로 시작하는 행은 메모리 캐시 무효화 (userIds 는 비어 있고 payload 는 보낸 서버와 키).
+잠깐만 필요하므로 sse.outbox.retention-minutes 가 지나면 지운다. 그보다 오래 끊겼던 클라이언트는 resync 를 받는다.
+ */
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+@Table(name = "sse_outbox_tb", indexes = @Index(name = "idx_sse_outbox_created_at", columnList = "createdAt"))
+@Entity
+public class SseOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 4000)
+    private String userIds; // 1,2,3
+
+    @Column(nullable = false, length = 50)
+    private String eventName;
+
+    @Lob
+    @Column(nullable = false)
+    private String payload; // json
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public SseOutbox(String userIds, String eventName, String payload) {
+        this.userIds = userIds;
+        this.eventName = eventName;
+        this.payload = payload;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
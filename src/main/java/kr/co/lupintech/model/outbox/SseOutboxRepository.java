@@ -0,0 +1,30 @@
+package kr.co.lupintech.model.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SseOutboxRepository extends JpaRepository<SseOutbox, Long> {
+
+    List<SseOutbox> findTop500ByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("select coalesce(max(o.id), 0) from SseOutbox o")
+    Long findMaxId();
+
+    @Query("select coalesce(min(o.id), 0) from SseOutbox o")
+    Long findMinId();
+
+    // 재연결 시 다시 보내기 (SseReplaySource). 받는 유저는 호출한 쪽에서 거른다
+    List<SseOutbox> findTop500ByIdBetweenAndEventNameInOrderByIdAsc(Long fromId, Long toId, Collection<String> eventNames);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SseOutbox o where o.createdAt < :time")
+    int deleteByCreatedAtBefore(@Param("time") LocalDateTime time);
+}
@@ -4,13 +4,18 @@ import kr.co.lupintech.model.user.User;
 import lombok.Getter;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 /*
 토큰에 발급한 uuid 를 저장. 그외 필요한 정보들 저장. 리프레시토큰 자체는 저장하지 않는다.
  */
 @Getter
 @Entity
-@Table(name = "token_tb")
+@Table(name = "token_tb", indexes = {
+        @Index(name = "idx_token_expires_at", columnList = "expiresAt"), // 만료 토큰 정리
+        @Index(name = "idx_token_status", columnList = "status"),
+        @Index(name = "idx_token_family_id", columnList = "familyId") // 재사용 감지 시 family 전체 폐기
+})
 public class RefreshTokenEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +32,14 @@ public class RefreshTokenEntity {
     @Column(nullable = false)
     private TokenStatus status;
 
+    // 로그인 한 번에서 재발급(교체)으로 이어진 토큰들은 같은 family. 첫 토큰의 uuid
+    @Column(length = 36)
+    private String familyId;
+
+    private LocalDateTime issuedAt;
+
+    private LocalDateTime expiresAt; // 리프레시 토큰의 exp. 지나면 상태와 상관없이 정리 대상
+
     public RefreshTokenEntity() {
     }
 
@@ -34,6 +47,19 @@ public class RefreshTokenEntity {
         this.user = user;
         this.uuid = uuid;
         this.status = status;
+        this.familyId = uuid;
+    }
+
+    public RefreshTokenEntity(User user, String uuid, String familyId, TokenStatus status, LocalDateTime issuedAt, LocalDateTime expiresAt) {
+        this(user, uuid, status);
+        this.familyId = familyId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (this.issuedAt == null) this.issuedAt = LocalDateTime.now();
     }
 
     public void setStatus(TokenStatus expired) {
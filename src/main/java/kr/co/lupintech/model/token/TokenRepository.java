@@ -1,7 +1,14 @@
 package kr.co.lupintech.model.token;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +19,33 @@ public interface TokenRepository extends JpaRepository<RefreshTokenEntity, Long>
     Optional<RefreshTokenEntity> findByUuid(String uuid);
 
     List<RefreshTokenEntity> findByStatus(TokenStatus status);
+
+    // 정리 대상 id 만 읽는다 (엔티티 적재 x)
+    @Query("select t.id from RefreshTokenEntity t where t.expiresAt < :time")
+    List<Long> findIdsExpiredBefore(@Param("time") LocalDateTime time, Pageable pageable);
+
+    // expiresAt 이 없는 예전 토큰은 발급 시각으로 거른다 (3개 인자 생성자로 만든 토큰, 컬럼 추가 전 토큰)
+    @Query("select t.id from RefreshTokenEntity t where t.expiresAt is null and t.issuedAt < :time")
+    List<Long> findIdsWithoutExpiryIssuedBefore(@Param("time") LocalDateTime time, Pageable pageable);
+
+    @Query("select t.id from RefreshTokenEntity t where t.status in :statuses")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<TokenStatus> statuses, Pageable pageable);
+
+    // from 상태일 때만 바꾼다. 0 이면 이미 다른 요청이 바꿈
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.status = :to where t.uuid = :uuid and t.status = :from")
+    int updateStatus(@Param("uuid") String uuid, @Param("from") TokenStatus from, @Param("to") TokenStatus to);
+
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.status = :to where t.familyId = :familyId and t.status = :from")
+    int updateStatusByFamilyId(@Param("familyId") String familyId, @Param("from") TokenStatus from, @Param("to") TokenStatus to);
+
+    @Modifying
+    @Query("update RefreshTokenEntity t set t.status = :to where t.user.id = :userId and t.status = :from")
+    int updateStatusByUserId(@Param("userId") Long userId, @Param("from") TokenStatus from, @Param("to") TokenStatus to);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshTokenEntity t where t.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,5 +3,6 @@ package kr.co.lupintech.model.token;
 public enum TokenStatus {
     VALID,
     EXPIRED,
-    REVOKED
+    REVOKED,
+    ROTATED // 재발급으로 교체됨. 다시 쓰이면 탈취로 보고 family 전체 폐기
 }
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Getter
-@Table(name = "user_tb")
+@Table(name = "user_tb", indexes = {
+        @Index(name = "uk_user_email", columnList = "email", unique = true), // 로그인(findByEmail)
+        @Index(name = "idx_user_token_revoked_at", columnList = "tokenRevokedAt")})
 @Entity
 public class User {
 
@@ -50,6 +52,8 @@ public class User {
 
     private LocalDateTime updatedAt;
 
+    private LocalDateTime tokenRevokedAt; // 이 시각 전에 발급된 액세스 토큰은 무효
+
     public void changeProfile(String profile) {
         this.profile = profile;
     }
@@ -102,4 +106,8 @@ public class User {
     public void resign() { // 퇴사
         this.status = false;
     }
+
+    public void revokeTokens() { // 지금까지 발급된 액세스 토큰 폐기 (퇴사, 권한수정)
+        this.tokenRevokedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
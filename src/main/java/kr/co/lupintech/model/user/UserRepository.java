@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -39,4 +40,16 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("select u from User u where u.status = :status") // 활성 상태인 것만 조회
     Page<User> findAllByStatus(@Param("status") boolean status, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("select u from User u where u.status = true and u.id > :afterId order by u.id asc") // 키셋 페이징 (count 없음)
+    List<User> findActiveAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select u from User u where u.status = true and u.username like %:query% and u.id > :afterId order by u.id asc")
+    List<User> findActiveByQueryAfterId(@Param("query") String query, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select u from User u where u.status = true") // 사원 디렉터리 적재용
+    List<User> findAllActive();
+
+    @Query("select u from User u where u.tokenRevokedAt > :time") // 액세스 토큰 폐기 목록 갱신용
+    List<User> findByTokenRevokedAtAfter(@Param("time") LocalDateTime time);
+}
@@ -0,0 +1,130 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.model.alarm.AlarmArchiveRepository;
+import kr.co.lupintech.model.alarm.AlarmRepository;
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 보관 기간이 지난 알람을 alarm_tb 에서 alarm_archive_tb 로 옮긴다.
+ * batch-size 개씩 각자 짧은 트랜잭션으로 복사 후 삭제해서, 한 번에 많은 행을 오래 잠그지 않는다.
+ * MyScheduleUtil 에서 매일 새벽에 실행한다.
+ * 시작할 때는 alarm_tb.leave_status 컬럼을 추가하기 전에 만든 알람의 상태를 채운다.
+ */
+@Slf4j
+@Service
+public class AlarmRetentionService {
+
+    private final AlarmRepository alarmRepository;
+    private final AlarmArchiveRepository alarmArchiveRepository;
+    private final AlarmCounter alarmCounter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${alarm.retention.days:180}")
+    private int retentionDays = 180;
+
+    @Value("${alarm.retention.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${alarm.retention.max-batches:200}")
+    private int maxBatches = 200; // 한 번 실행에 최대 batch-size * max-batches 행. 남은 건 다음 실행에서
+
+    @Value("${alarm.retention.pause-ms:50}")
+    private long pauseMs = 50; // 배치 사이에 다른 트랜잭션이 끼어들 틈
+
+    // 지표
+    private final LongAdder runCount = new LongAdder();
+    private final LongAdder archivedCount = new LongAdder();
+    private volatile int lastRunCount;
+    private volatile long lastRunMillis;
+
+    public AlarmRetentionService(AlarmRepository alarmRepository, AlarmArchiveRepository alarmArchiveRepository,
+                                 AlarmCounter alarmCounter, PlatformTransactionManager transactionManager) {
+        this.alarmRepository = alarmRepository;
+        this.alarmArchiveRepository = alarmArchiveRepository;
+        this.alarmCounter = alarmCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public int 오래된알람보관() {
+        return 알람보관(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    // before 보다 먼저 만든 알람을 옮기고 옮긴 행 수를 돌려준다
+    public int 알람보관(LocalDateTime before) {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(before));
+            total += moved;
+            if (moved < batchSize) break;
+            if (!pause()) break;
+        }
+
+        lastRunCount = total;
+        lastRunMillis = System.currentTimeMillis() - start;
+        runCount.increment();
+        archivedCount.add(total);
+        if (total > 0) {
+            alarmCounter.resync(); // 안 읽은 알람이 보관됐을 수 있다
+            log.info("alarms archived: {} rows in {} ms", total, lastRunMillis);
+        }
+        return total;
+    }
+
+    // 비어 있는 행이 없으면 (leaveStatus, createdAt) 인덱스로 바로 끝난다
+    @EventListener(ApplicationReadyEvent.class)
+    public void 알람상태채우기() {
+        Integer filled = transactionTemplate.execute(status -> alarmRepository.fillLeaveStatus());
+        if (filled != null && filled > 0) {
+            alarmCounter.resync(); // 대기 알람 수를 다시 센다
+            log.info("alarm leave status filled: {}", filled);
+        }
+    }
+
+    public long getRunCount() {
+        return runCount.sum();
+    }
+
+    public long getArchivedCount() {
+        return archivedCount.sum();
+    }
+
+    public int getLastRunCount() {
+        return lastRunCount;
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> ids = alarmRepository.findIdsCreatedBefore(before, LeaveStatus.WAITING, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) return 0;
+        alarmArchiveRepository.copyFromAlarms(ids, LocalDateTime.now());
+        return alarmRepository.deleteByIds(ids);
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) return true;
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
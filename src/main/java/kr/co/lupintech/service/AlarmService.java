@@ -1,14 +1,23 @@
 package kr.co.lupintech.service;
 
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.exception.Exception400;
 import kr.co.lupintech.core.exception.Exception500;
 import kr.co.lupintech.dto.alarm.AlarmResponse;
 import kr.co.lupintech.model.alarm.Alarm;
 import kr.co.lupintech.model.alarm.AlarmRepository;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,24 +25,65 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Service
 public class AlarmService {
+    private static final int MAX_FEED_SIZE = 100;
+    private static final LocalDateTime FIRST_CURSOR_TIME = LocalDateTime.of(9999, 12, 31, 0, 0); // cursor 없이 첫 페이지
+
     private final AlarmRepository alarmRepository;
+    private final AlarmCounter alarmCounter;
 
-    public List<AlarmResponse.AlarmOutDTO> findByUserId(Long userId) {
-        List<Alarm> alarms = alarmRepository.findByUserId(userId);
-        return alarms.stream()
-                .map(alarm -> new AlarmResponse.AlarmOutDTO(alarm))
-                .collect(Collectors.toList());
+    // 뱃지. 사원은 안 읽은 승인/거절 알람 수, 관리자는 모든 사원의 신청대기 알람 수. DB 를 매번 세지 않는다
+    public AlarmResponse.CountOutDTO 알람개수(Long userId, boolean isManager) {
+        long count = isManager ? alarmCounter.waiting() : alarmCounter.unread(userId);
+        return new AlarmResponse.CountOutDTO(count);
     }
 
-    public List<AlarmResponse.AlarmOutDTO> findByUserIdAndLeaveStatus(Long userId, LeaveStatus status) {
-        List<Alarm> alarms = alarmRepository.findByUserIdAndLeaveStatus(userId, status);
-        return alarms.stream()
-                .map(alarm -> new AlarmResponse.AlarmOutDTO(alarm))
-                .collect(Collectors.toList());
+    // 본인 알람만 읽음 처리한다. 다른 사원의 id 는 무시
+    @Transactional
+    public AlarmResponse.CountOutDTO 알람읽기(Long userId, List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        int count = (ids == null || ids.isEmpty())
+                ? alarmRepository.markAllRead(userId, now)
+                : alarmRepository.markRead(userId, ids, now);
+        alarmCounter.read(userId, count);
+        return new AlarmResponse.CountOutDTO(count);
+    }
+
+    // 알람 목록 전체. 상태 여러 개를 한 쿼리로
+    public List<AlarmResponse.AlarmOutDTO> findByUserIdAndLeaveStatuses(Long userId, Collection<LeaveStatus> statuses) {
+        return findFeed(userId, statuses, FIRST_CURSOR_TIME, Long.MAX_VALUE, Pageable.unpaged());
     }
 
-    public List<AlarmResponse.AlarmOutDTO> findByLeaveStatus(LeaveStatus status) {
-        List<Alarm> alarms = alarmRepository.findByLeaveStatus(status);
+    // 최신순 keyset 페이지. userId 가 null 이면 모든 유저의 알람 (관리자)
+    public AlarmResponse.FeedOutDTO 알람피드(Long userId, Collection<LeaveStatus> statuses, String cursor, int size) {
+        if (size < 1 || size > MAX_FEED_SIZE) {
+            throw new Exception400("size", "size는 1에서 " + MAX_FEED_SIZE + " 사이여야 합니다.");
+        }
+        LocalDateTime createdAt = FIRST_CURSOR_TIME;
+        Long id = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("_");
+                createdAt = LocalDateTime.parse(parts[0]);
+                id = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new Exception400("cursor", "잘못된 cursor 입니다.");
+            }
+        }
+
+        // 한 개 더 읽어서 다음 페이지가 있는지 본다
+        List<AlarmResponse.AlarmOutDTO> alarms = findFeed(userId, statuses, createdAt, id, PageRequest.of(0, size + 1));
+        if (alarms.size() <= size) {
+            return new AlarmResponse.FeedOutDTO(alarms, null);
+        }
+        List<AlarmResponse.AlarmOutDTO> content = new ArrayList<>(alarms.subList(0, size));
+        AlarmResponse.AlarmOutDTO last = content.get(size - 1);
+        String nextCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getCreatedAt() + "_" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        return new AlarmResponse.FeedOutDTO(content, nextCursor);
+    }
+
+    public List<AlarmResponse.AlarmOutDTO> findByUserId(Long userId) {
+        List<Alarm> alarms = alarmRepository.findByUserId(userId);
         return alarms.stream()
                 .map(alarm -> new AlarmResponse.AlarmOutDTO(alarm))
                 .collect(Collectors.toList());
@@ -46,4 +96,12 @@ public class AlarmService {
             throw new Exception500("알람 저장 실패 : "+e.getMessage());
         }
     }
+
+    // 사원 한 명과 모든 사원은 쓰는 인덱스가 달라 쿼리를 나눈다
+    private List<AlarmResponse.AlarmOutDTO> findFeed(Long userId, Collection<LeaveStatus> statuses,
+                                                     LocalDateTime createdAt, Long id, Pageable pageable) {
+        return userId == null
+                ? alarmRepository.findFeed(statuses, createdAt, id, pageable)
+                : alarmRepository.findFeedByUserId(userId, statuses, createdAt, id, pageable);
+    }
 }
@@ -1,37 +1,133 @@
 package kr.co.lupintech.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.net.URISyntaxException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @RequiredArgsConstructor
 @Service
 public class DateService {
 
+    private static final long INCOMPLETE_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final HolidayService holidayService;
 
+    // 연도별 영업일 누적합. 공휴일 캐시가 바뀌면 다시 만든다.
+    private final Map<Integer, YearIndex> yearIndexes = new ConcurrentHashMap<>();
+
+    // 다시 만드는 중인 연도. 그동안 요청은 직전 인덱스로 계산하고 공휴일 API 를 기다리지 않는다
+    private final Set<Integer> rebuilding = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "year-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public Integer getWeekDayCount(LocalDate startDate, LocalDate endDate) throws URISyntaxException {
-        Integer weekdayCount = 0;
+        if (startDate.isAfter(endDate)) return 0;
 
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            DayOfWeek dayOfWeek = date.getDayOfWeek();
-            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
-                // if 공휴일이면 continue;
-                String year = String.valueOf(date.getYear());
-                String month = String.format("%02d", date.getMonthValue());
-                Set<LocalDate> holidays = holidayService.getHolidays(year, month);
-                if(holidays.contains(date)) continue;
-                weekdayCount++;
-            }
+        if (startDate.getYear() == endDate.getYear()) {
+            YearIndex index = yearIndex(startDate.getYear());
+            return index.prefix[endDate.getDayOfYear()] - index.prefix[startDate.getDayOfYear() - 1];
         }
+
+        YearIndex first = yearIndex(startDate.getYear());
+        int weekdayCount = first.total() - first.prefix[startDate.getDayOfYear() - 1];
+        for (int year = startDate.getYear() + 1; year < endDate.getYear(); year++) {
+            weekdayCount += yearIndex(year).total();
+        }
+        weekdayCount += yearIndex(endDate.getYear()).prefix[endDate.getDayOfYear()];
         return weekdayCount;
     }
 
+    // date 다음날부터 세어서 n번째 영업일 (n >= 1)
+    public LocalDate plusWorkingDays(LocalDate date, int n) throws URISyntaxException {
+        if (n < 1) throw new IllegalArgumentException("n은 1 이상이어야 합니다.");
+
+        int year = date.getYear();
+        YearIndex index = yearIndex(year);
+        int target = index.prefix[date.getDayOfYear()] + n;
+        while (target > index.total()) {
+            target -= index.total();
+            index = yearIndex(++year);
+        }
+        return LocalDate.ofYearDay(year, index.nth[target]);
+    }
+
+    public int getMonthWorkingDays(YearMonth yearMonth) throws URISyntaxException {
+        YearIndex index = yearIndex(yearMonth.getYear());
+        int first = yearMonth.atDay(1).getDayOfYear();
+        int last = yearMonth.atEndOfMonth().getDayOfYear();
+        return index.prefix[last] - index.prefix[first - 1];
+    }
+
+    private YearIndex yearIndex(int year) throws URISyntaxException {
+        YearIndex index = yearIndexes.get(year);
+        if (index == null) { // 처음 보는 연도는 돌려줄 값이 없으니 직접 만든다
+            index = buildYearIndex(year);
+            yearIndexes.put(year, index);
+            return index;
+        }
+        if (!index.isUsable(holidayService.getVersion())) rebuildAsync(year);
+        return index;
+    }
+
+    private void rebuildAsync(int year) {
+        if (!rebuilding.add(year)) return;
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    yearIndexes.put(year, buildYearIndex(year));
+                } catch (URISyntaxException | RuntimeException e) {
+                    log.warn("영업일 인덱스 다시 만들기 실패 {} : {}", year, e.getMessage());
+                } finally {
+                    rebuilding.remove(year);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.remove(year); // 종료 중
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private YearIndex buildYearIndex(int year) throws URISyntaxException {
+        Set<LocalDate> holidays = holidayService.getHolidays(year);
+        boolean complete = holidayService.hasYear(year);
+        long version = holidayService.getVersion();
+
+        int days = LocalDate.ofYearDay(year, 1).lengthOfYear();
+        int[] prefix = new int[days + 1];
+        int[] nth = new int[days + 1];
+        LocalDate date = LocalDate.ofYearDay(year, 1);
+        for (int dayOfYear = 1; dayOfYear <= days; dayOfYear++, date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            boolean working = dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
+                    && !holidays.contains(date);
+            prefix[dayOfYear] = prefix[dayOfYear - 1] + (working ? 1 : 0);
+            if (working) nth[prefix[dayOfYear]] = dayOfYear;
+        }
+        return new YearIndex(prefix, nth, version, complete, System.currentTimeMillis());
+    }
+
     public int getAnnualLimit(LocalDate hireDate) {
         long days = ChronoUnit.DAYS.between(hireDate, LocalDate.now());
         int limit = calPlusLimit(days);
@@ -47,4 +143,32 @@ public class DateService {
             return 15 + ceil;
         }
     }
+
+    /**
+     * prefix[d] : 1월 1일부터 d번째 날까지의 영업일 수, nth[k] : k번째 영업일의 dayOfYear
+     */
+    private static class YearIndex {
+        private final int[] prefix;
+        private final int[] nth;
+        private final long version;
+        private final boolean complete; // 공휴일 API 실패로 빠진 달이 있으면 false
+        private final long builtAt;
+
+        private YearIndex(int[] prefix, int[] nth, long version, boolean complete, long builtAt) {
+            this.prefix = prefix;
+            this.nth = nth;
+            this.version = version;
+            this.complete = complete;
+            this.builtAt = builtAt;
+        }
+
+        private int total() {
+            return prefix[prefix.length - 1];
+        }
+
+        private boolean isUsable(long currentVersion) {
+            if (version != currentVersion) return false;
+            return complete || System.currentTimeMillis() - builtAt < INCOMPLETE_RETRY_MILLIS;
+        }
+    }
 }
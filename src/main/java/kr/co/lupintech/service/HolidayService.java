@@ -1,33 +1,216 @@
 package kr.co.lupintech.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * 공휴일 달력. (year, month) 단위로 공공 API 결과를 캐시하고, 로컬 파일 스냅샷으로 콜드 스타트와 API 장애에 대비한다.
+ */
+@Slf4j
 @Service
 public class HolidayService {
+    private static final String API_URL = "http://apis.data.go.kr/B090041/openapi/service/SpcdeInfoService/getRestDeInfo";
+
     private final String key;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<YearMonth, CachedMonth> cache = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong(); // 캐시 내용이 바뀔 때마다 증가
+
+    // 미리 받기는 API 를 24번 부르므로 시작 스레드나 스케줄러 스레드가 아닌 전용 스레드에서 돌린다
+    private final AtomicBoolean preloading = new AtomicBoolean();
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "holiday-preload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 지표
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder apiCallCount = new LongAdder();
+    private final LongAdder apiFailCount = new LongAdder();
+    private final LongAdder apiNanos = new LongAdder();
+
+    @Value("${holiday.cache.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${holiday.cache.max-months:60}")
+    private int maxMonths;
+
+    @Value("${holiday.snapshot-path:}")
+    private String snapshotPath;
+
+    @Value("${holiday.preload:true}")
+    private boolean preloadEnabled;
 
     public HolidayService(@Value("${key.holiday}") String key) {
         this.key = key;
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(3000);
+        factory.setReadTimeout(5000);
+        this.restTemplate = new RestTemplate(factory); // 요청마다 만들지 않고 재사용
     }
 
     public Set<LocalDate> getHolidays(String year, String month) throws URISyntaxException {
+        return getHolidays(YearMonth.of(Integer.parseInt(year), Integer.parseInt(month)));
+    }
+
+    public Set<LocalDate> getHolidays(YearMonth yearMonth) throws URISyntaxException {
+        CachedMonth cached = cache.get(yearMonth);
+        if (cached != null && !cached.isExpired(ttlMillis())) {
+            hitCount.increment();
+            return cached.holidays;
+        }
+        missCount.increment();
+
+        try {
+            return refresh(yearMonth);
+        } catch (RestClientException e) {
+            // API 장애시 만료된 값이라도 있으면 사용, 없으면 주말만 계산되도록 빈 값 반환 (캐시하지 않음)
+            if (cached != null) {
+                log.warn("공휴일 API 호출 실패, 만료된 캐시 사용 {} : {}", yearMonth, e.getMessage());
+                return cached.holidays;
+            }
+            log.error("공휴일 API 호출 실패, 공휴일 없이 계산 {} : {}", yearMonth, e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    // 한 해 전체 공휴일
+    public Set<LocalDate> getHolidays(int year) throws URISyntaxException {
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int month = 1; month <= 12; month++) {
+            holidays.addAll(getHolidays(YearMonth.of(year, month)));
+        }
+        return holidays;
+    }
+
+    // 해당 연도 12개월이 모두 캐시되어 있는지 (API 실패로 빠진 달이 없는지)
+    public boolean hasYear(int year) {
+        for (int month = 1; month <= 12; month++) {
+            if (!cache.containsKey(YearMonth.of(year, month))) return false;
+        }
+        return true;
+    }
+
+    // 캐시 내용이 바뀌었는지 확인하는 용도
+    public long getVersion() {
+        return version.get();
+    }
+
+    @PostConstruct
+    public void init() {
+        loadSnapshot();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadOnStartup() {
+        if (preloadEnabled) preloadAsync();
+    }
+
+    // 백그라운드에서 미리 받기. 이미 돌고 있으면 건너뛴다. 매일 자정 MyScheduleUtil에서도 호출
+    public void preloadAsync() {
+        if (!preloading.compareAndSet(false, true)) return;
+        try {
+            preloader.execute(() -> {
+                try {
+                    preload();
+                } finally {
+                    preloading.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            preloading.set(false); // 종료 중
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        preloader.shutdownNow();
+    }
+
+    // 올해와 내년 공휴일을 미리 받아두기
+    public void preload() {
+        int thisYear = LocalDate.now().getYear();
+        int loaded = 0;
+        for (int year = thisYear; year <= thisYear + 1; year++) {
+            for (int month = 1; month <= 12; month++) {
+                try {
+                    refresh(YearMonth.of(year, month));
+                    loaded++;
+                } catch (RestClientException | URISyntaxException e) {
+                    log.warn("공휴일 미리 받기 실패 {}-{} : {}", year, month, e.getMessage());
+                }
+            }
+        }
+        saveSnapshot();
+        log.info("공휴일 캐시 preload {}개월, hit={}, miss={}, api={}(실패 {}), api 평균 {}ms",
+                loaded, getHitCount(), getMissCount(), getApiCallCount(), getApiFailCount(), getApiAverageMillis());
+    }
+
+    private Set<LocalDate> refresh(YearMonth yearMonth) throws URISyntaxException {
+        Set<LocalDate> holidays = fetch(yearMonth);
+        CachedMonth previous = cache.put(yearMonth, new CachedMonth(holidays, System.currentTimeMillis()));
+        if (previous == null || !previous.holidays.equals(holidays)) version.incrementAndGet();
+        evictIfFull();
+        return holidays;
+    }
+
+    private Set<LocalDate> fetch(YearMonth yearMonth) throws URISyntaxException {
         // API로 공휴일 값 받기
-        RestTemplate restTemplate = new RestTemplate();
-        String url = "http://apis.data.go.kr/B090041/openapi/service/SpcdeInfoService/getRestDeInfo?solYear="+year
-                +"&solMonth="+month+"&_type=json&ServiceKey=";
-        String response = restTemplate.getForObject(new URI(url+key), String.class);
+        String url = API_URL + "?solYear=" + yearMonth.getYear()
+                + "&solMonth=" + String.format("%02d", yearMonth.getMonthValue()) + "&_type=json&ServiceKey=";
+
+        apiCallCount.increment();
+        long start = System.nanoTime();
+        String response;
+        try {
+            response = restTemplate.getForObject(new URI(url + key), String.class);
+        } catch (RestClientException e) {
+            apiFailCount.increment();
+            throw e;
+        } finally {
+            apiNanos.add(System.nanoTime() - start);
+        }
+        return parse(response);
+    }
 
+    private Set<LocalDate> parse(String response) {
         // 공휴일 찾아서 set에 저장
         Set<LocalDate> holidays = new HashSet<>();
+        if (response == null) return holidays;
         int idx = -17;
         while(true){
             idx = response.indexOf("locdate", idx + 17);
@@ -35,6 +218,98 @@ public class HolidayService {
             String holiday = response.substring(idx + 9, idx + 17);
             holidays.add(LocalDate.parse(holiday, DateTimeFormatter.BASIC_ISO_DATE));
         }
-        return holidays;
+        return Collections.unmodifiableSet(holidays);
+    }
+
+    // 가장 오래전에 받은 달부터 제거
+    private void evictIfFull() {
+        while (cache.size() > maxMonths) {
+            Optional<YearMonth> oldest = cache.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().loadedAt))
+                    .map(Map.Entry::getKey);
+            if (!oldest.isPresent()) return;
+            cache.remove(oldest.get());
+        }
+    }
+
+    private void loadSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank()) return;
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) return;
+
+        try {
+            long loadedAt = Files.getLastModifiedTime(path).toMillis();
+            Map<String, List<String>> snapshot = objectMapper.readValue(path.toFile(), new TypeReference<Map<String, List<String>>>() {});
+            snapshot.forEach((month, days) -> {
+                Set<LocalDate> holidays = new HashSet<>();
+                days.forEach(day -> holidays.add(LocalDate.parse(day)));
+                cache.putIfAbsent(YearMonth.parse(month), new CachedMonth(Collections.unmodifiableSet(holidays), loadedAt));
+            });
+            version.incrementAndGet();
+            log.info("공휴일 스냅샷 로드 {}개월 : {}", snapshot.size(), path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("공휴일 스냅샷 로드 실패 {} : {}", path, e.getMessage());
+        }
+    }
+
+    private synchronized void saveSnapshot() {
+        if (snapshotPath == null || snapshotPath.isBlank() || cache.isEmpty()) return;
+        Path path = Paths.get(snapshotPath);
+
+        Map<String, List<String>> snapshot = new TreeMap<>();
+        cache.forEach((month, cached) -> {
+            List<String> days = new ArrayList<>();
+            cached.holidays.forEach(day -> days.add(day.toString()));
+            Collections.sort(days);
+            snapshot.put(month.toString(), days);
+        });
+
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent() != null ? path.getParent() : Paths.get("."), "holiday", ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("공휴일 스냅샷 저장 실패 {} : {}", path, e.getMessage());
+        }
+    }
+
+    private long ttlMillis() {
+        return TimeUnit.HOURS.toMillis(ttlHours);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getApiCallCount() {
+        return apiCallCount.sum();
+    }
+
+    public long getApiFailCount() {
+        return apiFailCount.sum();
+    }
+
+    public long getApiAverageMillis() {
+        long calls = apiCallCount.sum();
+        return calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(apiNanos.sum() / calls);
+    }
+
+    private static class CachedMonth {
+        private final Set<LocalDate> holidays;
+        private final long loadedAt;
+
+        private CachedMonth(Set<LocalDate> holidays, long loadedAt) {
+            this.holidays = holidays;
+            this.loadedAt = loadedAt;
+        }
+
+        private boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
     }
 }
@@ -0,0 +1,199 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.event.SseEventBus;
+import kr.co.lupintech.core.exception.Exception400;
+import kr.co.lupintech.core.exception.Exception403;
+import kr.co.lupintech.core.exception.Exception404;
+import kr.co.lupintech.dto.leave.LeaveRequest;
+import kr.co.lupintech.dto.leave.LeaveResponse;
+import kr.co.lupintech.model.leave.enums.ExportFormat;
+import kr.co.lupintech.model.leave.enums.ExportStatus;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 큰 연차/당직 보고서를 요청 스레드 밖에서 임시 파일로 만든다.
+ * 작업 스레드 수와 대기열 크기를 제한하고, 진행 상황은 SSE "export" 이벤트로 알린다.
+ * 다 만든 파일은 expire-minutes 가 지나면 MyScheduleUtil 에서 지운다.
+ * 작업과 파일은 요청받은 서버의 메모리/임시 디렉터리에만 있다. 서버를 여러 대 띄우면 상태 조회와 다운로드가
+ * 같은 서버로 가도록 로드밸런서에 고정 세션(sticky, 예: 로그인 유저 기준)을 켜야 한다. 다른 서버로 가면 404.
+ */
+@Slf4j
+@Service
+public class LeaveExportService {
+
+    private final LeaveService leaveService;
+    private final SseEventBus sseEventBus;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${leave.export.expire-minutes:30}")
+    private long expireMinutes = 30;
+
+    public LeaveExportService(LeaveService leaveService, SseEventBus sseEventBus,
+                              @Value("${leave.export.workers:2}") int workers,
+                              @Value("${leave.export.queue-size:20}") int queueSize) {
+        this.leaveService = leaveService;
+        this.sseEventBus = sseEventBus;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "leave-export-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public LeaveResponse.ExportJobOutDTO 내보내기요청(LeaveRequest.ExportJobInDTO exportJobInDTO, Long userId) {
+        exportJobInDTO.validate(); // 대기열에 넣기 전에 검증
+        ExportFormat format = exportJobInDTO.getFormat() == null ? ExportFormat.XLSX : exportJobInDTO.getFormat();
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), userId, format);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, exportJobInDTO));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new Exception400("export", "내보내기 요청이 많습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return job.toOutDTO();
+    }
+
+    public LeaveResponse.ExportJobOutDTO 내보내기상태(String jobId, Long userId) {
+        return findOwnJob(jobId, userId).toOutDTO();
+    }
+
+    public ExportJob 내보내기파일(String jobId, Long userId) {
+        ExportJob job = findOwnJob(jobId, userId);
+        if (job.getStatus() != ExportStatus.DONE) {
+            throw new Exception400("status", "아직 완료되지 않은 내보내기입니다.");
+        }
+        return job;
+    }
+
+    // 끝난 지 expireMinutes 가 지난 작업과 파일 삭제
+    public int 만료내보내기삭제() {
+        LocalDateTime expiredAt = LocalDateTime.now().minusMinutes(expireMinutes);
+        int count = 0;
+        for (ExportJob job : jobs.values()) {
+            if (job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredAt)) {
+                jobs.remove(job.getId());
+                deleteFile(job);
+                count++;
+            }
+        }
+        if (count > 0) log.info("expired export jobs removed: {}", count);
+        return count;
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().forEach(this::deleteFile);
+        jobs.clear();
+    }
+
+    private void run(ExportJob job, LeaveRequest.ExportInDTO exportInDTO) {
+        job.status = ExportStatus.RUNNING;
+        notify(job);
+        ExportStatus result = ExportStatus.FAILED;
+        try {
+            job.file = Files.createTempFile("leave-export-", "." + job.getFormat().name().toLowerCase());
+            try (OutputStream outputStream = Files.newOutputStream(job.file)) {
+                if (job.getFormat() == ExportFormat.CSV) {
+                    leaveService.CSV다운로드(exportInDTO, outputStream, rowCount -> progress(job, rowCount));
+                } else {
+                    leaveService.엑셀다운로드(exportInDTO, outputStream, rowCount -> progress(job, rowCount));
+                }
+            }
+            result = ExportStatus.DONE;
+        } catch (Exception e) {
+            log.error("export job {} failed: {}", job.getId(), e.getMessage());
+            deleteFile(job);
+        } finally {
+            job.finishedAt = LocalDateTime.now(); // 상태보다 먼저 정해야 완료된 작업은 항상 만료 대상이 된다
+            job.status = result;
+            notify(job);
+        }
+    }
+
+    private void progress(ExportJob job, int rowCount) {
+        job.rowCount = rowCount;
+        notify(job);
+    }
+
+    // 연결이 끊겨도 내보내기는 계속한다. 상태는 조회 API로 확인 가능
+    private void notify(ExportJob job) {
+        try {
+            sseEventBus.sendToUser(job.getUserId(), "export", job.toOutDTO());
+        } catch (Exception e) {
+            log.debug("export progress not delivered to {}", job.getUserId());
+        }
+    }
+
+    private ExportJob findOwnJob(String jobId, Long userId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new Exception404("존재하지 않거나 만료된 내보내기입니다.");
+        }
+        if (!job.getUserId().equals(userId)) {
+            throw new Exception403("본인의 내보내기만 조회할 수 있습니다.");
+        }
+        return job;
+    }
+
+    private void deleteFile(ExportJob job) {
+        if (job.file == null) return;
+        try {
+            Files.deleteIfExists(job.file);
+        } catch (IOException e) {
+            log.warn("export file delete failed: {}", job.file);
+        }
+    }
+
+    @Getter
+    public static class ExportJob {
+        private final String id;
+        private final Long userId;
+        private final ExportFormat format;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ExportStatus status = ExportStatus.WAITING;
+        private volatile int rowCount;
+        private volatile Path file;
+        private volatile LocalDateTime finishedAt;
+
+        private ExportJob(String id, Long userId, ExportFormat format) {
+            this.id = id;
+            this.userId = userId;
+            this.format = format;
+        }
+
+        public String getFilename() {
+            return "annual_leave_duty." + format.name().toLowerCase();
+        }
+
+        private LeaveResponse.ExportJobOutDTO toOutDTO() {
+            return new LeaveResponse.ExportJobOutDTO(id, format, status, rowCount, createdAt, finishedAt);
+        }
+    }
+}
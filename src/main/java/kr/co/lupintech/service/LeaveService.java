@@ -2,15 +2,17 @@ package kr.co.lupintech.service;
 
 import kr.co.lupintech.core.annotation.MyErrorLog;
 import kr.co.lupintech.core.annotation.MyLog;
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.cache.LeaveCalendarCache;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
+import kr.co.lupintech.core.event.AlarmEvent;
 import kr.co.lupintech.core.factory.AlarmFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import kr.co.lupintech.core.exception.Exception400;
@@ -26,39 +28,54 @@ import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRepository;
-import kr.co.lupintech.model.user.UserRole;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class LeaveService {
+    private static final int EXCEL_ROW_WINDOW = 100;
+    private static final String[] EXCEL_HEADERS = {"ID", "User ID", "User Name", "Type", "Start Date", "End Date", "Using Days", "Status"};
+
     private final UserRepository userRepository;
     private final LeaveRepository leaveRepository;
     private final AlarmRepository alarmRepository;
 
     private final DateService dateService;
-    private final SseService sseService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final LeaveCalendarCache leaveCalendarCache;
+    private final AlarmCounter alarmCounter;
+    private final UserSnapshotCache userSnapshotCache;
+
+    private final EntityManager entityManager;
 
     @Transactional
     public LeaveResponse.ApplyOutDTO 연차당직신청하기(LeaveRequest.ApplyInDTO applyInDTO, Long userId) {
 
-        // 1. 유저 존재 확인
-        User userPS = userRepository.findById(userId).orElseThrow(
-                () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
-        );
-        // 2. 당직인 경우
+        // 1. 당직인 경우 (사원 정보는 읽기만 하므로 스냅샷으로 확인하고 저장에는 참조만 쓴다)
         if(applyInDTO.getType().equals(LeaveType.DUTY)){
+            UserSnapshotCache.Snapshot userSnapshot = userSnapshotCache.get(userId).orElseThrow(
+                    () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
+            );
+            User userRef = userRepository.getReferenceById(userId);
+
             if(!applyInDTO.getStartDate().equals(applyInDTO.getEndDate())){
                 throw new Exception400("startDate, endDate", "startDate와 endDate가 같아야 합니다.");
             }
@@ -78,29 +95,24 @@ public class LeaveService {
                 throw new Exception400("startDate, endDate", "중복된 당직 신청입니다.");
 
             // 1) 당직 등록
-            Leave leavePS = leaveRepository.save(applyInDTO.toEntity(userPS, 0));
+            Leave leavePS = leaveRepository.save(applyInDTO.toEntity(userRef, 0));
+            leaveCalendarCache.evict(leavePS.getStartDate(), leavePS.getEndDate());
 
             // 2) 알람 등록
-            Alarm alarm = AlarmFactory.newAlarm(userPS, leavePS);
+            Alarm alarm = AlarmFactory.newAlarm(userRef, leavePS);
             Alarm alarmPS = alarmRepository.save(alarm);
+            alarmCounter.created(alarmPS);
 
-            // 3) 관리자들에게 실시간 알람 전송 관리자를 향한 알람저장은 안함(알람은 신청자의 정보만 저장한다, 결재자의 정보는 없다).
+            // 3) 커밋 후 관리자들에게 실시간 알람 전송. 관리자를 향한 알람저장은 안함(알람은 신청자의 정보만 저장한다, 결재자의 정보는 없다).
             //    관리자는 모든 사원의 신청대기 상태의 알람을 불러온다.
-            Set<UserRole> adminAndMasterRoles = new HashSet<>(Arrays.asList(UserRole.ROLE_ADMIN, UserRole.ROLE_MASTER));
-            List<User> managerList = userRepository.findByRoles(adminAndMasterRoles);
-            for (User manager : managerList) {
+            applicationEventPublisher.publishEvent(AlarmEvent.toManagers(new AlarmResponse.AlarmOutDTO(alarmPS, userSnapshot.getUsername())));
 
-                try {
-                    sseService.sendToUser(manager.getId(), "alarm", new AlarmResponse.AlarmOutDTO(alarmPS));
-                    log.info("realtime alarm send to {}: {}, {}, {}", manager.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-                }
-                catch (Exception e) {
-                    log.error("realtime alram failed to {} : {}, {}, {}", manager.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-                }
-            }
-
-            return new LeaveResponse.ApplyOutDTO(leavePS, userPS);
+            return new LeaveResponse.ApplyOutDTO(leavePS, userSnapshot.getRemainDays());
         }
+        // 2. 유저 존재 확인 (연차는 남은 연차를 바꾸므로 엔티티를 읽는다)
+        User userPS = userRepository.findById(userId).orElseThrow(
+                () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
+        );
         // 3. 연차인 경우
         // 1) 사용할 연차 일수 계산하기: 평일만 계산 + 공휴일 계산 by 공공 API
         Integer usingDays = -1;
@@ -136,28 +148,20 @@ public class LeaveService {
 
         // 3) 사용자의 남은 연차 일수 업데이트
         userPS.useAnnualLeave(usingDays);
+        userSnapshotCache.evict(userId);
 
         // 4) 연차 등록
         Leave leavePS = leaveRepository.save(applyInDTO.toEntity(userPS, usingDays));
+        leaveCalendarCache.evict(leavePS.getStartDate(), leavePS.getEndDate());
 
         // 5) 알람 등록
         Alarm alarm = AlarmFactory.newAlarm(userPS, leavePS);
         Alarm alarmPS = alarmRepository.save(alarm);
+        alarmCounter.created(alarmPS);
 
-        // 5) 관리자들에게 실시간 알람 전송. 관리자를 향한 알람저장은 안함(알람은 신청자의 정보만 저장한다, 결재자의 정보는 없다).
+        // 5) 커밋 후 관리자들에게 실시간 알람 전송. 관리자를 향한 알람저장은 안함(알람은 신청자의 정보만 저장한다, 결재자의 정보는 없다).
         // 관리자는 모든 사원의 신청대기 상태의 알람을 불러온다.
-        Set<UserRole> adminAndMasterRoles = new HashSet<>(Arrays.asList(UserRole.ROLE_ADMIN, UserRole.ROLE_MASTER));
-        List<User> managerList = userRepository.findByRoles(adminAndMasterRoles);
-        for (User manager : managerList) {
-
-            try {
-                sseService.sendToUser(manager.getId(), "alarm", new AlarmResponse.AlarmOutDTO(alarmPS));
-                log.info("realtime alarm send to {}: {}, {}, {}", manager.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-            }
-            catch (Exception e) {
-                log.error("realtime alram failed to {} : {}, {}, {}", manager.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-            }
-        }
+        applicationEventPublisher.publishEvent(AlarmEvent.toManagers(new AlarmResponse.AlarmOutDTO(alarmPS)));
 
         return new LeaveResponse.ApplyOutDTO(leavePS, userPS);
     }
@@ -167,9 +171,19 @@ public class LeaveService {
         Leave leavePS = leaveRepository.findById(id).orElseThrow(
                 () -> new Exception500("해당 연차/당직 신청 정보가 DB에 존재하지 않음")
         );
-        User userPS = userRepository.findById(userId).orElseThrow(
-                () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
-        );
+        // 연차는 남은 연차를 되돌리므로 엔티티를, 당직은 남은 연차를 보여주기만 하므로 스냅샷을 읽는다
+        boolean isAnnual = leavePS.getType().equals(LeaveType.ANNUAL);
+        User userPS = null;
+        UserSnapshotCache.Snapshot userSnapshot = null;
+        if (isAnnual) {
+            userPS = userRepository.findById(userId).orElseThrow(
+                    () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
+            );
+        } else {
+            userSnapshot = userSnapshotCache.get(userId).orElseThrow(
+                    () -> new Exception500("로그인 된 유저가 DB에 존재하지 않음")
+            );
+        }
 
         if(leavePS.getStatus().equals(LeaveStatus.APPROVAL)){
             throw new Exception400("id", "이미 승인된 신청입니다.");
@@ -178,13 +192,16 @@ public class LeaveService {
             throw new Exception400("id", "이미 거절된 신청입니다.");
         }
 
-        if(leavePS.getType().equals(LeaveType.ANNUAL)) {
+        if(isAnnual) {
             userPS.increaseRemainDays(leavePS.getUsingDays());
+            userSnapshotCache.evict(userId);
         }
 
         leaveRepository.delete(leavePS);
+        leaveCalendarCache.evict(leavePS.getStartDate(), leavePS.getEndDate());
+        alarmCounter.waitingResolved(1); // 대기 상태만 취소할 수 있다
 
-        return new LeaveResponse.CancelOutDTO(userPS);
+        return isAnnual ? new LeaveResponse.CancelOutDTO(userPS) : new LeaveResponse.CancelOutDTO(userSnapshot.getRemainDays());
     }
 
     @Transactional
@@ -210,23 +227,24 @@ public class LeaveService {
             leavePS.setStatus(LeaveStatus.REJECTION);
             isReject = true;
         }
+        alarmRepository.updateLeaveStatus(leavePS.getId(), leavePS.getStatus()); // 새 알람을 만들기 전에
+        leaveCalendarCache.evict(leavePS.getStartDate(), leavePS.getEndDate());
 
         Alarm alarm = null;
         if (leavePS.getType().equals(LeaveType.ANNUAL)) {
-            if (isReject) userPS.increaseRemainDays(leavePS.getUsingDays());
+            if (isReject) {
+                userPS.increaseRemainDays(leavePS.getUsingDays());
+                userSnapshotCache.evict(userPS.getId());
+            }
             alarm = AlarmFactory.newAlarm(userPS, leavePS);
         } else {
             alarm = AlarmFactory.newAlarm(userPS, leavePS);
         }
 
         Alarm alarmPS = alarmRepository.save(alarm);
-        try {
-            sseService.sendToUser(userPS.getId(), "alarm", new AlarmResponse.AlarmOutDTO(alarmPS));
-            log.info("realtime alarm send to {}: {}, {}, {}", userPS.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-        }
-        catch (Exception e) {
-            log.error("realtime alram failed to {} : {}, {}, {}", userPS.getUsername(), leavePS.getType(), leavePS.getStatus(), leavePS.getStartDate());
-        }
+        alarmCounter.waitingResolved(1);
+        alarmCounter.created(alarmPS);
+        applicationEventPublisher.publishEvent(AlarmEvent.toUser(userPS.getId(), new AlarmResponse.AlarmOutDTO(alarmPS))); // 커밋 후 신청자에게 실시간 알람
 
         return new LeaveResponse.DecideOutDTO(userPS);
     }
@@ -246,38 +264,46 @@ public class LeaveService {
         return infoOutDTOList;
     }
 
-    @Transactional(readOnly = true)
-    //모든 유저의 특정 월 정보
+    //모든 유저의 특정 월 정보 (이전 달, 해당 달, 다음 달)
+    // 달마다 findOverlapping 이 각자 트랜잭션으로 읽도록 메서드 전체를 트랜잭션으로 묶지 않는다.
     public List<LeaveResponse.InfoOutDTO> 연차당직정보가져오기세달치(String month) {
+        YearMonth currentMonth = 월형식검증(month);
 
-        // '연도-월' 형식 검증
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-        try {
-            TemporalAccessor parsedMonth = formatter.parse(month);
-        } catch (DateTimeParseException e) {
-            throw new Exception400("InvalidFormat", "날짜 형식은 yyyy-MM 이어야 함");
+        // 달별 캐시에서 모아서, 여러 달에 걸친 연차/당직은 한 번만
+        Map<Long, LeaveResponse.InfoOutDTO> infoOutDTOMap = new TreeMap<>();
+        for (YearMonth bucket : 세달(currentMonth)) {
+            leaveCalendarCache.get(bucket, this::월별연차당직정보가져오기)
+                    .forEach(infoOutDTO -> infoOutDTOMap.putIfAbsent(infoOutDTO.getId(), infoOutDTO));
         }
 
-        month += "-01"; // '연도-월' 에 '-일' 붙이기
+        return new ArrayList<>(infoOutDTOMap.values());
+    }
 
-        LocalDate currentDate = LocalDate.parse(month);
-        LocalDate startDate = currentDate.minusMonths(1).withDayOfMonth(1); // 이전 달의 첫날
-        LocalDate endDate = currentDate.plusMonths(1).withDayOfMonth(currentDate.getMonth().plus(1).length(currentDate.isLeapYear())); // 다음 달의 마지막 날
+    public String 연차당직세달치ETag(String month) {
+        return leaveCalendarCache.eTag(세달(월형식검증(month)));
+    }
 
-        // startDate와 endDate 사이에 있는 모든 연차/당직 정보 가져오기
-        List<Leave> leaves = leaveRepository.findAll()
-                .stream()
-                .filter(leave -> (leave.getStartDate().compareTo(startDate) >= 0 && leave.getStartDate().compareTo(endDate) <= 0)
-                        || (leave.getEndDate().compareTo(startDate) >= 0 && leave.getEndDate().compareTo(endDate) <= 0)
-                        || (leave.getStartDate().compareTo(startDate) <= 0 && leave.getEndDate().compareTo(endDate) >= 0))
-                .collect(Collectors.toList());
+    private List<LeaveResponse.InfoOutDTO> 월별연차당직정보가져오기(YearMonth month) {
+        // 해당 달에 걸쳐 있는 모든 연차/당직 정보 가져오기 (user join fetch)
+        List<Leave> leaves = leaveRepository.findOverlapping(month.atDay(1), month.atEndOfMonth());
 
         // 반환할 DTO 리스트 생성
-        List<LeaveResponse.InfoOutDTO> infoOutDTOList = leaves.stream()
+        return leaves.stream()
                 .map(leave -> new LeaveResponse.InfoOutDTO(leave, leave.getUser()))
                 .collect(Collectors.toList());
+    }
 
-        return infoOutDTOList;
+    private YearMonth 월형식검증(String month) {
+        // '연도-월' 형식 검증
+        try {
+            return YearMonth.parse(month, DateTimeFormatter.ofPattern("yyyy-MM"));
+        } catch (DateTimeParseException e) {
+            throw new Exception400("InvalidFormat", "날짜 형식은 yyyy-MM 이어야 함");
+        }
+    }
+
+    private YearMonth[] 세달(YearMonth month) {
+        return new YearMonth[]{month.minusMonths(1), month, month.plusMonths(1)};
     }
 
     @Transactional(readOnly = true)
@@ -307,44 +333,89 @@ public class LeaveService {
 
     @MyLog
     @MyErrorLog
-    @Transactional
-    public Resource 엑셀다운로드() throws IOException {
-        List<Leave> leaves = leaveRepository.findAll(); // 사용자가 100명 이상이 되면 join fetch 필요.
-
-        // 액셀 파일 생성
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Leaves");
-
-        // 헤더 쓰기
-        Row headerRow = sheet.createRow(0);
-        headerRow.createCell(0).setCellValue("ID");
-        headerRow.createCell(1).setCellValue("User ID");
-        headerRow.createCell(2).setCellValue("User Name");
-        headerRow.createCell(3).setCellValue("Type");
-        headerRow.createCell(4).setCellValue("Start Date");
-        headerRow.createCell(5).setCellValue("End Date");
-        headerRow.createCell(6).setCellValue("Using Days");
-        headerRow.createCell(7).setCellValue("Status");
-
-        int rowNum = 1;
-        for (Leave leave : leaves) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(leave.getId());
-            row.createCell(1).setCellValue(leave.getUser().getId());
-            row.createCell(2).setCellValue(leave.getUser().getUsername());
-            row.createCell(3).setCellValue(leave.getType().toString());
-            row.createCell(4).setCellValue(leave.getStartDate().toString());
-            row.createCell(5).setCellValue(leave.getEndDate().toString());
-            row.createCell(6).setCellValue(leave.getUsingDays());
-            row.createCell(7).setCellValue(leave.getStatus().toString());
+    @Transactional(readOnly = true)
+    public void 엑셀다운로드(LeaveRequest.ExportInDTO exportInDTO, OutputStream outputStream) throws IOException {
+        엑셀다운로드(exportInDTO, outputStream, rowCount -> {});
+    }
+
+    // 조건에 맞는 연차/당직을 user와 join해서 커서로 읽으며 바로 outputStream에 쓴다. 메모리에는 EXCEL_ROW_WINDOW 행만 유지
+    @Transactional(readOnly = true)
+    public int 엑셀다운로드(LeaveRequest.ExportInDTO exportInDTO, OutputStream outputStream, IntConsumer progress) throws IOException {
+        exportInDTO.validate();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXCEL_ROW_WINDOW);
+        int rowNum = 0;
+        try (Stream<Leave> leaves = leaveRepository.streamForExport(exportInDTO.getStartDate(), exportInDTO.getEndDate(),
+                exportInDTO.getStatus(), exportInDTO.getType())) {
+            Sheet sheet = workbook.createSheet("Leaves");
+
+            // 헤더 쓰기
+            Row headerRow = sheet.createRow(rowNum++);
+            for (int i = 0; i < EXCEL_HEADERS.length; i++) {
+                headerRow.createCell(i).setCellValue(EXCEL_HEADERS[i]);
+            }
+
+            Iterator<Leave> iterator = leaves.iterator();
+            while (iterator.hasNext()) {
+                Leave leave = iterator.next();
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(leave.getId());
+                row.createCell(1).setCellValue(leave.getUser().getId());
+                row.createCell(2).setCellValue(leave.getUser().getUsername());
+                row.createCell(3).setCellValue(leave.getType().toString());
+                row.createCell(4).setCellValue(leave.getStartDate().toString());
+                row.createCell(5).setCellValue(leave.getEndDate().toString());
+                row.createCell(6).setCellValue(leave.getUsingDays());
+                row.createCell(7).setCellValue(leave.getStatus().toString());
+                entityManager.detach(leave); // 영속성 컨텍스트가 커지지 않도록
+
+                if (rowNum % EXCEL_ROW_WINDOW == 0) progress.accept(rowNum - 1);
+            }
+
+            workbook.write(outputStream); // 임시 파일 없이 응답 스트림에 바로 쓰기
+        } finally {
+            workbook.dispose(); // SXSSF가 만든 임시 파일 삭제
+            workbook.close();
         }
+        progress.accept(rowNum - 1);
+        return rowNum - 1;
+    }
 
-        // 액셀 파일을 임시 디렉토리에 저장
-        File tempFile = File.createTempFile("temp", ".xlsx"); //임시 디렉토리에 확장자가 ".xlsx"인 임시 파일을 생성 - 임시 파일은 애플리케이션 실행 중에만 유효하고 임시 파일이 더 이상 필요하지 않을 때 삭제
-        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-            workbook.write(fos); // workbook 객체를 사용하여 액셀 파일 데이터를 FileOutputStream으로 출력하여 tempFile에 작성
+    // 엑셀과 같은 조건, 같은 열. 워크북 없이 한 줄씩 바로 쓴다
+    @Transactional(readOnly = true)
+    public int CSV다운로드(LeaveRequest.ExportInDTO exportInDTO, OutputStream outputStream, IntConsumer progress) throws IOException {
+        exportInDTO.validate();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write('\uFEFF'); // 엑셀에서 열 때 한글이 깨지지 않도록 BOM
+        writer.write(String.join(",", EXCEL_HEADERS));
+        writer.write("\r\n");
+
+        int rowCount = 0;
+        try (Stream<Leave> leaves = leaveRepository.streamForExport(exportInDTO.getStartDate(), exportInDTO.getEndDate(),
+                exportInDTO.getStatus(), exportInDTO.getType())) {
+            Iterator<Leave> iterator = leaves.iterator();
+            while (iterator.hasNext()) {
+                Leave leave = iterator.next();
+                writer.write(leave.getId() + "," + leave.getUser().getId() + "," + csv(leave.getUser().getUsername()) + ","
+                        + leave.getType() + "," + leave.getStartDate() + "," + leave.getEndDate() + ","
+                        + leave.getUsingDays() + "," + leave.getStatus());
+                writer.write("\r\n");
+                entityManager.detach(leave);
+
+                if (++rowCount % EXCEL_ROW_WINDOW == 0) progress.accept(rowCount);
+            }
         }
+        writer.flush();
+        progress.accept(rowCount);
+        return rowCount;
+    }
 
-        return new FileSystemResource(tempFile); // 생성된 FileSystemResource 객체는 액셀 파일을 나타내는 리소스
+    private String csv(String value) {
+        if (value == null) return "";
+        // 엑셀이 수식으로 실행하지 않도록 =, +, -, @, 탭, CR 로 시작하면 ' 를 앞에 붙인다 (CSV 수식 주입 방지)
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) value = "'" + value;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 }
@@ -0,0 +1,141 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.exception.Exception429;
+import kr.co.lupintech.core.exception.Exception500;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt 해싱/검증(로그인)을 전용 스레드 풀에서 돌린다. 요청 스레드는 결과를 기다리기만 한다.
+ * 동시에 도는 해싱 수를 workers(기본 코어 수)로 묶어서, 로그인이 몰려도 다른 API 가 CPU 를 뺏기지 않는다.
+ * 대기열이 가득 차면 바로 거절하고, 대기열 길이와 대기 시간을 지표로 남긴다.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    @Value("${password.hashing.timeout-ms:10000}")
+    private long timeoutMs = 10000;
+
+    // 지표
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder(); // 대기열에서 기다린 시간 합
+    private final LongAdder workNanos = new LongAdder(); // 해싱에 쓴 시간 합
+    private final LongAdder finishedCount = new LongAdder();
+
+    public PasswordHashingService(BCryptPasswordEncoder passwordEncoder,
+                                  @Value("${password.hashing.workers:0}") int workers,
+                                  @Value("${password.hashing.queue-size:200}") int queueSize) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return call(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // 해싱이 들어가는 작업(로그인 인증 등)을 풀에서 실행. 작업이 던진 RuntimeException 은 그대로 다시 던진다
+    public <T> T call(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - queuedAt);
+                try {
+                    return task.call();
+                } finally {
+                    workNanos.add(System.nanoTime() - startedAt);
+                    finishedCount.increment();
+                }
+            });
+            submittedCount.increment();
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            log.warn("password hashing rejected, queue: {}", executor.getQueue().size());
+            throw new Exception429("로그인 요청이 많습니다. 잠시 후 다시 시도해주세요.", retryAfterSeconds());
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new Exception500("비밀번호 처리 실패 : " + cause.getMessage());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new Exception500("비밀번호 처리 시간 초과");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new Exception500("비밀번호 처리 중단");
+        }
+    }
+
+    // 지금 대기열이 다 빠지는 데 걸릴 시간(평균 해싱 시간 기준). 최소 1초
+    long retryAfterSeconds() {
+        double drainMillis = executor.getQueue().size() * getAverageWorkMillis() / executor.getCorePoolSize();
+        return Math.max(1, (long) Math.ceil(drainMillis / 1000));
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = finishedCount.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getAverageWorkMillis() {
+        long count = finishedCount.sum();
+        return count == 0 ? 0 : workNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,16 +1,19 @@
 package kr.co.lupintech.service;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.SignatureVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import kr.co.lupintech.model.user.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import kr.co.lupintech.core.auth.jwt.MyJwtProvider;
+import kr.co.lupintech.core.cache.RefreshTokenCache;
+import kr.co.lupintech.core.cache.UserDirectory;
 import kr.co.lupintech.core.exception.Exception400;
 import kr.co.lupintech.core.exception.Exception401;
 import kr.co.lupintech.model.token.RefreshTokenEntity;
@@ -20,9 +23,14 @@ import kr.co.lupintech.model.user.User;
 
 import javax.servlet.http.HttpServletRequest;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-
-import static kr.co.lupintech.core.auth.jwt.MyJwtProvider.REFRESH_SECRET;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -31,10 +39,23 @@ public class RefreshService {
 
     private final TokenRepository tokenRepository;
 
-    private final UserRepository userRepository;
+    private final UserDirectory userDirectory;
 
-    @Transactional
-    public String 액세스재발급(HttpServletRequest request) {
+    private final RefreshTokenCache refreshTokenCache;
+
+    private static final Set<TokenStatus> PURGE_STATUSES = Collections.unmodifiableSet(EnumSet.of(TokenStatus.EXPIRED, TokenStatus.REVOKED));
+
+    @Value("${refresh.purge.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    private final LongAdder purgedCount = new LongAdder();
+    private final LongAdder reuseDetectedCount = new LongAdder();
+
+    // 리프레시 토큰을 교체(rotation)하면서 액세스 토큰 재발급. 캐시에 있으면 토큰을 DB 에서 읽지 않는다.
+    // 권한/재직 여부는 UserDirectory 에서 본다 (다른 서버에서 바뀐 권한/퇴사도 CacheInvalidationBus 로 반영되므로 user_tb 를 읽지 않는다)
+    // 이미 교체된 토큰이 다시 오면 탈취로 보고 같은 family 를 모두 폐기한다 (폐기는 401 을 던져도 커밋)
+    @Transactional(noRollbackFor = Exception401.class)
+    public Pair<String, String> 액세스재발급(HttpServletRequest request) {
 
         String prefixJwt = request.getHeader(MyJwtProvider.HEADER_REFRESH);
         String refreshjwt = prefixJwt.replace(MyJwtProvider.TOKEN_PREFIX, "");
@@ -42,7 +63,7 @@ public class RefreshService {
         DecodedJWT decodedJWT = null;
 
         try {
-            decodedJWT = JWT.require(Algorithm.HMAC512(REFRESH_SECRET)).build().verify(refreshjwt);
+            decodedJWT = MyJwtProvider.verifyRefresh(refreshjwt);
         } catch (SignatureVerificationException sve) {
             log.error("리프레시 토큰 검증 실패");
             throw new Exception401("리프레시 토큰 검증 실패");
@@ -52,17 +73,60 @@ public class RefreshService {
         }
 
         String uuid = decodedJWT.getClaim("uuid").asString();
-        // UUID로 리프레시 토큰 조회 및 검증
-        RefreshTokenEntity refreshTokenEntity = tokenRepository.findByUuidAndStatus(uuid, TokenStatus.VALID)
-                .orElseThrow(() -> new Exception401("유효한 리프레시 토큰이 존재하지 않습니다."));
+        RefreshTokenCache.Entry entry = refreshTokenCache.get(uuid);
+        if (entry == null) {
+            entry = 리프레시토큰조회(uuid);
+        }
 
-        User userPS = userRepository.findById(refreshTokenEntity.getUser().getId())
-                .orElseThrow(() -> new Exception401("해당하는 사용자가 없습니다."));
+        // VALID 일 때만 ROTATED 로 바꾼다. 0 이면 동시에 같은 토큰으로 재발급한 것 (재사용)
+        refreshTokenCache.evict(uuid);
+        if (tokenRepository.updateStatus(uuid, TokenStatus.VALID, TokenStatus.ROTATED) == 0) {
+            토큰family폐기(entry.getFamilyId());
+            throw new Exception401("이미 사용된 리프레시 토큰입니다.");
+        }
 
-        // 액세스 토큰 재발급
+        // 디렉터리에는 재직자만 있다. 없으면 퇴사했거나 없는 사용자
+        UserDirectory.Entry userEntry = userDirectory.get(entry.getUserId())
+                .orElseThrow(() -> new Exception401("퇴사했거나 존재하지 않는 사용자입니다."));
+        User userPS = User.builder()
+                .id(userEntry.getId())
+                .username(userEntry.getUsername())
+                .role(userEntry.getRole())
+                .status(true)
+                .build();
+
+        // 같은 family 로 새 리프레시 토큰 발급
         String accessjwt = MyJwtProvider.createAccess(userPS);
+        Pair<String, RefreshTokenEntity> rtInfo = MyJwtProvider.createRefresh(userPS, entry.getFamilyId());
+        RefreshTokenEntity refreshToken = rtInfo.getSecond();
+        tokenRepository.save(refreshToken);
+        refreshTokenCache.put(refreshToken.getUuid(),
+                new RefreshTokenCache.Entry(entry.getUserId(), entry.getFamilyId(), refreshToken.getExpiresAt()));
+
+        return Pair.of(accessjwt, rtInfo.getFirst());
+    }
 
-        return accessjwt;
+    // 캐시에 없을 때 토큰을 DB 에서 읽는다
+    private RefreshTokenCache.Entry 리프레시토큰조회(String uuid) {
+        RefreshTokenEntity refreshTokenEntity = tokenRepository.findByUuid(uuid)
+                .orElseThrow(() -> new Exception401("유효한 리프레시 토큰이 존재하지 않습니다."));
+        String familyId = refreshTokenEntity.getFamilyId() == null ? refreshTokenEntity.getUuid() : refreshTokenEntity.getFamilyId();
+
+        if (refreshTokenEntity.getStatus() == TokenStatus.ROTATED) {
+            토큰family폐기(familyId);
+            throw new Exception401("이미 사용된 리프레시 토큰입니다.");
+        }
+        if (refreshTokenEntity.getStatus() != TokenStatus.VALID) {
+            throw new Exception401("유효한 리프레시 토큰이 존재하지 않습니다.");
+        }
+        return new RefreshTokenCache.Entry(refreshTokenEntity.getUser().getId(), familyId, refreshTokenEntity.getExpiresAt());
+    }
+
+    private void 토큰family폐기(String familyId) {
+        int count = tokenRepository.updateStatusByFamilyId(familyId, TokenStatus.VALID, TokenStatus.REVOKED);
+        refreshTokenCache.evictFamily(familyId);
+        reuseDetectedCount.increment();
+        log.warn("리프레시 토큰 재사용 감지, family {} 폐기: {}", familyId, count);
     }
 
     //어차피 로그아웃이니까 401은 던지지 말자
@@ -75,7 +139,7 @@ public class RefreshService {
         DecodedJWT decodedJWT = null;
 
         try {
-            decodedJWT = JWT.require(Algorithm.HMAC512(REFRESH_SECRET)).build().verify(refreshjwt);
+            decodedJWT = MyJwtProvider.verifyRefresh(refreshjwt);
         } catch (SignatureVerificationException sve) {
             log.error("리프레시 토큰 검증 실패");
         } catch (TokenExpiredException tee) {
@@ -102,17 +166,42 @@ public class RefreshService {
                 });
 
         RefreshTokenPS.setStatus(TokenStatus.REVOKED);
+        refreshTokenCache.evict(uuid);
 
         return true;
     }
 
-    @Transactional
-    public void 만료리프레쉬삭제()
+    // 만료됐거나(exp 지남) 폐기/만료 처리된 토큰을 chunkSize 개씩 지운다. 한 번의 delete 가 각자 짧은 트랜잭션
+    // expiresAt 이 없는 예전 토큰은 발급 후 리프레시 토큰 유효기간이 지났으면 지운다
+    public int 만료리프레쉬삭제()
     {
-        List<RefreshTokenEntity> expiredTokens = tokenRepository.findByStatus(TokenStatus.EXPIRED);
-        List<RefreshTokenEntity> revokedTokens = tokenRepository.findByStatus(TokenStatus.REVOKED);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime issuedCutoff = now.minus(MyJwtProvider.EXP_REFRESH, ChronoUnit.MILLIS);
+        int purged = purge(pageable -> tokenRepository.findIdsExpiredBefore(now, pageable));
+        purged += purge(pageable -> tokenRepository.findIdsWithoutExpiryIssuedBefore(issuedCutoff, pageable));
+        purged += purge(pageable -> tokenRepository.findIdsByStatusIn(PURGE_STATUSES, pageable));
+
+        purgedCount.add(purged);
+        log.info("refresh tokens purged: {}", purged);
+        return purged;
+    }
+
+    public long getPurgedCount() {
+        return purgedCount.sum();
+    }
+
+    public long getReuseDetectedCount() {
+        return reuseDetectedCount.sum();
+    }
 
-        tokenRepository.deleteInBatch(expiredTokens);
-        tokenRepository.deleteInBatch(revokedTokens);
+    private int purge(Function<Pageable, List<Long>> idFinder) {
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = idFinder.apply(PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) break;
+            purged += tokenRepository.deleteByIds(ids);
+        } while (ids.size() == chunkSize);
+        return purged;
     }
 }
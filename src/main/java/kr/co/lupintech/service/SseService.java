@@ -1,50 +1,181 @@
 package kr.co.lupintech.service;
 
-import kr.co.lupintech.core.exception.Exception400;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.co.lupintech.core.event.SseReplaySource;
+import kr.co.lupintech.core.exception.Exception500;
 import kr.co.lupintech.dto.alarm.AlarmResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
+import javax.annotation.PreDestroy;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * 유저 한 명이 여러 탭(연결)을 가질 수 있는 SSE 허브.
+ * 이벤트는 한 번만 직렬화하고, 연결마다 크기가 제한된 큐에 넣은 뒤 전송 전용 스레드가 보낸다.
+ * 큐가 가득 찬(느린) 연결은 끊는다. 호출한 스레드는 네트워크 쓰기를 기다리지 않는다.
+ * 모든 이벤트에는 증가하는 id가 붙고, 알람은 유저별 링 버퍼에 남겨 두었다가 재연결 시 Last-Event-ID 이후만 다시 보낸다.
+ * 서버 여러 대(sse.bus=outbox)면 id 는 sse_outbox_tb 행 id 이고, 다시 보내기도 버퍼 대신 그 테이블에서 한다 (SseReplaySource).
+ * 주기적으로 쉬고 있는 연결의 큐에 heartbeat 주석을 넣어 프록시가 끊지 않게 하고, 보내다 실패한 죽은 연결은 미리 정리한다.
+ */
 @Service
 @Slf4j
 public class SseService {
 
-    private final Map<Long, SseEmitter> emitters = new ConcurrentHashMap<>();
+    private static final int DRAIN_BATCH = 32; // 한 연결이 전송 스레드를 오래 잡지 않도록
+    private static final Set<String> REPLAYABLE_EVENTS = Collections.singleton("alarm"); // 내보내기 진행률 등은 다시 보내지 않는다
+    private static final long NO_EVENT_ID = 0; // id 를 붙이지 않으면 클라이언트의 Last-Event-ID 가 그대로 남는다
+    private static final PreparedEvent HEARTBEAT = new PreparedEvent(NO_EVENT_ID, null, null); // ":ping" 주석. 클라이언트는 주석을 무시한다
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor sender;
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicLong connectionSeq = new AtomicLong();
+    private final Map<Long, ReplayBuffer> replayBuffers = new ConcurrentHashMap<>();
+    // 재시작 후에도 예전 id보다 커지도록 시작값을 현재 시각(ms)으로
+    private final AtomicLong eventSeq = new AtomicLong(System.currentTimeMillis());
+    private final long startEventId = eventSeq.get();
+    private volatile SseReplaySource replaySource; // outbox 일 때만
+
+    @Value("${sse.timeout-ms:1200000}")
+    private long timeout = 20 * 60 * 1000L; // 20분
+
+    @Value("${sse.replay-size:50}")
+    private int replaySize = 50;
+
+    @Value("${sse.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    @Value("${sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser = 5;
+
+    // 지표
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder replayedCount = new LongAdder();
+    private final LongAdder connectCount = new LongAdder();
+    private final LongAdder disconnectCount = new LongAdder();
+    private final LongAdder reapedCount = new LongAdder(); // heartbeat 로 발견한 죽은 연결
+    private final LongAdder heartbeatCount = new LongAdder();
+
+    public SseService(ObjectMapper objectMapper, @Value("${sse.sender-threads:2}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), // 연결마다 최대 한 개의 작업만 들어간다
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
     public SseEmitter add(Long userId) {
+        return add(userId, null);
+    }
 
-        SseEmitter emitter = new SseEmitter(20 * 60 * 1000L);//20분
+    // lastEventId: 클라이언트가 마지막으로 받은 이벤트 id (Last-Event-ID 헤더). 그 뒤의 알람만 다시 보낸다
+    public SseEmitter add(Long userId, Long lastEventId) {
 
-        emitters.put(userId, emitter);
-        emitter.onCompletion(() -> {
-            emitters.remove(userId);
-        });
+        SseEmitter emitter = new SseEmitter(timeout);
+        Connection connection = new Connection(connectionSeq.incrementAndGet(), userId, emitter, queueCapacity,
+                lastEventId == null ? NO_EVENT_ID : lastEventId);
+
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onError(e -> unregister(connection));
         emitter.onTimeout(() -> {
             emitter.complete();
         });
 
+        // 등록과 다시 보내기를 같은 잠금 안에서 해야 그 사이에 온 알람이 빠지거나 두 번 가지 않는다
+        SseReplaySource source = replaySource;
+        if (source != null && lastEventId != null) {
+            source.replay(userId, lastEventId, REPLAYABLE_EVENTS, () -> register(connection),
+                    (eventId, eventName, json) -> replay(connection, new PreparedEvent(eventId, eventName, json)));
+        } else {
+            ReplayBuffer buffer = replayBuffer(userId);
+            synchronized (buffer) {
+                register(connection);
+                if (lastEventId != null) replay(connection, buffer, lastEventId);
+            }
+        }
+        connectCount.increment();
+        Set<Connection> userConnections = connections.getOrDefault(userId, Collections.emptySet());
+
+        // 탭을 너무 많이 열면 가장 오래된 연결부터 끊는다
+        if (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.stream()
+                    .min(Comparator.comparingLong(c -> c.id))
+                    .filter(oldest -> oldest != connection)
+                    .ifPresent(oldest -> close(oldest, "too many connections"));
+        }
+
         return emitter;
     }
 
     public void sendToUser(Long userId, String eventName, Object data) {
-        SseEmitter emitter = emitters.get(userId);
-        if (emitter != null) {
-            try {
-                emitter.send(SseEmitter.event()
-                        .name(eventName)
-                        .data(data));
-            } catch (IOException e) {
-                throw new Exception400("id", "연결되지 않은 유저입니다.");
+        sendToUsers(Collections.singletonList(userId), eventName, data);
+    }
+
+    // 여러 유저에게 같은 이벤트: 직렬화는 한 번
+    public void sendToUsers(Collection<Long> userIds, String eventName, Object data) {
+        if (replaySource != null) {
+            // 서버 여러 대인데 sse_outbox_tb 를 거치지 않은 이벤트(/auth/msg): 이 id 로 재연결하면 행 id 와 어긋난다
+            sendToUsers(userIds, eventName, data, NO_EVENT_ID);
+            return;
+        }
+        if (REPLAYABLE_EVENTS.contains(eventName)) {
+            // 연결이 끊긴 유저도 재연결 때 받을 수 있도록 버퍼에 남긴다
+            PreparedEvent event = prepare(eventName, data);
+            for (Long userId : userIds) {
+                ReplayBuffer buffer = replayBuffer(userId);
+                synchronized (buffer) {
+                    buffer.add(event);
+                    deliver(userId, event);
+                }
+            }
+            return;
+        }
+
+        PreparedEvent event = null;
+        for (Long userId : userIds) {
+            if (!connections.containsKey(userId)) continue;
+            if (event == null) event = prepare(eventName, data);
+            deliver(userId, event);
+        }
+    }
+
+    // 서버 여러 대(outbox): id 는 sse_outbox_tb 행 id. 다시 보내기는 그 테이블에서 하므로 버퍼에 남기지 않는다
+    public void sendToUsers(Collection<Long> userIds, String eventName, Object data, long eventId) {
+        PreparedEvent event = null;
+        for (Long userId : userIds) {
+            Set<Connection> userConnections = connections.get(userId);
+            if (userConnections == null) continue;
+            if (event == null) event = prepare(eventId, eventName, data);
+            for (Connection connection : userConnections) {
+                // 앞서 다른 서버에 붙어 있던 클라이언트가 이미 받은 이벤트
+                if (eventId != NO_EVENT_ID && eventId <= connection.lastEventId) continue;
+                enqueue(connection, event);
             }
         }
     }
 
+    public void setReplaySource(SseReplaySource replaySource) {
+        this.replaySource = replaySource;
+    }
+
     public void sendMessage(Long userId)
     {
         AlarmResponse.AlarmOutDTO alarmOutDTO = new AlarmResponse.AlarmOutDTO();
@@ -52,21 +183,289 @@ public class SseService {
         alarmOutDTO.setCreatedAt(LocalDateTime.now());
         sendToUser(userId, "alarm", alarmOutDTO);
     }
+
+    // 유저의 모든 연결 끊기
     public boolean remove(Long userId) {
-        SseEmitter emitter = emitters.get(userId);
-        if (emitter != null) {
-            emitter.complete();
-            emitters.remove(userId);
-            return true;
+        Set<Connection> userConnections = connections.remove(userId);
+        if (userConnections == null) {
+            return false;
         }
-        return false;
+        userConnections.forEach(connection -> close(connection, "removed"));
+        return true;
     }
 
     public void removeAll() {
-        emitters.values().forEach(emitter -> {
-            emitter.complete();
-        });
-        emitters.clear();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> close(connection, "shutdown")));
+        connections.clear();
         log.info("All SseEmitters removed");
     }
+
+    // 쉬고 있는 연결의 전송 큐에 heartbeat 를 넣는다. 보낼 것이 쌓인 연결은 전송 스레드가 곧 살아있는지 확인한다
+    // 실제 쓰기와 죽은 연결 정리는 전송 스레드가 한다. 스케줄러 스레드는 느린 클라이언트를 기다리지 않는다
+    public int heartbeat() {
+        int queued = 0;
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                if (connection.closed.get() || connection.scheduled.get() || !connection.queue.isEmpty()) continue;
+                enqueue(connection, HEARTBEAT);
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public int getConnectedUserCount() {
+        return connections.size();
+    }
+
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // 모든 연결 큐에 쌓여 아직 보내지 못한 이벤트 수
+    public int getQueueDepth() {
+        return connections.values().stream()
+                .flatMap(Set::stream)
+                .mapToInt(connection -> connection.queue.size())
+                .sum();
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.sum();
+    }
+
+    public long getConnectCount() {
+        return connectCount.sum();
+    }
+
+    public long getDisconnectCount() {
+        return disconnectCount.sum();
+    }
+
+    public long getReapedCount() {
+        return reapedCount.sum();
+    }
+
+    public long getHeartbeatCount() {
+        return heartbeatCount.sum();
+    }
+
+    public long getLastEventId() {
+        return eventSeq.get();
+    }
+
+    private void deliver(Long userId, PreparedEvent event) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) return;
+        for (Connection connection : userConnections) {
+            enqueue(connection, event);
+        }
+    }
+
+    private ReplayBuffer replayBuffer(Long userId) {
+        return replayBuffers.computeIfAbsent(userId, id -> new ReplayBuffer(replaySize));
+    }
+
+    private void register(Connection connection) {
+        connections.compute(connection.userId, (id, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+    }
+
+    private void replay(Connection connection, ReplayBuffer buffer, long lastEventId) {
+        if (buffer.isMissed(lastEventId) || lastEventId < startEventId) {
+            // 버퍼보다 오래 끊겨 있었거나 그 사이 서버가 재시작됐다: 알람 목록을 다시 받으라고 알린다
+            enqueue(connection, prepare("resync", "missed events"));
+        }
+        for (PreparedEvent event : buffer.after(lastEventId)) {
+            replay(connection, event);
+        }
+    }
+
+    private void replay(Connection connection, PreparedEvent event) {
+        enqueue(connection, event);
+        if (REPLAYABLE_EVENTS.contains(event.name)) replayedCount.increment();
+    }
+
+    private void enqueue(Connection connection, PreparedEvent event) {
+        if (connection.closed.get()) return;
+        if (!connection.queue.offer(event)) {
+            // 큐가 가득 찼다 = 받는 쪽이 못 따라온다
+            droppedCount.increment();
+            evictedCount.increment();
+            close(connection, "slow consumer");
+            return;
+        }
+        schedule(connection);
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(connection));
+            } catch (RejectedExecutionException e) {
+                connection.scheduled.set(false); // 종료 중
+            }
+        }
+    }
+
+    private void drain(Connection connection) {
+        PreparedEvent event = null;
+        try {
+            int count = 0;
+            while (count++ < DRAIN_BATCH && !connection.closed.get() && (event = connection.queue.poll()) != null) {
+                connection.emitter.send(event.toSseEvent());
+                if (event == HEARTBEAT) heartbeatCount.increment();
+                else sentCount.increment();
+            }
+        } catch (Exception e) { // IOException, 이미 완료된 emitter 등
+            log.debug("sse send failed to {}: {}", connection.userId, e.getMessage());
+            if (event == HEARTBEAT) reapedCount.increment();
+            close(connection, "send failed");
+        } finally {
+            connection.scheduled.set(false);
+        }
+        if (!connection.closed.get() && !connection.queue.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    private void close(Connection connection, String reason) {
+        if (!markClosed(connection)) return;
+        connection.queue.clear();
+        try {
+            connection.emitter.complete();
+        } catch (Exception e) {
+            log.debug("sse complete failed: {}", e.getMessage());
+        }
+        log.debug("sse connection {} of {} closed: {}", connection.id, connection.userId, reason);
+    }
+
+    // emitter 가 스스로 끝난 경우 (완료, 타임아웃, 에러)
+    private void unregister(Connection connection) {
+        markClosed(connection);
+    }
+
+    private boolean markClosed(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) return false;
+        connections.computeIfPresent(connection.userId, (id, set) -> {
+            set.remove(connection);
+            return set.isEmpty() ? null : set;
+        });
+        disconnectCount.increment();
+        return true;
+    }
+
+    // 직렬화는 여기서 한 번만. 연결 수만큼 다시 하지 않는다
+    private PreparedEvent prepare(String eventName, Object data) {
+        return prepare(eventSeq.incrementAndGet(), eventName, data);
+    }
+
+    private PreparedEvent prepare(long eventId, String eventName, Object data) {
+        String json;
+        try {
+            json = data instanceof String ? (String) data : objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new Exception500("sse 직렬화 실패");
+        }
+        return new PreparedEvent(eventId, eventName, json);
+    }
+
+    private static class Connection {
+        private final long id;
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<PreparedEvent> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final long lastEventId; // 연결할 때 받은 Last-Event-ID
+
+        private Connection(long id, Long userId, SseEmitter emitter, int queueCapacity, long lastEventId) {
+            this.id = id;
+            this.userId = userId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.lastEventId = lastEventId;
+        }
+    }
+
+    // 유저별 최근 알람. 가득 차면 가장 오래된 것부터 덮어쓴다
+    private static class ReplayBuffer {
+        private final PreparedEvent[] events;
+        private int next; // 다음에 쓸 위치
+        private int size;
+        private long overwrittenId; // 덮어써서 잃어버린 가장 최근 id
+
+        private ReplayBuffer(int capacity) {
+            this.events = new PreparedEvent[capacity];
+        }
+
+        private void add(PreparedEvent event) {
+            if (size == events.length) {
+                overwrittenId = events[next].id;
+            } else {
+                size++;
+            }
+            events[next] = event;
+            next = (next + 1) % events.length;
+        }
+
+        private boolean isMissed(long lastEventId) {
+            return lastEventId < overwrittenId;
+        }
+
+        // 오래된 순서로
+        private List<PreparedEvent> after(long lastEventId) {
+            List<PreparedEvent> result = new ArrayList<>();
+            int start = (next - size + events.length) % events.length;
+            for (int i = 0; i < size; i++) {
+                PreparedEvent event = events[(start + i) % events.length];
+                if (event.id > lastEventId) result.add(event);
+            }
+            return result;
+        }
+    }
+
+    // 이미 직렬화된 이벤트. 모든 연결이 같은 json 문자열을 공유하고, 보낼 때는 SSE 틀만 씌운다
+    private static class PreparedEvent {
+        private final long id;
+        private final String name;
+        private final String[] lines; // 줄마다 "data:" 한 줄
+
+        private PreparedEvent(long id, String name, String json) {
+            this.id = id;
+            this.name = name;
+            this.lines = json == null ? new String[0] : json.split("\n", -1);
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent() {
+            if (name == null) return SseEmitter.event().comment("ping"); // heartbeat
+            SseEmitter.SseEventBuilder builder = SseEmitter.event();
+            if (id != NO_EVENT_ID) builder.id(String.valueOf(id));
+            builder.name(name);
+            for (String line : lines) {
+                builder.data(line, MediaType.APPLICATION_JSON); // String 그대로 쓴다 (json 이면 UTF-8)
+            }
+            return builder;
+        }
+    }
 }
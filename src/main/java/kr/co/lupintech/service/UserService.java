@@ -3,32 +3,44 @@ package kr.co.lupintech.service;
 import kr.co.lupintech.core.annotation.MyErrorLog;
 import kr.co.lupintech.core.annotation.MyLog;
 import kr.co.lupintech.core.auth.jwt.MyJwtProvider;
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
 import kr.co.lupintech.core.auth.session.MyUserDetails;
+import kr.co.lupintech.core.cache.LeaveCalendarCache;
+import kr.co.lupintech.core.cache.RefreshTokenCache;
+import kr.co.lupintech.core.cache.UserCredentialCache;
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.cache.UserSearchIndex;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
 import kr.co.lupintech.core.exception.Exception400;
 import kr.co.lupintech.core.exception.Exception401;
 import kr.co.lupintech.core.exception.Exception500;
 import kr.co.lupintech.dto.PageDTO;
+import kr.co.lupintech.dto.SliceDTO;
 import kr.co.lupintech.dto.user.UserRequest;
 import kr.co.lupintech.dto.user.UserResponse;
 import kr.co.lupintech.model.token.RefreshTokenEntity;
 import kr.co.lupintech.model.token.TokenRepository;
+import kr.co.lupintech.model.token.TokenStatus;
 import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRepository;
 import kr.co.lupintech.service.S3Service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -36,11 +48,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Service
 public class UserService {
+    private static final int MAX_SLICE_SIZE = 100; // 키셋 페이징 한 번에 최대
+
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final TokenRepository tokenRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final S3Service s3Service;
+    private final LeaveCalendarCache leaveCalendarCache;
+    private final UserDirectory userDirectory;
+    private final TokenRevocationList tokenRevocationList;
+    private final RefreshTokenCache refreshTokenCache;
+    private final UserCredentialCache userCredentialCache;
+    private final UserSearchIndex userSearchIndex;
+    private final UserSnapshotCache userSnapshotCache;
 
 
     @MyLog
@@ -59,13 +80,16 @@ public class UserService {
         }
 
         //3. 비밀번호 암호화
-        String encPassword = passwordEncoder.encode(joinInDTO.getPassword()); // 60Byte
+        String encPassword = passwordHashingService.encode(joinInDTO.getPassword()); // 60Byte
         joinInDTO.setPassword(encPassword);
 
 
         // 디비 save 되는 쪽만 try catch로 처리하자.
         try {
             User userPS = userRepository.save(joinInDTO.toEntity());
+            userDirectory.put(userPS);
+            userSearchIndex.put(userPS);
+            userCredentialCache.evict(userPS.getEmail()); // "없는 이메일"로 캐시돼 있을 수 있다
             return new UserResponse.JoinOutDTO(userPS);
         } catch (Exception e) {
             throw new Exception500("회원가입 실패 : " + e.getMessage());
@@ -77,17 +101,23 @@ public class UserService {
         try {
             UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken
                     = new UsernamePasswordAuthenticationToken(loginInDTO.getEmail(), loginInDTO.getPassword());
-            Authentication authentication = authenticationManager.authenticate(usernamePasswordAuthenticationToken);
+            // 비밀번호 검증(BCrypt)은 해싱 전용 풀에서. 저장된 해시의 cost 가 설정보다 낮으면 이때 새 cost 로 바꿔 저장된다
+            Authentication authentication = passwordHashingService.call(
+                    () -> authenticationManager.authenticate(usernamePasswordAuthenticationToken));
             MyUserDetails myUserDetails = (MyUserDetails) authentication.getPrincipal();
 
             String accessjwt = MyJwtProvider.createAccess(myUserDetails.getUser());
             Pair<String, RefreshTokenEntity> rtInfo = MyJwtProvider.createRefresh(myUserDetails.getUser());
 
             //로그인 성공하면 액세스 토큰, 리프레시 토큰 발급. 리프레시 토큰의 uuid은 DB에 저장
-            tokenRepository.save(rtInfo.getSecond());
+            RefreshTokenEntity refreshToken = rtInfo.getSecond();
+            tokenRepository.save(refreshToken);
+            refreshTokenCache.put(refreshToken.getUuid(), new RefreshTokenCache.Entry(myUserDetails.getUser().getId(),
+                    refreshToken.getFamilyId(), refreshToken.getExpiresAt()));
 
             return Pair.of(accessjwt, rtInfo.getFirst());
-        } catch (Exception e) {
+        } catch (AuthenticationException e) {
+            // 인증 실패만 401. 해싱 대기열 초과(429), 해싱 시간 초과(500)는 그대로 올려보낸다
             throw new Exception401("인증되지 않았습니다");
         }
     }
@@ -144,6 +174,8 @@ public class UserService {
                throw new Exception500("프로필사진 삭제 실패 : " + e.getMessage());
            }
         }
+        // 4-1. 로그인 캐시에서 예전 이메일 제거
+        userCredentialCache.evict(user.getEmail());
         // 5. 이메일 주소 변경 시
         if (user.getEmail() != modifiedInDTO.getEmail()) {
             user.changeEmail(modifiedInDTO.getEmail());
@@ -155,11 +187,17 @@ public class UserService {
         // 7. 비밀번호 변경 시
         boolean isPasswordReset = false;
         if (modifiedInDTO.getNewPassword() != null && !modifiedInDTO.getNewPassword().isEmpty()) {
-                String encodePassword = passwordEncoder.encode(modifiedInDTO.getNewPassword());
+                String encodePassword = passwordHashingService.encode(modifiedInDTO.getNewPassword());
                 user.changePassword(encodePassword);
                 isPasswordReset = true;
         }
-        // 8. ModifiedOutDTO 생성
+        userCredentialCache.evict(user.getEmail()); // 바뀐 이메일이 "없는 이메일"로 캐시돼 있을 수 있다
+        // 8. 달력 캐시에 들어있는 사원명, 프로필 무효화
+        leaveCalendarCache.evictAll();
+        userDirectory.put(user);
+        userSearchIndex.put(user);
+        userSnapshotCache.evict(id);
+        // 9. ModifiedOutDTO 생성
         return new UserResponse.ModifiedOutDTO(user, isPasswordReset, isProfileReset);
     }
 
@@ -171,14 +209,31 @@ public class UserService {
                 .orElseThrow(()->new Exception400("id", "해당 유저가 존재하지 않습니다."));
         // 정보 수정
         userPS.setRemainDays(annualInDTO.getRemainDays());
+        userSnapshotCache.evict(id);
     }
 
     @MyLog
     @MyErrorLog
     @Transactional
     public PageDTO<UserResponse.UserOutDTO, User> 사원검색(String query, Pageable pageable) {
-        Page<User> userPG = query.isBlank() ? // 검색할 query가 없으면 전체 목록 조회(퇴사한 회원은 조회x)
-                userRepository.findAllByStatus(true, pageable) : userRepository.findAllByQuery(query, pageable);
+        Page<User> userPG;
+        if (query.isBlank()) { // 검색할 query가 없으면 전체 목록 조회(퇴사한 회원은 조회x)
+            userPG = userRepository.findAllByStatus(true, pageable);
+        } else if (userSearchIndex.isEnabled()) { // 메모리 색인에서 id 를 찾고 이번 페이지만 id 로 읽는다 (id 오름차순)
+            List<Long> ids = searchActiveIds(query);
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            int to = Math.min(from + pageable.getPageSize(), ids.size());
+            List<Long> pageIds = ids.subList(from, to);
+            Map<Long, User> usersById = userRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(User::getId, user -> user));
+            List<User> users = pageIds.stream()
+                    .map(usersById::get)
+                    .filter(user -> user != null && Boolean.TRUE.equals(user.getStatus()))
+                    .collect(Collectors.toList());
+            userPG = new PageImpl<>(users, pageable, ids.size());
+        } else {
+            userPG = userRepository.findAllByQuery(query, pageable);
+        }
 
         List<UserResponse.UserOutDTO> content = userPG.getContent().stream()
                 .map(user -> new UserResponse.UserOutDTO(user))
@@ -186,6 +241,75 @@ public class UserService {
         return new PageDTO<>(content, userPG);
     }
 
+    /**
+     * 키셋 페이징. afterId 보다 큰 id 를 size 개 읽는다 (id 오름차순). OFFSET, COUNT(*) 를 쓰지 않는다.
+     * withTotal 이면 전체 수도 준다: 전체 목록은 사원 디렉터리 크기, 검색은 재직자로 거른 색인 결과 수 (사원검색과 같다). 색인을 안 쓰면 null
+     */
+    @MyLog
+    @MyErrorLog
+    public SliceDTO<UserResponse.UserOutDTO> 사원목록(String query, Long afterId, int size, boolean withTotal) {
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            throw new Exception400("size", "size 는 1 이상 " + MAX_SLICE_SIZE + " 이하입니다");
+        }
+
+        List<User> users;
+        boolean hasNext;
+        Long nextAfterId = null;
+        Long total = null;
+        if (!query.isBlank() && userSearchIndex.isEnabled()) {
+            List<Long> ids = searchActiveIds(query);
+            int from = firstIndexAfter(ids, afterId);
+            int to = Math.min(from + size, ids.size());
+            List<Long> pageIds = ids.subList(from, to);
+            Map<Long, User> usersById = userRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(User::getId, user -> user));
+            users = pageIds.stream()
+                    .map(usersById::get)
+                    .filter(user -> user != null && Boolean.TRUE.equals(user.getStatus()))
+                    .collect(Collectors.toList());
+            hasNext = to < ids.size();
+            // 페이지의 사원이 모두 퇴사로 걸러져도 다음 페이지는 색인 위치 기준으로 이어간다
+            if (hasNext) nextAfterId = pageIds.get(pageIds.size() - 1);
+            if (withTotal) total = (long) ids.size();
+        } else {
+            // 하나 더 읽어서 다음 페이지가 있는지 본다
+            Pageable limit = PageRequest.of(0, size + 1);
+            users = query.isBlank() ?
+                    userRepository.findActiveAfterId(afterId, limit) : userRepository.findActiveByQueryAfterId(query, afterId, limit);
+            hasNext = users.size() > size;
+            if (hasNext) {
+                users = users.subList(0, size);
+                nextAfterId = users.get(users.size() - 1).getId();
+            }
+            if (withTotal && query.isBlank()) total = (long) userDirectory.size();
+        }
+
+        List<UserResponse.UserOutDTO> content = users.stream()
+                .map(user -> new UserResponse.UserOutDTO(user))
+                .collect(Collectors.toList());
+        return new SliceDTO<>(content, size, hasNext, nextAfterId, total);
+    }
+
+    // 색인에서 찾은 재직 중인 사원 id (오름차순). 퇴사자는 커밋 후 색인에서 빠지지만, 다른 서버에서 온 반영을 기다리는 동안은
+    // 사원 디렉터리(재직자만)로 한 번 더 거른다. DB 는 읽지 않는다. 전체 수와 페이지를 이 목록으로 만든다
+    private List<Long> searchActiveIds(String query) {
+        return userSearchIndex.search(query).stream()
+                .filter(userDirectory::contains)
+                .collect(Collectors.toList());
+    }
+
+        // 오름차순 ids 에서 afterId 보다 큰 첫 위치
+    private int firstIndexAfter(List<Long> ids, Long afterId) {
+        int low = 0;
+        int high = ids.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids.get(mid) <= afterId) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
     @MyLog
     @MyErrorLog
     @Transactional
@@ -194,6 +318,14 @@ public class UserService {
                 () -> new Exception500("해당 유저가 존재하지 않습니다.")
         );
         userPS.resign();
+        userPS.revokeTokens();
+        tokenRepository.updateStatusByUserId(id, TokenStatus.VALID, TokenStatus.REVOKED); // 리프레시 토큰도 폐기
+        userDirectory.remove(id);
+        userSearchIndex.remove(id);
+        userSnapshotCache.evict(id);
+        tokenRevocationList.revoke(userPS);
+        refreshTokenCache.evictUser(id);
+        userCredentialCache.evict(userPS.getEmail());
     }
 
     @MyLog
@@ -204,5 +336,10 @@ public class UserService {
                 .orElseThrow(()->new Exception400("id", "해당 유저가 존재하지 않습니다."));
         // 정보 수정
         userPS.setRole(masterInDTO.getRole());
+        userPS.revokeTokens(); // 예전 권한이 담긴 토큰은 더 쓰지 못하게. 리프레시로 새 권한 토큰을 받는다
+        userDirectory.put(userPS);
+        tokenRevocationList.revoke(userPS);
+        userCredentialCache.evict(userPS.getEmail()); // 다음 로그인도 새 권한으로
+        userSnapshotCache.evict(id);
     }
 }
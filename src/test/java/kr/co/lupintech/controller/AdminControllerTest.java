@@ -1,7 +1,10 @@
 package kr.co.lupintech.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import kr.co.lupintech.core.MyRestDoc;
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.cache.UserSearchIndex;
 import kr.co.lupintech.core.dummy.DummyEntity;
 import kr.co.lupintech.dto.leave.LeaveRequest;
 import kr.co.lupintech.dto.user.UserRequest;
@@ -30,6 +33,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import javax.persistence.EntityManager;
 import java.time.LocalDate;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -53,6 +57,10 @@ public class AdminControllerTest extends MyRestDoc {
     private UserRepository userRepository;
     @Autowired
     private EntityManager em;
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+    @Autowired
+    private UserDirectory userDirectory;
 
     @BeforeEach
     public void setUp() {
@@ -128,6 +136,8 @@ public class AdminControllerTest extends MyRestDoc {
                 .profile("https://lupinbucket.s3.ap-northeast-2.amazonaws.com/person.png")
                 .build());
         em.clear();
+        userSearchIndex.refresh(); // 테스트마다 user_tb 를 비우고 다시 넣으므로 색인도 다시 읽는다
+        userDirectory.refresh(); // 검색 결과를 재직자 명부로 거르므로 명부도 다시 읽는다
     }
 
     @DisplayName("회원 목록 조회 (디폴트: 전체 사원 조회, 0번 페이지, 한 페이지에 10개)")
@@ -222,6 +232,91 @@ public class AdminControllerTest extends MyRestDoc {
         resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
     }
 
+    @DisplayName("회원 목록 검색 (퇴사자는 색인에 넣어도 전체 수에서 제외)")
+    @WithUserDetails(value = "admin@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void search_stale_resigned_test() throws Exception {
+        // given: 퇴사한 사원을 색인에 넣으려 해도 재직자만 남는다
+        User resigned = userRepository.save(User.builder()
+                .username("김퇴사")
+                .password(new BCryptPasswordEncoder().encode("1234"))
+                .email("resigned@nate.com")
+                .role(UserRole.ROLE_USER)
+                .status(false)
+                .hireDate(LocalDate.parse("2019-01-01"))
+                .remainDays(0)
+                .build());
+        userSearchIndex.put(resigned);
+
+        // when
+        ResultActions resultActions = mvc
+                .perform(get("/admin?query=김"));
+        String responseBody = resultActions.andReturn().getResponse().getContentAsString();
+        System.out.println("테스트 : " + responseBody);
+
+        // then
+        resultActions.andExpect(jsonPath("$.status").value(200));
+        resultActions.andExpect(jsonPath("$.data.totalElements").value(3));
+        resultActions.andExpect(jsonPath("$.data.content.length()").value(3));
+        resultActions.andExpect(status().isOk());
+    }
+
+    @DisplayName("회원 목록 키셋 페이징 (afterId, 한 페이지에 3개)")
+    @WithUserDetails(value = "admin@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void search_keyset_test() throws Exception {
+        // given
+
+        // when
+        ResultActions resultActions = mvc
+                .perform(get("/admin?afterId=0&size=3&withTotal=true"));
+        String responseBody = resultActions.andReturn().getResponse().getContentAsString();
+        System.out.println("테스트 : " + responseBody);
+
+        // then
+        resultActions.andExpect(jsonPath("$.status").value(200));
+        resultActions.andExpect(jsonPath("$.data.content.length()").value(3));
+        resultActions.andExpect(jsonPath("$.data.size").value(3));
+        resultActions.andExpect(jsonPath("$.data.hasNext").value(true));
+        resultActions.andExpect(jsonPath("$.data.totalElements").exists());
+        resultActions.andExpect(status().isOk());
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+
+        // nextAfterId 로 끝까지 넘기면 전체 7명
+        long nextAfterId = om.readTree(responseBody).get("data").get("nextAfterId").asLong();
+        int count = 3;
+        while (true) {
+            JsonNode data = om.readTree(mvc.perform(get("/admin?size=3&afterId=" + nextAfterId))
+                    .andReturn().getResponse().getContentAsString()).get("data");
+            count += data.get("content").size();
+            if (!data.get("hasNext").asBoolean()) break;
+            nextAfterId = data.get("nextAfterId").asLong();
+        }
+        assertThat(count).isEqualTo(7);
+    }
+
+    @DisplayName("회원 목록 키셋 페이징 검색 (부분 이름)")
+    @WithUserDetails(value = "admin@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void search_keyset_query_test() throws Exception {
+        // given
+
+        // when
+        ResultActions resultActions = mvc
+                .perform(get("/admin?query=김&afterId=0&size=2"));
+        String responseBody = resultActions.andReturn().getResponse().getContentAsString();
+        System.out.println("테스트 : " + responseBody);
+
+        // then
+        resultActions.andExpect(jsonPath("$.status").value(200));
+        resultActions.andExpect(jsonPath("$.data.content.length()").value(2));
+        resultActions.andExpect(jsonPath("$.data.content[0].username").value("김쌀쌀"));
+        resultActions.andExpect(jsonPath("$.data.hasNext").value(true));
+        resultActions.andExpect(jsonPath("$.data.totalElements").doesNotExist());
+        resultActions.andExpect(status().isOk());
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+    }
+
     @DisplayName("유저의 연차 일수 수정 성공 (하루)")
     @WithUserDetails(value = "admin@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
     @Test
@@ -21,6 +21,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
@@ -59,6 +60,8 @@ public class AdminControllerUnitTest extends DummyEntity{
     @Autowired
     private ObjectMapper om;
     @MockBean
+    private TokenRevocationList tokenRevocationList; // MySecurityConfig 가 필터에 넘긴다
+    @MockBean
     private UserService userService;
     @MockBean
     private LeaveService leaveService;
@@ -1,6 +1,9 @@
 package kr.co.lupintech.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import kr.co.lupintech.core.MyRestDoc;
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.factory.AlarmFactory;
 import kr.co.lupintech.model.alarm.Alarm;
 import kr.co.lupintech.model.alarm.AlarmRepository;
 import kr.co.lupintech.model.leave.Leave;
@@ -35,6 +38,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @DisplayName("알람 API")
@@ -49,6 +53,9 @@ public class AlarmControllerTest extends MyRestDoc {
     @Autowired
     private AlarmRepository alarmRepository;
 
+    @Autowired
+    private AlarmCounter alarmCounter;
+
     @Autowired
     private MockMvc mvc;
 
@@ -105,6 +112,80 @@ public class AlarmControllerTest extends MyRestDoc {
         resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
     }
 
+    @DisplayName("알람 피드 (cursor 페이지)")
+    @WithUserDetails(value = "dotori@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void getAlarmFeedTest() throws Exception {
+        // given
+        for (int i = 0; i < 3; i++) {
+            Leave leavePS = leaveRepository.save(Leave.builder()
+                    .type(LeaveType.ANNUAL)
+                    .usingDays(1)
+                    .startDate(LocalDate.now().plusDays(10 + i))
+                    .endDate(LocalDate.now().plusDays(10 + i))
+                    .createdAt(LocalDateTime.now())
+                    .status(i == 0 ? LeaveStatus.REJECTION : LeaveStatus.APPROVAL)
+                    .user(user)
+                    .build());
+            alarmRepository.save(AlarmFactory.newAlarm(user, leavePS));
+        }
+        em.clear();
+
+        // when
+        ResultActions resultActions = mvc.perform(get("/auth/alarm/feed").param("size", "2"));
+        String responseBody = resultActions.andReturn().getResponse().getContentAsString();
+        String nextCursor = JsonPath.read(responseBody, "$.data.nextCursor");
+
+        // then (최신순, 다음 페이지 있음)
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(2))
+                .andExpect(jsonPath("$.data.content[0].startDate").value(LocalDate.now().plusDays(12).toString()))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+
+        // 다음 페이지
+        mvc.perform(get("/auth/alarm/feed").param("size", "2").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(1))
+                .andExpect(jsonPath("$.data.content[0].status").value("REJECTION"))
+                .andExpect(jsonPath("$.data.hasNext").value(false));
+    }
+
+    @DisplayName("안 읽은 알람 개수")
+    @WithUserDetails(value = "dotori@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void getAlarmCountTest() throws Exception {
+        // given (승인/거절 알람 2개)
+        saveDecidedAlarms(2);
+
+        // when
+        ResultActions resultActions = mvc.perform(get("/auth/alarm/count"));
+
+        // then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.count").value(2));
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+    }
+
+    @DisplayName("알람 읽음 처리")
+    @WithUserDetails(value = "dotori@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void readAlarmsTest() throws Exception {
+        // given
+        saveDecidedAlarms(2);
+        mvc.perform(get("/auth/alarm/count")).andExpect(jsonPath("$.data.count").value(2));
+
+        // when (body 없이 전부 읽음)
+        ResultActions resultActions = mvc.perform(post("/auth/alarm/read"));
+
+        // then
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.count").value(2));
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+        mvc.perform(get("/auth/alarm/count")).andExpect(jsonPath("$.data.count").value(0));
+        mvc.perform(get("/auth/alarm/feed")).andExpect(jsonPath("$.data.content[0].read").value(true));
+    }
+
     @DisplayName("알람 불러오기 실패 (인증되지 않은 사용자)")
     @Test
     public void getUserAlarmsFailUnauthenticatedTest() throws Exception {
@@ -118,4 +199,20 @@ public class AlarmControllerTest extends MyRestDoc {
         resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
     }
 
+    private void saveDecidedAlarms(int count) {
+        for (int i = 0; i < count; i++) {
+            Leave leavePS = leaveRepository.save(Leave.builder()
+                    .type(LeaveType.DUTY)
+                    .usingDays(0)
+                    .startDate(LocalDate.now().plusDays(20 + i))
+                    .endDate(LocalDate.now().plusDays(20 + i))
+                    .createdAt(LocalDateTime.now())
+                    .status(LeaveStatus.APPROVAL)
+                    .user(user)
+                    .build());
+            alarmRepository.save(AlarmFactory.newAlarm(user, leavePS));
+        }
+        em.clear();
+        alarmCounter.resync(); // DB에 직접 넣은 알람이라 카운터를 다시 센다
+    }
 }
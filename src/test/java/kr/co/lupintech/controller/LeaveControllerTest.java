@@ -13,6 +13,9 @@ import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.AlarmRepositoryTest;
 import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRepository;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -36,6 +39,7 @@ import kr.co.lupintech.core.dummy.DummyEntity;
 
 import javax.persistence.EntityManager;
 
+import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -780,5 +784,44 @@ public class LeaveControllerTest extends MyRestDoc {
         resultActions.andExpect(status().isOk());
         resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
     }
-}
 
+    @DisplayName("엑셀 다운로드 (기간, 상태, 종류 조건)")
+    @WithUserDetails(value = "ssar@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void download_filter_test() throws Exception {
+        // when
+        ResultActions resultActions = mvc.perform(get("/auth/leave/download")
+                .param("startDate", "2023-08-01")
+                .param("endDate", "2023-09-30")
+                .param("status", "WAITING")
+                .param("type", "ANNUAL"));
+
+        // then (8~9월에 걸친 대기 중 연차 : 박코스 09-18, 이삭제 09-29)
+        resultActions.andExpect(status().isOk());
+        byte[] body = resultActions.andReturn().getResponse().getContentAsByteArray();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(body))) {
+            Sheet sheet = workbook.getSheet("Leaves");
+            assertThat(sheet.getLastRowNum()).isEqualTo(2);
+            assertThat(sheet.getRow(1).getCell(2).getStringCellValue()).isEqualTo("박코스");
+            assertThat(sheet.getRow(1).getCell(4).getStringCellValue()).isEqualTo("2023-09-18");
+            assertThat(sheet.getRow(2).getCell(2).getStringCellValue()).isEqualTo("이삭제");
+            assertThat(sheet.getRow(2).getCell(7).getStringCellValue()).isEqualTo("WAITING");
+        }
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+    }
+
+    @DisplayName("엑셀 다운로드 실패 (시작일이 종료일보다 늦음)")
+    @WithUserDetails(value = "ssar@nate.com", setupBefore = TestExecutionEvent.TEST_EXECUTION)
+    @Test
+    public void download_fail_reversed_range_test() throws Exception {
+        // when
+        ResultActions resultActions = mvc.perform(get("/auth/leave/download")
+                .param("startDate", "2023-09-30")
+                .param("endDate", "2023-08-01"));
+
+        // then
+        resultActions.andExpect(status().isBadRequest());
+        resultActions.andExpect(jsonPath("$.status").value(400));
+        resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
+    }
+}
@@ -14,14 +14,17 @@ import kr.co.lupintech.model.leave.enums.LeaveStatus;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRole;
+import kr.co.lupintech.service.LeaveExportService;
 import kr.co.lupintech.service.LeaveService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
@@ -36,6 +39,7 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -62,8 +66,12 @@ public class LeaveControllerUnitTest extends DummyEntity {
     @Autowired
     private ObjectMapper om;
     @MockBean
+    private TokenRevocationList tokenRevocationList; // MySecurityConfig 가 필터에 넘긴다
+    @MockBean
     private LeaveService leaveService;
     @MockBean
+    private LeaveExportService leaveExportService;
+    @MockBean
     private MyUserDetails myUserDetails;
 
     @MyWithMockUser(id = 1L, username = "박코스", role = UserRole.ROLE_USER, remainDays = 15)
@@ -144,6 +152,7 @@ public class LeaveControllerUnitTest extends DummyEntity {
 
         // 가정
         Mockito.when(leaveService.연차당직정보가져오기세달치(any())).thenReturn(infoOutDTOList);
+        Mockito.when(leaveService.연차당직세달치ETag(any())).thenReturn("\"1-0-0-0-0\"");
 
         String month = "2023-07";
         // 테스트 진행
@@ -199,5 +208,50 @@ public class LeaveControllerUnitTest extends DummyEntity {
         resultActions.andExpect(jsonPath("$.data[0].endDate").value("2023-07-21"));
         resultActions.andExpect(status().isOk());
     }
-}
 
+    @MyWithMockUser(id = 1L, username = "박코스", role = UserRole.ROLE_USER, remainDays = 15)
+    @Test
+    public void getLeaveData_not_modified_test() throws Exception {
+        // 가정
+        Mockito.when(leaveService.연차당직세달치ETag(any())).thenReturn("\"1-0-0-0-0\"");
+
+        // 테스트 진행
+        ResultActions resultActions = mvc.perform(get("/auth/leave/month/2023-07")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-0-0-0\""));
+
+        // 검증
+        resultActions.andExpect(status().isNotModified());
+        Mockito.verify(leaveService, Mockito.never()).연차당직정보가져오기세달치(any());
+    }
+
+    @MyWithMockUser(id = 1L, username = "박코스", role = UserRole.ROLE_USER, remainDays = 15)
+    @Test
+    public void getLeaveData_not_modified_weak_list_test() throws Exception {
+        // 가정
+        Mockito.when(leaveService.연차당직세달치ETag(any())).thenReturn("\"1-0-0-0-0\"");
+
+        // 테스트 진행 (프록시가 약한 ETag 로 바꾸고, 캐시가 여러 값을 보내는 경우)
+        ResultActions resultActions = mvc.perform(get("/auth/leave/month/2023-07")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0-0-0-0-0\", W/\"1-0-0-0-0\""));
+
+        // 검증
+        resultActions.andExpect(status().isNotModified());
+        Mockito.verify(leaveService, Mockito.never()).연차당직정보가져오기세달치(any());
+    }
+
+    @MyWithMockUser(id = 1L, username = "박코스", role = UserRole.ROLE_USER, remainDays = 15)
+    @Test
+    public void getLeaveData_modified_test() throws Exception {
+        // 가정
+        Mockito.when(leaveService.연차당직세달치ETag(any())).thenReturn("\"2-0-0-0-0\"");
+        Mockito.when(leaveService.연차당직정보가져오기세달치(any())).thenReturn(new ArrayList<>());
+
+        // 테스트 진행
+        ResultActions resultActions = mvc.perform(get("/auth/leave/month/2023-07")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1-0-0-0-0\", \"0-0-0-0-0\""));
+
+        // 검증
+        resultActions.andExpect(status().isOk());
+        resultActions.andExpect(header().string(HttpHeaders.ETAG, "\"2-0-0-0-0\""));
+    }
+}
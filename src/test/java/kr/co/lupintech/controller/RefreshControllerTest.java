@@ -1,6 +1,7 @@
 package kr.co.lupintech.controller;
 
 import kr.co.lupintech.core.auth.jwt.MyJwtProviderTest;
+import kr.co.lupintech.core.cache.UserDirectory;
 import kr.co.lupintech.core.exception.Exception401;
 import kr.co.lupintech.model.token.TokenStatus;
 import kr.co.lupintech.model.user.UserRepository;
@@ -59,6 +60,9 @@ class RefreshControllerTest extends MyRestDoc {
     @Autowired
     private TokenRepository tokenRepository;
 
+    @Autowired
+    private UserDirectory userDirectory;
+
     @DisplayName("리프레쉬토큰 성공")
     @Test
     void refreshToken() throws Exception {
@@ -69,7 +73,9 @@ class RefreshControllerTest extends MyRestDoc {
                 .password("1234")
                 .hireDate(LocalDate.now())
                 .role(UserRole.ROLE_USER)
+                .status(true)
                 .build());
+        userDirectory.refresh(); // 재발급은 재직자 명부에서 권한을 읽는다
 
         // 리프레시 토큰 생성 및 저장
         Pair<String, RefreshTokenEntity> refreshInfo = MyJwtProvider.createRefresh(testUser);
@@ -83,7 +89,8 @@ class RefreshControllerTest extends MyRestDoc {
         ResultActions resultActions = mockMvc.perform(post("/refreshtoken",
                         testUser.getId()).headers(headers).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(header().exists(MyJwtProvider.HEADER));
+                .andExpect(header().exists(MyJwtProvider.HEADER))
+                .andExpect(header().exists(MyJwtProvider.HEADER_REFRESH)); // 교체된 리프레시 토큰
 
 
         resultActions.andDo(MockMvcResultHandlers.print()).andDo(document);
@@ -1,5 +1,8 @@
 package kr.co.lupintech.core;
 
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.cache.LeaveCalendarCache;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
 import kr.co.lupintech.core.util.MyScheduleUtil;
 import kr.co.lupintech.model.leave.Leave;
 import kr.co.lupintech.model.leave.LeaveRepository;
@@ -36,6 +39,15 @@ public class MyScheduleUtilTest {
     @Mock
     private DateService dateService;
 
+    @Mock
+    private LeaveCalendarCache leaveCalendarCache;
+
+    @Mock
+    private AlarmCounter alarmCounter;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
     private Leave leave;
     private User user;
     private User newcomer;
@@ -75,6 +87,7 @@ public class MyScheduleUtilTest {
 
         verify(leaveRepository, times(1)).findByStartDateAndStatus(any(LocalDate.class), any(LeaveStatus.class));
         verify(leaveRepository, times(1)).delete(any(Leave.class));
+        verify(alarmCounter, times(1)).waitingResolved(1);
     }
 
     @Test
@@ -0,0 +1,56 @@
+package kr.co.lupintech.core.auth.jwt;
+
+import kr.co.lupintech.core.auth.session.MyUserDetails;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRole;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+public class JwtPrincipalCacheTest {
+
+    @Test
+    public void expired_not_returned_test() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(10);
+        cache.put("valid", new JwtPrincipalCache.Principal(1L, UserRole.ROLE_USER, 0, System.currentTimeMillis() + 60_000));
+        cache.put("expired", new JwtPrincipalCache.Principal(2L, UserRole.ROLE_USER, 0, System.currentTimeMillis() - 1));
+
+        Assertions.assertThat(cache.get("valid").getId()).isEqualTo(1L);
+        Assertions.assertThat(cache.get("expired")).isNull();
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void bounded_test() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(2);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        cache.put("a", new JwtPrincipalCache.Principal(1L, UserRole.ROLE_USER, 0, expiresAt));
+        cache.put("b", new JwtPrincipalCache.Principal(2L, UserRole.ROLE_USER, 0, expiresAt));
+
+        // when (가득 차서 넣지 않음)
+        cache.put("c", new JwtPrincipalCache.Principal(3L, UserRole.ROLE_USER, 0, expiresAt));
+
+        // then
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+        Assertions.assertThat(cache.get("c")).isNull();
+    }
+
+    @Test
+    public void filter_verifies_once_test() {
+        // given
+        MyJwtAuthorizationFilter filter = new MyJwtAuthorizationFilter(authentication -> authentication, new TokenRevocationList(null));
+        User user = User.builder().id(7L).role(UserRole.ROLE_ADMIN).build();
+        String jwt = MyJwtProvider.createAccess(user).replace(MyJwtProvider.TOKEN_PREFIX, "");
+
+        // when
+        filter.authenticate(jwt);
+        Authentication authentication = filter.authenticate(jwt);
+
+        // then (두 번째는 캐시에서)
+        MyUserDetails myUserDetails = (MyUserDetails) authentication.getPrincipal();
+        Assertions.assertThat(myUserDetails.getUser().getId()).isEqualTo(7L);
+        Assertions.assertThat(myUserDetails.getUser().getRole()).isEqualTo(UserRole.ROLE_ADMIN);
+        Assertions.assertThat(filter.getPrincipalCache().getHitCount()).isEqualTo(1);
+        Assertions.assertThat(filter.getPrincipalCache().getMissCount()).isEqualTo(1);
+    }
+}
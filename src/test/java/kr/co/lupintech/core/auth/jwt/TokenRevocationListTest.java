@@ -0,0 +1,81 @@
+package kr.co.lupintech.core.auth.jwt;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.model.user.UserRole;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest extends DummyEntity {
+
+    @InjectMocks
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    public void revoke_test() {
+        // given
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        cos.revokeTokens();
+        long now = System.currentTimeMillis() / 1000;
+
+        // when
+        tokenRevocationList.revoke(cos);
+
+        // then (폐기 전에 발급된 토큰만 막는다)
+        Assertions.assertThat(tokenRevocationList.isRevoked(1L, now - 60)).isTrue();
+        Assertions.assertThat(tokenRevocationList.isRevoked(1L, now + 1)).isFalse();
+        Assertions.assertThat(tokenRevocationList.isRevoked(2L, now - 60)).isFalse();
+    }
+
+    @Test
+    public void refresh_test() {
+        // given (다른 서버에서 폐기)
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        cos.revokeTokens();
+        when(userRepository.findByTokenRevokedAtAfter(any(LocalDateTime.class))).thenReturn(Arrays.asList(cos));
+
+        // when
+        int count = tokenRevocationList.refresh();
+
+        // then
+        Assertions.assertThat(count).isEqualTo(1);
+        Assertions.assertThat(tokenRevocationList.isRevoked(1L, System.currentTimeMillis() / 1000 - 60)).isTrue();
+    }
+
+    @Test
+    public void filter_rejects_revoked_token_test() {
+        // given
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        String jwt = MyJwtProvider.createAccess(cos).replace(MyJwtProvider.TOKEN_PREFIX, "");
+        MyJwtAuthorizationFilter filter = new MyJwtAuthorizationFilter(authentication -> authentication, tokenRevocationList);
+        Assertions.assertThat(filter.authenticate(jwt)).isNotNull();
+
+        // when (권한수정, 다음 초부터 유효)
+        cos.setRole(UserRole.ROLE_ADMIN);
+        tokenRevocationList.revoke(userRevokedAfter(cos, 1));
+
+        // then (캐시에 있던 토큰도 막힌다)
+        Assertions.assertThat(filter.authenticate(jwt)).isNull();
+    }
+
+    private User userRevokedAfter(User user, long seconds) {
+        User spy = spy(user);
+        doReturn(LocalDateTime.now().plusSeconds(seconds)).when(spy).getTokenRevokedAt();
+        return spy;
+    }
+}
@@ -0,0 +1,90 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.core.factory.AlarmFactory;
+import kr.co.lupintech.model.alarm.AlarmRepository;
+import kr.co.lupintech.model.leave.Leave;
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import kr.co.lupintech.model.leave.enums.LeaveType;
+import kr.co.lupintech.model.user.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AlarmCounterTest extends DummyEntity {
+
+    @InjectMocks
+    private AlarmCounter alarmCounter;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private AlarmRepository alarmRepository;
+
+    @Test
+    public void unread_counted_once_test() {
+        // given
+        when(alarmRepository.countUnreadByUserId(1L)).thenReturn(3L);
+
+        // when
+        alarmCounter.unread(1L);
+        long count = alarmCounter.unread(1L);
+
+        // then (처음 한 번만 DB 조회)
+        Assertions.assertThat(count).isEqualTo(3L);
+        verify(alarmRepository, times(1)).countUnreadByUserId(1L);
+    }
+
+    @Test
+    public void created_and_read_test() {
+        // given
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        when(alarmRepository.countUnreadByUserId(1L)).thenReturn(0L);
+        when(alarmRepository.countByLeaveStatus(LeaveStatus.WAITING)).thenReturn(1L);
+        alarmCounter.unread(1L);
+        alarmCounter.waiting();
+
+        // when (신청 하나 더, 그중 하나 승인)
+        alarmCounter.created(AlarmFactory.newAlarm(cos, leave(cos, LeaveStatus.WAITING)));
+        alarmCounter.waitingResolved(1);
+        alarmCounter.created(AlarmFactory.newAlarm(cos, leave(cos, LeaveStatus.APPROVAL)));
+
+        // then
+        Assertions.assertThat(alarmCounter.waiting()).isEqualTo(1L);
+        Assertions.assertThat(alarmCounter.unread(1L)).isEqualTo(1L);
+
+        alarmCounter.read(1L, 1);
+        Assertions.assertThat(alarmCounter.unread(1L)).isEqualTo(0L);
+    }
+
+    @Test
+    public void resync_test() {
+        // given
+        when(alarmRepository.countUnreadByUserId(1L)).thenReturn(2L, 5L);
+        when(alarmRepository.countByLeaveStatus(LeaveStatus.WAITING)).thenReturn(4L);
+        alarmCounter.unread(1L);
+
+        // when
+        alarmCounter.resync();
+
+        // then (사원별 카운터는 다음 조회에서 다시 센다)
+        Assertions.assertThat(alarmCounter.waiting()).isEqualTo(4L);
+        Assertions.assertThat(alarmCounter.unread(1L)).isEqualTo(5L);
+    }
+
+    private Leave leave(User user, LeaveStatus status) {
+        Leave leave = newMockLeave(1L, user, LeaveType.DUTY, LocalDate.parse("2023-07-20"), LocalDate.parse("2023-07-20"), 0);
+        leave.setStatus(status);
+        return leave;
+    }
+}
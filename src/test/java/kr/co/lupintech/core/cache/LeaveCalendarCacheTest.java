@@ -0,0 +1,66 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.LocalCacheInvalidationBus;
+import kr.co.lupintech.dto.leave.LeaveResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LeaveCalendarCacheTest {
+
+    private final LeaveCalendarCache leaveCalendarCache = new LeaveCalendarCache(new LocalCacheInvalidationBus());
+
+    @Test
+    public void get_cached_test() {
+        AtomicInteger loadCount = new AtomicInteger();
+        YearMonth july = YearMonth.of(2023, 7);
+
+        leaveCalendarCache.get(july, month -> load(loadCount));
+        leaveCalendarCache.get(july, month -> load(loadCount));
+
+        Assertions.assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void evict_only_touched_months_test() {
+        AtomicInteger julyCount = new AtomicInteger();
+        AtomicInteger augustCount = new AtomicInteger();
+        YearMonth july = YearMonth.of(2023, 7);
+        YearMonth august = YearMonth.of(2023, 8);
+        leaveCalendarCache.get(july, month -> load(julyCount));
+        leaveCalendarCache.get(august, month -> load(augustCount));
+        String julyETag = leaveCalendarCache.eTag(july);
+        String augustETag = leaveCalendarCache.eTag(august);
+
+        // when (7월 안에서만 바뀜)
+        leaveCalendarCache.evict(LocalDate.parse("2023-07-20"), LocalDate.parse("2023-07-21"));
+        leaveCalendarCache.get(july, month -> load(julyCount));
+        leaveCalendarCache.get(august, month -> load(augustCount));
+
+        // then
+        Assertions.assertThat(julyCount.get()).isEqualTo(2);
+        Assertions.assertThat(augustCount.get()).isEqualTo(1);
+        Assertions.assertThat(leaveCalendarCache.eTag(july)).isNotEqualTo(julyETag);
+        Assertions.assertThat(leaveCalendarCache.eTag(august)).isEqualTo(augustETag);
+    }
+
+    @Test
+    public void evictAll_test() {
+        YearMonth july = YearMonth.of(2023, 7);
+        String eTag = leaveCalendarCache.eTag(july);
+
+        leaveCalendarCache.evictAll();
+
+        Assertions.assertThat(leaveCalendarCache.eTag(july)).isNotEqualTo(eTag);
+    }
+
+    private List<LeaveResponse.InfoOutDTO> load(AtomicInteger count) {
+        count.incrementAndGet();
+        return new ArrayList<>();
+    }
+}
@@ -0,0 +1,40 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.event.LocalCacheInvalidationBus;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+public class RefreshTokenCacheTest {
+
+    private final RefreshTokenCache refreshTokenCache = new RefreshTokenCache(new LocalCacheInvalidationBus());
+
+    @Test
+    public void expired_not_returned_test() {
+        refreshTokenCache.put("valid", new RefreshTokenCache.Entry(1L, "f1", LocalDateTime.now().plusDays(1)));
+        refreshTokenCache.put("expired", new RefreshTokenCache.Entry(1L, "f2", LocalDateTime.now().minusSeconds(1)));
+
+        Assertions.assertThat(refreshTokenCache.get("valid").getFamilyId()).isEqualTo("f1");
+        Assertions.assertThat(refreshTokenCache.get("expired")).isNull();
+    }
+
+    @Test
+    public void evict_family_and_user_test() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        refreshTokenCache.put("a", new RefreshTokenCache.Entry(1L, "f1", expiresAt));
+        refreshTokenCache.put("b", new RefreshTokenCache.Entry(1L, "f2", expiresAt));
+        refreshTokenCache.put("c", new RefreshTokenCache.Entry(2L, "f3", expiresAt));
+
+        // when
+        refreshTokenCache.evictFamily("f1");
+        Assertions.assertThat(refreshTokenCache.get("a")).isNull();
+        Assertions.assertThat(refreshTokenCache.get("b")).isNotNull();
+
+        refreshTokenCache.evictUser(1L);
+
+        // then
+        Assertions.assertThat(refreshTokenCache.get("b")).isNull();
+        Assertions.assertThat(refreshTokenCache.get("c")).isNotNull();
+    }
+}
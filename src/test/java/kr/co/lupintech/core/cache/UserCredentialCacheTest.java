@@ -0,0 +1,67 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.LocalCacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRole;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class UserCredentialCacheTest extends DummyEntity {
+
+    private final UserCredentialCache userCredentialCache = new UserCredentialCache(new LocalCacheInvalidationBus());
+
+    @Test
+    public void put_get_evict_test() {
+        User ssar = newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15);
+        userCredentialCache.put("ssar@nate.com", ssar, userCredentialCache.version());
+
+        Assertions.assertThat(userCredentialCache.get("ssar@nate.com").getValue().getId()).isEqualTo(1L);
+
+        // when
+        userCredentialCache.evict("ssar@nate.com");
+
+        // then
+        Assertions.assertThat(userCredentialCache.get("ssar@nate.com")).isNull();
+    }
+
+    @Test
+    public void unknown_email_cached_test() {
+        userCredentialCache.put("abc@nate.com", null, userCredentialCache.version());
+
+        LocalTtlCache.Entry<UserCredentialCache.Credential> entry = userCredentialCache.get("abc@nate.com");
+
+        Assertions.assertThat(entry).isNotNull();
+        Assertions.assertThat(entry.getValue()).isNull();
+    }
+
+    @Test
+    public void cached_value_detached_from_entity_test() {
+        User ssar = newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15);
+        userCredentialCache.put("ssar@nate.com", ssar, userCredentialCache.version());
+
+        // when: 넣은 엔티티를 바꿔도, 꺼낸 User 를 바꿔도 캐시 값은 그대로
+        ssar.changePassword("changed");
+        User first = userCredentialCache.get("ssar@nate.com").getValue().toUser();
+        first.setRole(UserRole.ROLE_ADMIN);
+        User second = userCredentialCache.get("ssar@nate.com").getValue().toUser();
+
+        // then
+        Assertions.assertThat(second).isNotSameAs(first);
+        Assertions.assertThat(second.getPassword()).isNotEqualTo("changed");
+        Assertions.assertThat(second.getRole()).isEqualTo(UserRole.ROLE_USER);
+        Assertions.assertThat(second.getEmail()).isEqualTo("ssar@nate.com");
+    }
+
+    @Test
+    public void stale_load_not_cached_test() {
+        // DB 에서 읽는 사이에 개인정보수정으로 무효화됨
+        long version = userCredentialCache.version();
+        userCredentialCache.evict("cos@nate.com");
+
+        userCredentialCache.put("cos@nate.com", newMockUser(2L, "박코스", "cos@nate.com", 15), version);
+
+        Assertions.assertThat(userCredentialCache.get("cos@nate.com")).isNull();
+        Assertions.assertThat(userCredentialCache.size()).isZero();
+    }
+}
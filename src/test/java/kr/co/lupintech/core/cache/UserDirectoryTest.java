@@ -0,0 +1,103 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.model.user.UserRole;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserDirectoryTest extends DummyEntity {
+
+    @InjectMocks
+    private UserDirectory userDirectory;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    public void managerIds_test() {
+        // given
+        User admin = newMockUser(2L, "관리자", "admin@nate.com", 15);
+        admin.setRole(UserRole.ROLE_ADMIN);
+        when(userRepository.findAllActive()).thenReturn(Arrays.asList(newMockUser(1L, "박코스", "cos@nate.com", 15), admin));
+
+        // when
+        userDirectory.managerIds();
+        userDirectory.managerIds();
+
+        // then (처음 한 번만 DB 조회)
+        Assertions.assertThat(userDirectory.managerIds()).containsExactly(2L);
+        verify(userRepository, times(1)).findAllActive();
+        Assertions.assertThat(userDirectory.getRefreshCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void put_remove_test() {
+        // given
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        when(userRepository.findAllActive()).thenReturn(Arrays.asList(cos));
+        userDirectory.refresh();
+
+        // when (권한수정)
+        cos.setRole(UserRole.ROLE_MASTER);
+        userDirectory.put(cos);
+
+        // then
+        Assertions.assertThat(userDirectory.managerIds()).containsExactly(1L);
+        Assertions.assertThat(userDirectory.idsByRoles(EnumSet.of(UserRole.ROLE_USER))).isEmpty();
+
+        // when (퇴사)
+        userDirectory.remove(1L);
+
+        // then
+        Assertions.assertThat(userDirectory.managerIds()).isEmpty();
+        Assertions.assertThat(userDirectory.get(1L)).isEmpty();
+        Assertions.assertThat(userDirectory.contains(1L)).isFalse();
+        Assertions.assertThat(userDirectory.getUpdateCount()).isEqualTo(2);
+
+        // when (퇴사한 사원을 다시 put 해도 재직자만 둔다)
+        cos.resign();
+        userDirectory.put(cos);
+
+        // then
+        Assertions.assertThat(userDirectory.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void refresh_keeps_update_committed_during_load_test() {
+        // given: 다시 읽는 동안 다른 요청이 권한수정/퇴사를 커밋 (읽은 값은 그 전 상태)
+        User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
+        User ssar = newMockUser(2L, "김쌀쌀", "ssar@nate.com", 15);
+        when(userRepository.findAllActive()).thenReturn(Arrays.asList(cos, ssar));
+        userDirectory.refresh();
+        when(userRepository.findAllActive()).thenAnswer(invocation -> {
+            User promoted = newMockUser(1L, "박코스", "cos@nate.com", 15);
+            promoted.setRole(UserRole.ROLE_ADMIN);
+            userDirectory.put(promoted);
+            userDirectory.remove(2L);
+            return Arrays.asList(newMockUser(1L, "박코스", "cos@nate.com", 15), newMockUser(2L, "김쌀쌀", "ssar@nate.com", 15));
+        });
+
+        // when
+        userDirectory.refresh();
+
+        // then
+        Assertions.assertThat(userDirectory.managerIds()).containsExactly(1L);
+        Assertions.assertThat(userDirectory.get(2L)).isEmpty();
+    }
+}
@@ -0,0 +1,96 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSearchIndexTest extends DummyEntity {
+
+    @InjectMocks
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @BeforeEach
+    public void setUp() {
+        when(userRepository.findAllActive()).thenReturn(Arrays.asList(
+                newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15),
+                newMockUser(2L, "박코스", "cos@nate.com", 15),
+                newMockUser(3L, "김신입", "newcomer@nate.com", 1),
+                newMockUser(4L, "김진진", "jin@nate.com", 17)));
+        userSearchIndex.refresh();
+    }
+
+    @Test
+    public void search_name_and_email_test() {
+        Assertions.assertThat(userSearchIndex.search("김")).containsExactly(1L, 3L, 4L);
+        Assertions.assertThat(userSearchIndex.search("신입")).containsExactly(3L);
+        Assertions.assertThat(userSearchIndex.search("COMER")).containsExactly(3L);
+        Assertions.assertThat(userSearchIndex.search("cos@nate.com")).containsExactly(2L);
+        Assertions.assertThat(userSearchIndex.search("없는사람")).isEmpty();
+    }
+
+    @Test
+    public void search_choseong_test() {
+        Assertions.assertThat(userSearchIndex.search("ㄱㅅ")).containsExactly(3L); // 김쌀쌀은 ㄱㅆㅆ
+        Assertions.assertThat(userSearchIndex.search("김ㅈ")).containsExactly(4L);
+        Assertions.assertThat(userSearchIndex.search("ㅋㅅ")).containsExactly(2L);
+    }
+
+    @Test
+    public void put_remove_test() {
+        // 사원명 변경
+        userSearchIndex.put(newMockUser(2L, "김코스", "cos@nate.com", 15));
+        Assertions.assertThat(userSearchIndex.search("박코")).isEmpty();
+        Assertions.assertThat(userSearchIndex.search("김코")).containsExactly(2L);
+
+        // 퇴사
+        userSearchIndex.remove(1L);
+        Assertions.assertThat(userSearchIndex.search("ㄱ")).containsExactly(2L, 3L, 4L);
+
+        // 퇴사한 사원의 정보 수정은 색인에서 빼기
+        User resigned = newMockUser(4L, "김진진", "jin@nate.com", 17);
+        resigned.resign();
+        userSearchIndex.put(resigned);
+        Assertions.assertThat(userSearchIndex.search("ㄱ")).containsExactly(2L, 3L);
+        verify(userRepository, times(1)).findAllActive();
+    }
+
+    @Test
+    public void refresh_keeps_update_committed_during_load_test() {
+        // given: 다시 읽는 동안 다른 요청이 사원명 변경/퇴사를 커밋 (읽은 값은 그 전 상태)
+        when(userRepository.findAllActive()).thenAnswer(invocation -> {
+            userSearchIndex.put(newMockUser(2L, "김코스", "cos@nate.com", 15));
+            userSearchIndex.remove(1L);
+            return Arrays.asList(
+                    newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15),
+                    newMockUser(2L, "박코스", "cos@nate.com", 15));
+        });
+
+        // when
+        userSearchIndex.refresh();
+
+        // then
+        Assertions.assertThat(userSearchIndex.search("김코")).containsExactly(2L);
+        Assertions.assertThat(userSearchIndex.search("박코")).isEmpty();
+        Assertions.assertThat(userSearchIndex.search("쌀쌀")).isEmpty();
+        Assertions.assertThat(userSearchIndex.size()).isEqualTo(1);
+    }
+}
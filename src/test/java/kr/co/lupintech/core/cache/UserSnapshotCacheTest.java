@@ -0,0 +1,68 @@
+package kr.co.lupintech.core.cache;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.CacheInvalidationBus;
+import kr.co.lupintech.model.user.UserRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserSnapshotCacheTest extends DummyEntity {
+
+    @InjectMocks
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    public void get_loads_once_test() {
+        // given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(newMockUser(1L, "박코스", "cos@nate.com", 15)));
+
+        // when
+        userSnapshotCache.get(1L);
+        UserSnapshotCache.Snapshot snapshot = userSnapshotCache.get(1L).orElseThrow();
+
+        // then (처음 한 번만 DB 조회)
+        Assertions.assertThat(snapshot.getUsername()).isEqualTo("박코스");
+        Assertions.assertThat(snapshot.getRemainDays()).isEqualTo(15);
+        Assertions.assertThat(userSnapshotCache.getHitCount()).isEqualTo(1);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void evict_reloads_test() {
+        // given
+        when(userRepository.findById(1L)).thenReturn(
+                Optional.of(newMockUser(1L, "박코스", "cos@nate.com", 15)),
+                Optional.of(newMockUser(1L, "박코스", "cos@nate.com", 14)));
+        userSnapshotCache.get(1L);
+
+        // when (연차 사용)
+        userSnapshotCache.evict(1L);
+
+        // then
+        Assertions.assertThat(userSnapshotCache.get(1L).orElseThrow().getRemainDays()).isEqualTo(14);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    public void unknown_user_test() {
+        when(userRepository.findById(9L)).thenReturn(Optional.empty());
+
+        Assertions.assertThat(userSnapshotCache.get(9L)).isEmpty();
+        Assertions.assertThat(userSnapshotCache.size()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+package kr.co.lupintech.core.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.co.lupintech.model.outbox.SseOutbox;
+import kr.co.lupintech.model.outbox.SseOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxCacheInvalidationBusTest {
+
+    private OutboxCacheInvalidationBus localBus;
+    private OutboxCacheInvalidationBus remoteBus;
+
+    @Mock
+    private SseOutboxRepository sseOutboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<CacheInvalidationBus.Listener> listenerProvider;
+
+    @Mock
+    private CacheInvalidationBus.Listener listener;
+
+    @BeforeEach
+    public void setUp() {
+        localBus = new OutboxCacheInvalidationBus(sseOutboxRepository, new ObjectMapper(), transactionManager, listenerProvider);
+        remoteBus = new OutboxCacheInvalidationBus(sseOutboxRepository, new ObjectMapper(), transactionManager, listenerProvider);
+    }
+
+    @Test
+    public void publish_receive_test() {
+        // given
+        when(listener.cacheName()).thenReturn("userDirectory");
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(listener));
+
+        // when: 이 서버가 쓴 행을 다른 서버가 폴링
+        localBus.publish("userDirectory", "1");
+        ArgumentCaptor<SseOutbox> captor = ArgumentCaptor.forClass(SseOutbox.class);
+        verify(sseOutboxRepository).save(captor.capture());
+        remoteBus.receive(captor.getValue());
+
+        // then
+        verify(listener).onRemoteInvalidation("1");
+    }
+
+    @Test
+    public void receive_own_origin_test() {
+        // given
+        localBus.publish("userDirectory", "1");
+        ArgumentCaptor<SseOutbox> captor = ArgumentCaptor.forClass(SseOutbox.class);
+        verify(sseOutboxRepository).save(captor.capture());
+
+        // when: 자기가 쓴 행은 이미 비웠으므로 건너뛴다
+        localBus.receive(captor.getValue());
+
+        // then
+        verifyNoInteractions(listener);
+    }
+}
@@ -0,0 +1,171 @@
+package kr.co.lupintech.core.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kr.co.lupintech.model.outbox.SseOutbox;
+import kr.co.lupintech.model.outbox.SseOutboxRepository;
+import kr.co.lupintech.service.SseService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxSseEventBusTest {
+
+    private OutboxSseEventBus outboxSseEventBus;
+
+    @Mock
+    private SseOutboxRepository sseOutboxRepository;
+
+    @Mock
+    private SseService sseService;
+
+    @Mock
+    private OutboxCacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        outboxSseEventBus = new OutboxSseEventBus(sseOutboxRepository, sseService, new ObjectMapper(), cacheInvalidationBus, transactionManager);
+    }
+
+    @Test
+    public void sendToUsers_test() {
+        outboxSseEventBus.sendToUsers(Arrays.asList(1L, 2L), "alarm", "{}");
+
+        verify(sseOutboxRepository).save(argThat(outbox -> outbox.getUserIds().equals("1,2") && outbox.getEventName().equals("alarm")));
+        // 호출한 쪽 트랜잭션(읽기 전용일 수 있음)과 따로 커밋
+        verify(transactionManager).getTransaction(argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verifyNoInteractions(sseService); // 이 서버의 연결에도 폴링으로 보낸다
+    }
+
+    @Test
+    public void poll_test() {
+        // given
+        when(sseOutboxRepository.findMaxId()).thenReturn(10L);
+        when(sseOutboxRepository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(Arrays.asList(
+                outbox(11L, "1,2", LocalDateTime.now()),
+                outbox(12L, "3", LocalDateTime.now())));
+
+        // when
+        int delivered = outboxSseEventBus.poll();
+
+        // then
+        Assertions.assertThat(delivered).isEqualTo(2);
+        verify(sseService).sendToUsers(Arrays.asList(1L, 2L), "alarm", "{}", 11L);
+        verify(sseService).sendToUsers(Arrays.asList(3L), "alarm", "{}", 12L);
+    }
+
+    @Test
+    public void poll_gap_wait_test() {
+        // given: 11번이 아직 커밋 전
+        when(sseOutboxRepository.findMaxId()).thenReturn(10L);
+        when(sseOutboxRepository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(Arrays.asList(
+                outbox(12L, "1", LocalDateTime.now())));
+
+        // when
+        int delivered = outboxSseEventBus.poll();
+
+        // then
+        Assertions.assertThat(delivered).isEqualTo(0);
+        verify(sseService, never()).sendToUsers(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    public void poll_gap_skip_test() {
+        // given: 11번은 롤백되어 영영 오지 않음
+        when(sseOutboxRepository.findMaxId()).thenReturn(10L);
+        when(sseOutboxRepository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(Arrays.asList(
+                outbox(12L, "1", LocalDateTime.now().minusMinutes(1))));
+
+        // when
+        int delivered = outboxSseEventBus.poll();
+
+        // then
+        Assertions.assertThat(delivered).isEqualTo(1);
+    }
+
+    @Test
+    public void poll_cache_test() {
+        // given: 캐시 무효화 행은 sse 로 보내지 않고 캐시 버스로 넘긴다
+        SseOutbox cache = outbox(11L, "", LocalDateTime.now(), "cache:userDirectory");
+        when(sseOutboxRepository.findMaxId()).thenReturn(10L);
+        when(sseOutboxRepository.findTop500ByIdGreaterThanOrderByIdAsc(10L)).thenReturn(Arrays.asList(
+                cache,
+                outbox(12L, "1", LocalDateTime.now())));
+
+        // when
+        int delivered = outboxSseEventBus.poll();
+
+        // then
+        Assertions.assertThat(delivered).isEqualTo(2);
+        verify(cacheInvalidationBus).receive(cache);
+        verify(sseService).sendToUsers(Arrays.asList(1L), "alarm", "{}", 12L);
+        verifyNoMoreInteractions(sseService);
+    }
+
+    @Test
+    public void replay_test() {
+        // given: 이 서버는 13번까지 보냈고, 클라이언트는 10번까지 받았다
+        SseReplaySource.Sink sink = mock(SseReplaySource.Sink.class);
+        Runnable register = mock(Runnable.class);
+        when(sseOutboxRepository.findMaxId()).thenReturn(13L);
+        when(sseOutboxRepository.findMinId()).thenReturn(5L);
+        when(sseOutboxRepository.findTop500ByIdBetweenAndEventNameInOrderByIdAsc(11L, 13L, Collections.singleton("alarm"))).thenReturn(Arrays.asList(
+                outbox(11L, "1,2", LocalDateTime.now()),
+                outbox(12L, "2", LocalDateTime.now()),
+                outbox(13L, "1", LocalDateTime.now())));
+
+        // when
+        outboxSseEventBus.replay(1L, 10L, Collections.singleton("alarm"), register, sink);
+
+        // then: 등록하고 이 유저에게 간 것만
+        verify(register).run();
+        verify(sink).send(11L, "alarm", "{}");
+        verify(sink).send(13L, "alarm", "{}");
+        verifyNoMoreInteractions(sink);
+    }
+
+    @Test
+    public void replay_purged_test() {
+        // given: 11번은 보관 기간이 지나 지워졌다
+        SseReplaySource.Sink sink = mock(SseReplaySource.Sink.class);
+        when(sseOutboxRepository.findMaxId()).thenReturn(13L);
+        when(sseOutboxRepository.findMinId()).thenReturn(12L);
+        when(sseOutboxRepository.findTop500ByIdBetweenAndEventNameInOrderByIdAsc(11L, 13L, Collections.singleton("alarm"))).thenReturn(Arrays.asList(
+                outbox(13L, "1", LocalDateTime.now())));
+
+        // when
+        outboxSseEventBus.replay(1L, 10L, Collections.singleton("alarm"), () -> { }, sink);
+
+        // then
+        verify(sink).send(13L, "resync", "missed events");
+        verifyNoMoreInteractions(sink);
+    }
+
+    private SseOutbox outbox(Long id, String userIds, LocalDateTime createdAt) {
+        return outbox(id, userIds, createdAt, "alarm");
+    }
+
+    private SseOutbox outbox(Long id, String userIds, LocalDateTime createdAt, String eventName) {
+        SseOutbox outbox = new SseOutbox(userIds, eventName, "{}");
+        ReflectionTestUtils.setField(outbox, "id", id);
+        ReflectionTestUtils.setField(outbox, "createdAt", createdAt);
+        return outbox;
+    }
+}
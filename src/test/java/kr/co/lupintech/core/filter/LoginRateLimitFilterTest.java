@@ -0,0 +1,88 @@
+package kr.co.lupintech.core.filter;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+public class LoginRateLimitFilterTest {
+
+    private static final String BODY = "{\"email\":\"ssar@nate.com\",\"password\":\"1234\"}";
+
+    @Test
+    public void body_passed_through_test() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(new LoginRateLimiter(5, 5, 30, 30, 100));
+        MockFilterChain chain = new MockFilterChain();
+
+        // when
+        filter.doFilter(loginRequest(BODY, "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        // then: 컨트롤러는 미리 읽힌 본문을 그대로 다시 읽는다
+        Assertions.assertThat(chain.getRequest()).isNotNull();
+        String body = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        Assertions.assertThat(body).isEqualTo(BODY);
+        Assertions.assertThat(chain.getRequest().getInputStream().isFinished()).isTrue();
+    }
+
+    @Test
+    public void large_body_passed_through_test() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(new LoginRateLimiter(5, 5, 30, 30, 100));
+        MockFilterChain chain = new MockFilterChain();
+        String large = "{\"email\":\"ssar@nate.com\",\"password\":\"" + "a".repeat(10_000) + "\"}";
+
+        // when
+        filter.doFilter(loginRequest(large, "10.0.0.1"), new MockHttpServletResponse(), chain);
+
+        // then: 미리 읽은 앞부분 뒤에 남은 부분이 이어진다
+        String body = chain.getRequest().getReader().lines().collect(Collectors.joining());
+        Assertions.assertThat(body).isEqualTo(large);
+    }
+
+    @Test
+    public void too_many_requests_test() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(new LoginRateLimiter(1, 1, 30, 30, 100));
+        filter.doFilter(loginRequest(BODY, "10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when: 같은 이메일로 두 번째 시도
+        filter.doFilter(loginRequest(BODY, "10.0.0.2"), response, chain);
+
+        // then: 컨트롤러까지 가지 않고 429
+        Assertions.assertThat(chain.getRequest()).isNull();
+        Assertions.assertThat(response.getStatus()).isEqualTo(429);
+        Assertions.assertThat(Long.parseLong(response.getHeader("Retry-After"))).isPositive();
+        Assertions.assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains("tooManyRequests");
+    }
+
+    @Test
+    public void not_post_skipped_test() throws Exception {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(1, 1, 1, 1, 100);
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(loginRateLimiter);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login");
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            Assertions.assertThat(chain.getRequest()).isSameAs(request);
+        }
+
+        // then
+        Assertions.assertThat(loginRateLimiter.getAllowedCount()).isZero();
+    }
+
+    private MockHttpServletRequest loginRequest(String body, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setContentType("application/json; charset=utf-8");
+        request.setCharacterEncoding("utf-8");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
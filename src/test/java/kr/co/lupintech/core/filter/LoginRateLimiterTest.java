@@ -0,0 +1,50 @@
+package kr.co.lupintech.core.filter;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LoginRateLimiterTest {
+
+    @Test
+    public void email_limit_test() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(3, 1, 100, 100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThat(loginRateLimiter.tryAcquire("ssar@nate.com", "10.0.0.1")).isZero();
+        }
+
+        // 대소문자만 다른 이메일도 같은 버킷
+        Assertions.assertThat(loginRateLimiter.tryAcquire("SSAR@nate.com", "10.0.0.2")).isPositive();
+        Assertions.assertThat(loginRateLimiter.tryAcquire("cos@nate.com", "10.0.0.1")).isZero();
+        Assertions.assertThat(loginRateLimiter.getEmailRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void ip_limit_test() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(100, 100, 2, 1, 100);
+
+        Assertions.assertThat(loginRateLimiter.tryAcquire("a@nate.com", "10.0.0.1")).isZero();
+        Assertions.assertThat(loginRateLimiter.tryAcquire("b@nate.com", "10.0.0.1")).isZero();
+
+        // 이메일을 바꿔도 같은 IP 는 막힌다
+        long retryAfter = loginRateLimiter.tryAcquire("c@nate.com", "10.0.0.1");
+
+        Assertions.assertThat(retryAfter).isBetween(1L, 60L);
+        Assertions.assertThat(loginRateLimiter.getIpRejectedCount()).isEqualTo(1);
+        Assertions.assertThat(loginRateLimiter.getAllowedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void max_keys_test() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(1, 1, 100, 100, 2);
+
+        loginRateLimiter.tryAcquire("a@nate.com", null);
+        loginRateLimiter.tryAcquire("b@nate.com", null);
+
+        // 맵이 가득 차고 다시 찬 버킷도 없으면 새 키는 제한하지 않는다
+        Assertions.assertThat(loginRateLimiter.tryAcquire("c@nate.com", null)).isZero();
+        Assertions.assertThat(loginRateLimiter.tryAcquire("c@nate.com", null)).isZero();
+        Assertions.assertThat(loginRateLimiter.getOverflowCount()).isEqualTo(2);
+        Assertions.assertThat(loginRateLimiter.size()).isEqualTo(2);
+    }
+}
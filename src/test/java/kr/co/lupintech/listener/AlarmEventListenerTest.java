@@ -0,0 +1,84 @@
+package kr.co.lupintech.listener;
+
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.event.AlarmEvent;
+import kr.co.lupintech.core.event.SseEventBus;
+import kr.co.lupintech.dto.alarm.AlarmResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AlarmEventListenerTest extends DummyEntity {
+
+    @InjectMocks
+    private AlarmEventListener alarmEventListener;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private SseEventBus sseEventBus;
+
+    @AfterEach
+    public void tearDown() {
+        alarmEventListener.shutdown();
+    }
+
+    @Test
+    public void onAlarm_managers_test() {
+        // given
+        when(userDirectory.managerIds()).thenReturn(Arrays.asList(2L, 3L));
+        AlarmResponse.AlarmOutDTO alarm = new AlarmResponse.AlarmOutDTO();
+        alarm.setId(1L);
+
+        // when
+        alarmEventListener.onAlarm(AlarmEvent.toManagers(alarm));
+
+        // then
+        verify(sseEventBus, timeout(1000)).sendToUsers(Arrays.asList(2L, 3L), "alarm", alarm);
+    }
+
+    @Test
+    public void onAlarm_user_test() {
+        // given
+        AlarmResponse.AlarmOutDTO alarm = new AlarmResponse.AlarmOutDTO();
+        alarm.setId(1L);
+
+        // when
+        alarmEventListener.onAlarm(AlarmEvent.toUser(1L, alarm));
+
+        // then
+        verify(sseEventBus, timeout(1000)).sendToUser(eq(1L), eq("alarm"), eq(alarm));
+        verify(userDirectory, never()).managerIds();
+    }
+
+    @Test
+    public void onAlarm_send_failed_test() {
+        // given: 한 건이 실패해도 다음 알람은 보낸다
+        when(userDirectory.managerIds()).thenReturn(Collections.emptyList());
+        doThrow(new RuntimeException("fail")).when(sseEventBus).sendToUsers(any(), any(), any());
+        AlarmResponse.AlarmOutDTO first = new AlarmResponse.AlarmOutDTO();
+        first.setId(1L);
+        AlarmResponse.AlarmOutDTO second = new AlarmResponse.AlarmOutDTO();
+        second.setId(2L);
+
+        // when
+        alarmEventListener.onAlarm(AlarmEvent.toManagers(first));
+        alarmEventListener.onAlarm(AlarmEvent.toUser(1L, second));
+
+        // then
+        verify(sseEventBus, timeout(1000)).sendToUser(eq(1L), eq("alarm"), eq(second));
+    }
+}
@@ -11,12 +11,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import kr.co.lupintech.core.dummy.DummyEntity;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 
 @ActiveProfiles("test")
@@ -33,6 +35,8 @@ public class AlarmRepositoryTest extends DummyEntity {
     @Autowired
     private EntityManager em;
 
+    private Long leaveId;
+
     @BeforeEach
     public void setUp() {
         em.createNativeQuery("ALTER TABLE user_tb ALTER COLUMN `id` RESTART WITH 1").executeUpdate();
@@ -51,6 +55,7 @@ public class AlarmRepositoryTest extends DummyEntity {
                 .status(LeaveStatus.APPROVAL)
                 .build();
         Leave leavePS = leaveRepository.save(leave);
+        leaveId = leavePS.getId();
         alarmRepository.save(newMockAlarm(1L, ssar, leavePS));
         em.clear();
     }
@@ -73,4 +78,18 @@ public class AlarmRepositoryTest extends DummyEntity {
         Assertions.assertThat(alarmPS.getCreatedAt().toLocalDate()).isEqualTo(LocalDate.now());
         Assertions.assertThat(alarmPS.getUpdatedAt()).isNull();
     }
+
+    @Test
+    public void findFeed_updateLeaveStatus() {
+        // given
+        LocalDateTime first = LocalDateTime.of(9999, 12, 31, 0, 0);
+        Assertions.assertThat(alarmRepository.findFeedByUserId(1L, EnumSet.of(LeaveStatus.APPROVAL), first, Long.MAX_VALUE, PageRequest.of(0, 10))).hasSize(1);
+
+        // when: 신청 상태가 바뀌면 알람도 같이
+        alarmRepository.updateLeaveStatus(leaveId, LeaveStatus.REJECTION);
+
+        // then
+        Assertions.assertThat(alarmRepository.findFeed(EnumSet.of(LeaveStatus.APPROVAL), first, Long.MAX_VALUE, PageRequest.of(0, 10))).isEmpty();
+        Assertions.assertThat(alarmRepository.findFeed(EnumSet.of(LeaveStatus.REJECTION), first, Long.MAX_VALUE, PageRequest.of(0, 10))).hasSize(1);
+    }
 }
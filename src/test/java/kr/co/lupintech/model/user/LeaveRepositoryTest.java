@@ -19,6 +19,8 @@ import javax.persistence.EntityManager;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Import(BCryptPasswordEncoder.class)
 @ActiveProfiles("test")
@@ -218,4 +220,67 @@ public class LeaveRepositoryTest extends DummyEntity {
         // then
         Assertions.assertThat(isAllRecjection).isEqualTo(false);
     }
+
+    @Test
+    public void findOverlapping(){
+        // given
+        userRepository.save(newUser("박코스", "cos@nate.com", true, LocalDate.now().minusYears(1).minusWeeks(1), 15));
+        User cos = userRepository.findById(2L).orElseThrow(
+                () -> new RuntimeException("테스트 중 findById 에러 : 2번 유저가 없습니다")
+        );
+        leaveRepository.save(newLeave(cos, LeaveType.ANNUAL, LocalDate.parse("2023-06-28"),
+                LocalDate.parse("2023-07-03"), 4, LeaveStatus.APPROVAL)); // 시작일에 걸침
+        leaveRepository.save(newLeave(cos, LeaveType.ANNUAL, LocalDate.parse("2023-05-01"),
+                LocalDate.parse("2023-05-03"), 3, LeaveStatus.APPROVAL)); // 기간 밖
+        em.clear();
+
+        // when
+        List<Leave> leavePSs = leaveRepository.findOverlapping(LocalDate.parse("2023-07-01"), LocalDate.parse("2023-07-31"));
+
+        // then
+        Assertions.assertThat(leavePSs).hasSize(2);
+        Assertions.assertThat(leavePSs.get(0).getStartDate()).isEqualTo(LocalDate.parse("2023-07-25"));
+        Assertions.assertThat(leavePSs.get(1).getStartDate()).isEqualTo(LocalDate.parse("2023-06-28"));
+        Assertions.assertThat(leavePSs.get(1).getUser().getUsername()).isEqualTo("박코스"); // join fetch
+    }
+
+    @Test
+    public void streamForExport(){
+        // given (beforeEach 1건 : 김쌀쌀 DUTY 2023-07-25 WAITING)
+        userRepository.save(newUser("박코스", "cos@nate.com", true, LocalDate.now().minusYears(1).minusWeeks(1), 15));
+        User cos = userRepository.findById(2L).orElseThrow(
+                () -> new RuntimeException("테스트 중 findById 에러 : 2번 유저가 없습니다")
+        );
+        leaveRepository.save(newLeave(cos, LeaveType.ANNUAL, LocalDate.parse("2023-06-28"),
+                LocalDate.parse("2023-07-03"), 4, LeaveStatus.APPROVAL)); // 2번, 시작일에 걸침
+        leaveRepository.save(newLeave(cos, LeaveType.ANNUAL, LocalDate.parse("2023-05-01"),
+                LocalDate.parse("2023-05-03"), 3, LeaveStatus.APPROVAL)); // 3번, 기간 밖
+        leaveRepository.save(newLeave(cos, LeaveType.ANNUAL, LocalDate.parse("2023-07-10"),
+                LocalDate.parse("2023-07-11"), 2, LeaveStatus.WAITING)); // 4번
+        em.clear();
+        LocalDate start = LocalDate.parse("2023-07-01");
+        LocalDate end = LocalDate.parse("2023-07-31");
+
+        // when & then
+        Assertions.assertThat(exportIds(null, null, null, null)).containsExactly(1L, 2L, 3L, 4L); // 조건 없으면 전체, id 순
+        Assertions.assertThat(exportIds(start, end, null, null)).containsExactly(1L, 2L, 4L); // 기간에 걸친 것
+        Assertions.assertThat(exportIds(start, null, null, null)).containsExactly(1L, 2L, 4L); // 시작일만
+        Assertions.assertThat(exportIds(null, LocalDate.parse("2023-06-30"), null, null)).containsExactly(2L, 3L); // 종료일만
+        Assertions.assertThat(exportIds(start, end, LeaveStatus.WAITING, null)).containsExactly(1L, 4L);
+        Assertions.assertThat(exportIds(start, end, null, LeaveType.ANNUAL)).containsExactly(2L, 4L);
+        Assertions.assertThat(exportIds(start, end, LeaveStatus.WAITING, LeaveType.DUTY)).containsExactly(1L);
+        Assertions.assertThat(exportIds(start, end, LeaveStatus.REJECTION, null)).isEmpty();
+
+        // join fetch 로 user 를 같이 가져온다
+        try (Stream<Leave> leaves = leaveRepository.streamForExport(start, end, null, LeaveType.DUTY)) {
+            Assertions.assertThat(leaves.map(leave -> leave.getUser().getUsername()).collect(Collectors.toList()))
+                    .containsExactly("김쌀쌀");
+        }
+    }
+
+    private List<Long> exportIds(LocalDate start, LocalDate end, LeaveStatus status, LeaveType type) {
+        try (Stream<Leave> leaves = leaveRepository.streamForExport(start, end, status, type)) {
+            return leaves.map(Leave::getId).collect(Collectors.toList());
+        }
+    }
 }
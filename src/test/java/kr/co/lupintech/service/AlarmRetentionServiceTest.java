@@ -0,0 +1,113 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.dummy.DummyEntity;
+import kr.co.lupintech.core.factory.AlarmFactory;
+import kr.co.lupintech.model.alarm.AlarmArchiveRepository;
+import kr.co.lupintech.model.alarm.AlarmRepository;
+import kr.co.lupintech.model.leave.Leave;
+import kr.co.lupintech.model.leave.LeaveRepository;
+import kr.co.lupintech.model.leave.enums.LeaveStatus;
+import kr.co.lupintech.model.leave.enums.LeaveType;
+import kr.co.lupintech.model.user.User;
+import kr.co.lupintech.model.user.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Transactional
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+        properties = {"alarm.retention.batch-size=2", "alarm.retention.pause-ms=0"})
+public class AlarmRetentionServiceTest {
+    @Autowired
+    private AlarmRetentionService alarmRetentionService;
+
+    @Autowired
+    private AlarmRepository alarmRepository;
+
+    @Autowired
+    private AlarmArchiveRepository alarmArchiveRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LeaveRepository leaveRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private DummyEntity dummy = new DummyEntity();
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        user = userRepository.save(dummy.newUser("김보관", "archive@nate.com", true, LocalDate.now().minusYears(1).minusWeeks(1), 15));
+        saveAlarm(LeaveStatus.APPROVAL, 1);
+        saveAlarm(LeaveStatus.REJECTION, 2);
+        saveAlarm(LeaveStatus.APPROVAL, 3);
+        saveAlarm(LeaveStatus.WAITING, 4);
+        em.flush();
+        em.clear();
+    }
+
+    @DisplayName("오래된 알람 보관 (배치 여러 번, 대기 알람은 남김)")
+    @Test
+    public void archiveTest() {
+        long alarmCount = alarmRepository.count();
+        long archiveCount = alarmArchiveRepository.count();
+
+        // when (batch-size 2 -> 2번에 나눠서)
+        int moved = alarmRetentionService.알람보관(LocalDateTime.now().plusMinutes(1));
+
+        // then
+        Assertions.assertEquals(3, moved);
+        Assertions.assertEquals(alarmCount - 3, alarmRepository.count());
+        Assertions.assertEquals(archiveCount + 3, alarmArchiveRepository.count());
+        Assertions.assertEquals(3, alarmRetentionService.getLastRunCount());
+    }
+
+    @DisplayName("보관 기간 안의 알람은 옮기지 않음")
+    @Test
+    public void archiveNothingTest() {
+        int moved = alarmRetentionService.알람보관(LocalDateTime.now().minusDays(1));
+
+        Assertions.assertEquals(0, moved);
+    }
+
+    @DisplayName("leave_status 컬럼 전의 알람 상태 채우기")
+    @Test
+    public void fillLeaveStatusTest() {
+        long waitingCount = alarmRepository.countByLeaveStatus(LeaveStatus.WAITING);
+        Assertions.assertTrue(waitingCount > 0);
+        em.createNativeQuery("UPDATE alarm_tb SET leave_status = NULL").executeUpdate();
+
+        // when
+        alarmRetentionService.알람상태채우기();
+
+        // then
+        Assertions.assertEquals(waitingCount, alarmRepository.countByLeaveStatus(LeaveStatus.WAITING));
+    }
+
+    private void saveAlarm(LeaveStatus status, int plusDays) {
+        Leave leavePS = leaveRepository.save(Leave.builder()
+                .type(LeaveType.DUTY)
+                .usingDays(0)
+                .startDate(LocalDate.now().plusDays(200 + plusDays))
+                .endDate(LocalDate.now().plusDays(200 + plusDays))
+                .status(status)
+                .user(user)
+                .build());
+        alarmRepository.save(AlarmFactory.newAlarm(user, leavePS));
+    }
+}
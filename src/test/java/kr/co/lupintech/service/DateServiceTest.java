@@ -0,0 +1,113 @@
+package kr.co.lupintech.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URISyntaxException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DateServiceTest {
+
+    @InjectMocks
+    private DateService dateService;
+
+    @Mock
+    private HolidayService holidayService;
+
+    private final Set<LocalDate> holidays2023 = new HashSet<>(Arrays.asList(
+            LocalDate.parse("2023-05-05"), LocalDate.parse("2023-05-29"), LocalDate.parse("2023-06-06"),
+            LocalDate.parse("2023-12-25")));
+
+    @BeforeEach
+    public void setUp() throws URISyntaxException {
+        lenient().when(holidayService.getHolidays(anyInt())).thenAnswer(invocation ->
+                invocation.<Integer>getArgument(0) == 2023 ? holidays2023 : Collections.emptySet());
+        lenient().when(holidayService.hasYear(anyInt())).thenReturn(true);
+    }
+
+    @Test
+    public void getWeekDayCount_same_as_loop_test() throws URISyntaxException {
+        LocalDate[][] ranges = {
+                {LocalDate.parse("2023-05-05"), LocalDate.parse("2023-05-05")}, // 공휴일 하루
+                {LocalDate.parse("2023-05-01"), LocalDate.parse("2023-05-31")}, // 한 달
+                {LocalDate.parse("2023-01-01"), LocalDate.parse("2023-12-31")}, // 일 년
+                {LocalDate.parse("2023-12-20"), LocalDate.parse("2024-01-10")}, // 해 넘김
+        };
+
+        for (LocalDate[] range : ranges) {
+            Assertions.assertThat(dateService.getWeekDayCount(range[0], range[1]))
+                    .isEqualTo(loopWeekDayCount(range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void getWeekDayCount_reversed_range_test() throws URISyntaxException {
+        Assertions.assertThat(dateService.getWeekDayCount(LocalDate.parse("2023-05-10"), LocalDate.parse("2023-05-01")))
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void plusWorkingDays_test() throws URISyntaxException {
+        // 2023-05-04(목) 다음 영업일은 5일(어린이날), 6~7일(주말)을 건너뛴 8일(월)
+        Assertions.assertThat(dateService.plusWorkingDays(LocalDate.parse("2023-05-04"), 1))
+                .isEqualTo(LocalDate.parse("2023-05-08"));
+        // 2023-12-29(금) 다음 영업일은 해를 넘긴 2024-01-01(월)
+        Assertions.assertThat(dateService.plusWorkingDays(LocalDate.parse("2023-12-29"), 1))
+                .isEqualTo(LocalDate.parse("2024-01-01"));
+    }
+
+    @Test
+    public void getMonthWorkingDays_test() throws URISyntaxException {
+        // 2023년 5월 평일 23일 - 공휴일 2일
+        Assertions.assertThat(dateService.getMonthWorkingDays(YearMonth.of(2023, 5))).isEqualTo(21);
+    }
+
+    @Test
+    public void stale_index_served_while_rebuilding_test() throws Exception {
+        Assertions.assertThat(dateService.getMonthWorkingDays(YearMonth.of(2023, 5))).isEqualTo(21);
+
+        // 공휴일 캐시가 바뀜 (임시공휴일 추가)
+        holidays2023.add(LocalDate.parse("2023-05-15"));
+        when(holidayService.getVersion()).thenReturn(1L);
+
+        // 요청 스레드는 기다리지 않고 직전 인덱스로 계산
+        Assertions.assertThat(dateService.getMonthWorkingDays(YearMonth.of(2023, 5))).isEqualTo(21);
+
+        // 백그라운드에서 다시 만들어지면 반영
+        int actual = 21;
+        for (int i = 0; i < 100 && actual != 20; i++) {
+            Thread.sleep(20);
+            actual = dateService.getMonthWorkingDays(YearMonth.of(2023, 5));
+        }
+        Assertions.assertThat(actual).isEqualTo(20);
+    }
+
+    // 기존 하루씩 세는 방식
+    private int loopWeekDayCount(LocalDate startDate, LocalDate endDate) throws URISyntaxException {
+        int weekdayCount = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                if (holidayService.getHolidays(date.getYear()).contains(date)) continue;
+                weekdayCount++;
+            }
+        }
+        return weekdayCount;
+    }
+}
@@ -0,0 +1,107 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.event.SseEventBus;
+import kr.co.lupintech.core.exception.Exception403;
+import kr.co.lupintech.dto.leave.LeaveRequest;
+import kr.co.lupintech.dto.leave.LeaveResponse;
+import kr.co.lupintech.model.leave.enums.ExportFormat;
+import kr.co.lupintech.model.leave.enums.ExportStatus;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.IntConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LeaveExportServiceTest {
+
+    private LeaveExportService leaveExportService;
+
+    @Mock
+    private LeaveService leaveService;
+
+    @Mock
+    private SseEventBus sseEventBus;
+
+    @BeforeEach
+    public void setUp() {
+        leaveExportService = new LeaveExportService(leaveService, sseEventBus, 1, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        leaveExportService.shutdown();
+    }
+
+    @Test
+    public void export_csv_test() throws Exception {
+        // given
+        when(leaveService.CSV다운로드(any(), any(), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("ID\r\n1\r\n".getBytes());
+            invocation.<IntConsumer>getArgument(2).accept(1);
+            return 1;
+        });
+        LeaveRequest.ExportJobInDTO exportJobInDTO = new LeaveRequest.ExportJobInDTO();
+        exportJobInDTO.setFormat(ExportFormat.CSV);
+
+        // when
+        LeaveResponse.ExportJobOutDTO outDTO = leaveExportService.내보내기요청(exportJobInDTO, 1L);
+        LeaveResponse.ExportJobOutDTO done = waitDone(outDTO.getId(), 1L);
+
+        // then
+        Assertions.assertThat(done.getStatus()).isEqualTo(ExportStatus.DONE);
+        Assertions.assertThat(done.getRowCount()).isEqualTo(1);
+        Path file = leaveExportService.내보내기파일(outDTO.getId(), 1L).getFile();
+        Assertions.assertThat(Files.readAllBytes(file)).isEqualTo("ID\r\n1\r\n".getBytes());
+        verify(sseEventBus, atLeastOnce()).sendToUser(eq(1L), eq("export"), any());
+    }
+
+    @Test
+    public void export_other_user_test() throws Exception {
+        // given
+        when(leaveService.엑셀다운로드(any(), any(), any(IntConsumer.class))).thenReturn(0);
+        LeaveResponse.ExportJobOutDTO outDTO = leaveExportService.내보내기요청(new LeaveRequest.ExportJobInDTO(), 1L);
+        waitDone(outDTO.getId(), 1L);
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> leaveExportService.내보내기상태(outDTO.getId(), 2L))
+                .isInstanceOf(Exception403.class);
+    }
+
+    @Test
+    public void remove_expired_test() throws Exception {
+        // given
+        when(leaveService.엑셀다운로드(any(), any(), any(IntConsumer.class))).thenReturn(0);
+        LeaveResponse.ExportJobOutDTO outDTO = leaveExportService.내보내기요청(new LeaveRequest.ExportJobInDTO(), 1L);
+        waitDone(outDTO.getId(), 1L);
+        Path file = leaveExportService.내보내기파일(outDTO.getId(), 1L).getFile();
+        ReflectionTestUtils.setField(leaveExportService, "expireMinutes", -1L);
+
+        // when
+        int count = leaveExportService.만료내보내기삭제();
+
+        // then
+        Assertions.assertThat(count).isEqualTo(1);
+        Assertions.assertThat(Files.exists(file)).isFalse();
+    }
+
+    private LeaveResponse.ExportJobOutDTO waitDone(String jobId, Long userId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            LeaveResponse.ExportJobOutDTO outDTO = leaveExportService.내보내기상태(jobId, userId);
+            if (outDTO.getStatus() == ExportStatus.DONE || outDTO.getStatus() == ExportStatus.FAILED) return outDTO;
+            Thread.sleep(50);
+        }
+        throw new AssertionError("export job not finished");
+    }
+}
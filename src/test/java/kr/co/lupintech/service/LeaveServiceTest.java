@@ -1,5 +1,10 @@
 package kr.co.lupintech.service;
 
+import kr.co.lupintech.core.cache.AlarmCounter;
+import kr.co.lupintech.core.cache.LeaveCalendarCache;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
+import kr.co.lupintech.core.event.AlarmEvent;
+import kr.co.lupintech.core.event.LocalCacheInvalidationBus;
 import kr.co.lupintech.dto.leave.LeaveRequest;
 import kr.co.lupintech.dto.leave.LeaveResponse;
 import kr.co.lupintech.model.alarm.Alarm;
@@ -9,21 +14,32 @@ import kr.co.lupintech.model.leave.LeaveRepository;
 import kr.co.lupintech.model.leave.enums.LeaveType;
 import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRepository;
-import kr.co.lupintech.model.user.UserRole;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
 import kr.co.lupintech.core.dummy.DummyEntity;
 import kr.co.lupintech.model.leave.enums.LeaveStatus;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,7 +60,19 @@ public class LeaveServiceTest extends DummyEntity {
     private AlarmRepository alarmRepository;
 
     @Mock
-    private SseService sseService;
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Spy
+    private LeaveCalendarCache leaveCalendarCache = new LeaveCalendarCache(new LocalCacheInvalidationBus());
+
+    @Mock
+    private AlarmCounter alarmCounter;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
+    @Mock
+    private EntityManager entityManager;
 
     @Test
     public void 연차당직신청하기_test() throws Exception{
@@ -55,22 +83,15 @@ public class LeaveServiceTest extends DummyEntity {
         applyInDTO.setStartDate(LocalDate.parse("2023-07-20"));
         applyInDTO.setEndDate(LocalDate.parse("2023-07-20"));
 
-        User manager1 = newMockUser(2L, "Manager1", "manager1@nate.com", 15);
-        List<User> managerList = Arrays.asList(manager1);
-
-        // stub 1
+        // stub 1 (당직은 사원 스냅샷만 읽는다)
         User cos = newMockUser(1L, "박코스", "cos@nate.com", 15);
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(cos));
+        Mockito.when(userSnapshotCache.get(any())).thenReturn(Optional.of(new UserSnapshotCache.Snapshot(cos)));
 
         // stub 2
-        Set<UserRole> adminAndMasterRoles = new HashSet<>(Arrays.asList(UserRole.ROLE_ADMIN, UserRole.ROLE_MASTER));
-        Mockito.when(userRepository.findByRoles(adminAndMasterRoles)).thenReturn(managerList);
-
-        // stub 3
         Leave leave = newMockLeave(1L, cos, LeaveType.DUTY,  LocalDate.parse("2023-07-20"), LocalDate.parse("2023-07-20"), 0);
         Mockito.when(leaveRepository.save(any())).thenReturn(leave);
 
-        // stub 4
+        // stub 3
         Alarm alarm = newMockAlarm(1L, cos, leave);
         Mockito.when(alarmRepository.save(any())).thenReturn(alarm);
 
@@ -83,6 +104,12 @@ public class LeaveServiceTest extends DummyEntity {
         Assertions.assertThat(applyOutDTO.getUsingDays()).isEqualTo(0);
         Assertions.assertThat(applyOutDTO.getRemainDays()).isEqualTo(15);
         Assertions.assertThat(applyOutDTO.getStatus()).isEqualTo(WAITING);
+        // 관리자 전송은 커밋 후 리스너가 한다
+        ArgumentCaptor<AlarmEvent> eventCaptor = ArgumentCaptor.forClass(AlarmEvent.class);
+        Mockito.verify(applicationEventPublisher).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue().isToManagers()).isTrue();
+        Mockito.verify(userRepository, Mockito.never()).findByRoles(any());
+        Mockito.verify(userRepository, Mockito.never()).findById(any());
     }
 
     @Test
@@ -110,9 +137,9 @@ public class LeaveServiceTest extends DummyEntity {
         // given
         Long id = 1L;
 
-        // stub 1
+        // stub 1 (당직 취소는 사원 스냅샷만 읽는다)
         User cos = newMockUser(1L, "박코스", "cos@nate.com",8);
-        Mockito.when(userRepository.findById(any())).thenReturn(Optional.of(cos));
+        Mockito.when(userSnapshotCache.get(any())).thenReturn(Optional.of(new UserSnapshotCache.Snapshot(cos)));
 
         // stub 2
         Leave leave = newMockLeave(1L, cos, LeaveType.DUTY,  LocalDate.parse("2023-07-20"), LocalDate.parse("2023-07-20"), 1);
@@ -147,6 +174,9 @@ public class LeaveServiceTest extends DummyEntity {
 
         // then
         Assertions.assertThat(decideOutDTO.getRemainDays()).isEqualTo(14);
+        ArgumentCaptor<AlarmEvent> eventCaptor = ArgumentCaptor.forClass(AlarmEvent.class);
+        Mockito.verify(applicationEventPublisher).publishEvent(eventCaptor.capture());
+        Assertions.assertThat(eventCaptor.getValue().getTargetUserId()).isEqualTo(1L);
     }
 
     @Test
@@ -157,6 +187,7 @@ public class LeaveServiceTest extends DummyEntity {
         User user3 = User.builder().id(3L).username("김딸기").build();
 
         Leave leave1 = Leave.builder()
+                .id(1L)
                 .user(user1)
                 .type(LeaveType.ANNUAL)
                 .startDate(LocalDate.of(2023, 2, 25))
@@ -165,6 +196,7 @@ public class LeaveServiceTest extends DummyEntity {
                 .build();
 
         Leave leave2 = Leave.builder()
+                .id(2L)
                 .user(user2)
                 .type(LeaveType.DUTY)
                 .startDate(LocalDate.of(2023, 4, 3))
@@ -173,6 +205,7 @@ public class LeaveServiceTest extends DummyEntity {
                 .build();
 
         Leave leave3 = Leave.builder()
+                .id(3L)
                 .user(user3)
                 .type(LeaveType.ANNUAL)
                 .startDate(LocalDate.of(2023, 5, 27))
@@ -180,10 +213,11 @@ public class LeaveServiceTest extends DummyEntity {
                 .status(REJECTION)
                 .build();
 
-        List<Leave> leaveList = Arrays.asList(leave1, leave2, leave3);
-
         //Mockito.when(leaveRepository.findAllByUserId(any())).thenReturn(leaveList);
-        Mockito.when(leaveRepository.findAll()).thenReturn(leaveList);
+        // 달별로 조회, 4~5월에 걸친 leave2는 한 번만 나와야 함
+        Mockito.when(leaveRepository.findOverlapping(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 31))).thenReturn(Arrays.asList(leave1));
+        Mockito.when(leaveRepository.findOverlapping(LocalDate.of(2023, 4, 1), LocalDate.of(2023, 4, 30))).thenReturn(Arrays.asList(leave2));
+        Mockito.when(leaveRepository.findOverlapping(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31))).thenReturn(Arrays.asList(leave2, leave3));
 
         // when
         List<LeaveResponse.InfoOutDTO> result = leaveService.연차당직정보가져오기세달치("2023-04");
@@ -249,4 +283,67 @@ public class LeaveServiceTest extends DummyEntity {
         assertEquals(leave2.getStartDate().toString(), result.get(1).getStartDate().toString());
         assertEquals(leave2.getEndDate().toString(), result.get(1).getEndDate().toString());
     }
+
+    @Test
+    public void 엑셀다운로드_streaming_test() throws Exception {
+        // given : 행 창(100행)보다 많은 250건
+        User user = newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15);
+        List<Leave> leaves = new ArrayList<>();
+        IntStream.rangeClosed(1, 250).forEach(id -> leaves.add(newMockLeave((long) id, user, LeaveType.ANNUAL,
+                LocalDate.of(2023, 7, 3), LocalDate.of(2023, 7, 4), 2)));
+        AtomicBoolean closed = new AtomicBoolean();
+
+        LeaveRequest.ExportInDTO exportInDTO = new LeaveRequest.ExportInDTO();
+        exportInDTO.setStartDate(LocalDate.of(2023, 7, 1));
+        exportInDTO.setEndDate(LocalDate.of(2023, 7, 31));
+        exportInDTO.setStatus(WAITING);
+        exportInDTO.setType(LeaveType.ANNUAL);
+        Mockito.when(leaveRepository.streamForExport(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 31), WAITING, LeaveType.ANNUAL))
+                .thenReturn(leaves.stream().onClose(() -> closed.set(true)));
+
+        // when
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        List<Integer> progress = new ArrayList<>();
+        int rowCount = leaveService.엑셀다운로드(exportInDTO, outputStream, progress::add);
+
+        // then
+        Assertions.assertThat(rowCount).isEqualTo(250);
+        Assertions.assertThat(progress).containsExactly(99, 199, 250);
+        Assertions.assertThat(closed).isTrue(); // 커서를 닫는다
+        Mockito.verify(entityManager, Mockito.times(250)).detach(any(Leave.class)); // 읽은 행은 영속성 컨텍스트에서 뗀다
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Leaves");
+            Assertions.assertThat(sheet.getLastRowNum()).isEqualTo(250);
+            Assertions.assertThat(sheet.getRow(0).getCell(2).getStringCellValue()).isEqualTo("User Name");
+            Assertions.assertThat(sheet.getRow(250).getCell(0).getNumericCellValue()).isEqualTo(250);
+            Assertions.assertThat(sheet.getRow(250).getCell(2).getStringCellValue()).isEqualTo("김쌀쌀");
+        }
+    }
+
+    @Test
+    public void CSV다운로드_formula_injection_test() throws Exception {
+        // given : 수식으로 시작하는 이름
+        List<Leave> leaves = Arrays.asList(
+                newMockLeave(1L, newMockUser(1L, "=HYPERLINK(\"http://evil\",\"x\")", "a@nate.com", 15), LeaveType.ANNUAL,
+                        LocalDate.of(2023, 7, 3), LocalDate.of(2023, 7, 3), 1),
+                newMockLeave(2L, newMockUser(2L, "-1+2", "b@nate.com", 15), LeaveType.ANNUAL,
+                        LocalDate.of(2023, 7, 4), LocalDate.of(2023, 7, 4), 1),
+                newMockLeave(3L, newMockUser(3L, "@SUM(A1)", "c@nate.com", 15), LeaveType.ANNUAL,
+                        LocalDate.of(2023, 7, 5), LocalDate.of(2023, 7, 5), 1),
+                newMockLeave(4L, newMockUser(4L, "김쌀쌀", "d@nate.com", 15), LeaveType.ANNUAL,
+                        LocalDate.of(2023, 7, 6), LocalDate.of(2023, 7, 6), 1));
+        Mockito.when(leaveRepository.streamForExport(null, null, null, null)).thenReturn(leaves.stream());
+
+        // when
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        leaveService.CSV다운로드(new LeaveRequest.ExportInDTO(), outputStream, rowCount -> {});
+
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\r\n");
+        Assertions.assertThat(lines).hasSize(5);
+        Assertions.assertThat(lines[1]).isEqualTo("1,1,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",ANNUAL,2023-07-03,2023-07-03,1,WAITING");
+        Assertions.assertThat(lines[2]).isEqualTo("2,2,'-1+2,ANNUAL,2023-07-04,2023-07-04,1,WAITING");
+        Assertions.assertThat(lines[3]).isEqualTo("3,3,'@SUM(A1),ANNUAL,2023-07-05,2023-07-05,1,WAITING");
+        Assertions.assertThat(lines[4]).isEqualTo("4,4,김쌀쌀,ANNUAL,2023-07-06,2023-07-06,1,WAITING");
+    }
 }
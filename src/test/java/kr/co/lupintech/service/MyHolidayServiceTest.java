@@ -1,26 +1,42 @@
 package kr.co.lupintech.service;
 
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
 
 @ExtendWith(MockitoExtension.class)
 class MyHolidayServiceTest {
     @InjectMocks
     private HolidayService holidayService;
 
+    @Mock
+    private RestTemplate restTemplate;
+
     @BeforeEach
     void setUp() {
 //        myHolidayService = new MyHolidayService("키값직접넣어줘야함");
+        ReflectionTestUtils.setField(holidayService, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(holidayService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(holidayService, "maxMonths", 60);
     }
 
     @Test
@@ -37,4 +53,36 @@ class MyHolidayServiceTest {
         // then
 //        Assertions.assertThat(actual).isEqualTo(expected);
     }
+
+    @Test
+    void getHolidays_cache_test() throws URISyntaxException {
+        // given
+        String response = "{\"item\":[{\"locdate\":20230505},{\"locdate\":20230527},{\"locdate\":20230529}]}";
+        when(restTemplate.getForObject(any(URI.class), eq(String.class))).thenReturn(response);
+
+        // when
+        Set<LocalDate> first = holidayService.getHolidays("2023", "05");
+        Set<LocalDate> second = holidayService.getHolidays("2023", "05");
+
+        // then
+        Assertions.assertThat(first).containsExactlyInAnyOrder(LocalDate.parse("2023-05-05"),
+                LocalDate.parse("2023-05-27"), LocalDate.parse("2023-05-29"));
+        Assertions.assertThat(second).isEqualTo(first);
+        verify(restTemplate, times(1)).getForObject(any(URI.class), eq(String.class));
+        Assertions.assertThat(holidayService.getHitCount()).isEqualTo(1);
+        Assertions.assertThat(holidayService.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getHolidays_api_fail_test() throws URISyntaxException {
+        // given
+        when(restTemplate.getForObject(any(URI.class), eq(String.class))).thenThrow(new ResourceAccessException("timeout"));
+
+        // when
+        Set<LocalDate> actual = holidayService.getHolidays("2023", "05");
+
+        // then
+        Assertions.assertThat(actual).isEmpty();
+        Assertions.assertThat(holidayService.getApiFailCount()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,73 @@
+package kr.co.lupintech.service;
+
+import kr.co.lupintech.core.exception.Exception429;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PasswordHashingServiceTest {
+
+    private final PasswordHashingService passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), 1, 1);
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    public void encode_matches_test() {
+        String encoded = passwordHashingService.encode("1234");
+
+        Assertions.assertThat(passwordHashingService.matches("1234", encoded)).isTrue();
+        Assertions.assertThat(passwordHashingService.matches("4321", encoded)).isFalse();
+        Assertions.assertThat(passwordHashingService.getSubmittedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void upgrade_encoding_test() {
+        // cost 4 로 저장된 해시는 cost 10 설정에서 다시 해싱 대상
+        String encoded = passwordHashingService.encode("1234");
+
+        Assertions.assertThat(new BCryptPasswordEncoder(10).upgradeEncoding(encoded)).isTrue();
+        Assertions.assertThat(new BCryptPasswordEncoder(4).upgradeEncoding(encoded)).isFalse();
+    }
+
+    @Test
+    public void task_exception_rethrown_test() {
+        Assertions.assertThatThrownBy(() -> passwordHashingService.call(() -> {
+            throw new IllegalStateException("bad credentials");
+        })).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void reject_when_queue_full_test() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // 작업 스레드 1개를 잡아두고 대기열 1칸을 채운다
+            callers.submit(() -> passwordHashingService.call(() -> {
+                started.countDown();
+                release.await();
+                return null;
+            }));
+            started.await();
+            callers.submit(() -> passwordHashingService.call(() -> null));
+            while (passwordHashingService.getQueueSize() < 1) Thread.sleep(1);
+
+            // when, then
+            Assertions.assertThatThrownBy(() -> passwordHashingService.encode("1234"))
+                    .isInstanceOf(Exception429.class)
+                    .satisfies(e -> Assertions.assertThat(((Exception429) e).getRetryAfterSeconds()).isGreaterThanOrEqualTo(1));
+            Assertions.assertThat(passwordHashingService.getRejectedCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package kr.co.lupintech.service;
 
-import kr.co.lupintech.model.user.UserRepository;
+import kr.co.lupintech.core.event.LocalCacheInvalidationBus;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.util.Pair;
 import org.springframework.test.context.ActiveProfiles;
 import kr.co.lupintech.core.auth.jwt.MyJwtProvider;
+import kr.co.lupintech.core.cache.RefreshTokenCache;
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.exception.Exception401;
 import kr.co.lupintech.model.token.RefreshTokenEntity;
 import kr.co.lupintech.model.token.TokenRepository;
 import kr.co.lupintech.model.token.TokenStatus;
@@ -18,12 +24,13 @@ import kr.co.lupintech.model.user.User;
 import kr.co.lupintech.model.user.UserRole;
 
 import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 
 import static kr.co.lupintech.core.auth.jwt.MyJwtProvider.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ActiveProfiles("test")
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +43,10 @@ class RefreshServiceTest {
     private TokenRepository tokenRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
+
+    @Spy
+    private RefreshTokenCache refreshTokenCache = new RefreshTokenCache(new LocalCacheInvalidationBus());
 
     @Test
     void 액세스재발급() {
@@ -47,16 +57,92 @@ class RefreshServiceTest {
         Pair<String, RefreshTokenEntity> refreshInfo = MyJwtProvider.createRefresh(testUser);
         String uuid = refreshInfo.getSecond().getUuid();
 
-        when(tokenRepository.findByUuidAndStatus(uuid, TokenStatus.VALID)).thenReturn(Optional.of(refreshInfo.getSecond()));
-        when(userRepository.findById(userId)).thenReturn(Optional.ofNullable(testUser));
+        when(tokenRepository.findByUuid(uuid)).thenReturn(Optional.of(refreshInfo.getSecond()));
+        UserDirectory.Entry userEntry = directoryEntry(testUser);
+        when(userDirectory.get(userId)).thenReturn(Optional.of(userEntry));
+        when(tokenRepository.updateStatus(uuid, TokenStatus.VALID, TokenStatus.ROTATED)).thenReturn(1);
 
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
         when(request.getHeader(MyJwtProvider.HEADER_REFRESH)).thenReturn(refreshInfo.getFirst());
 
-        String accessjwt = refreshService.액세스재발급(request);
+        Pair<String, String> tokenInfo = refreshService.액세스재발급(request);
+
+        // 새 리프레시 토큰은 같은 family 로 캐시에 들어간다
+        ArgumentCaptor<RefreshTokenEntity> captor = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        verify(tokenRepository).save(captor.capture());
+        Assertions.assertThat(tokenInfo.getFirst().startsWith("Bearer ")).isTrue();
+        Assertions.assertThat(tokenInfo.getSecond()).isNotEqualTo(refreshInfo.getFirst());
+        Assertions.assertThat(captor.getValue().getFamilyId()).isEqualTo(uuid);
+        Assertions.assertThat(refreshTokenCache.get(captor.getValue().getUuid()).getUserId()).isEqualTo(userId);
+    }
+
+    @Test
+    void 액세스재발급_캐시_권한은_DB에서_test() {
+        // given : 관리자일 때 발급되어 캐시에 있는 리프레시 토큰. 그 뒤 (다른 서버에서) 일반 사원으로 권한수정됨
+        Long userId = 1L;
+        User admin = User.builder().id(userId).username("testUser").role(UserRole.ROLE_ADMIN).build();
+        Pair<String, RefreshTokenEntity> refreshInfo = MyJwtProvider.createRefresh(admin);
+        String uuid = refreshInfo.getSecond().getUuid();
+        refreshTokenCache.put(uuid, new RefreshTokenCache.Entry(userId, uuid, refreshInfo.getSecond().getExpiresAt()));
+
+        User demoted = User.builder().id(userId).username("testUser").role(UserRole.ROLE_USER).status(true).build();
+        UserDirectory.Entry userEntry = directoryEntry(demoted);
+        when(userDirectory.get(userId)).thenReturn(Optional.of(userEntry));
+        when(tokenRepository.updateStatus(uuid, TokenStatus.VALID, TokenStatus.ROTATED)).thenReturn(1);
 
-        Assertions.assertThat(accessjwt.startsWith("Bearer ")).isTrue();
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        when(request.getHeader(MyJwtProvider.HEADER_REFRESH)).thenReturn(refreshInfo.getFirst());
+
+        // when
+        Pair<String, String> tokenInfo = refreshService.액세스재발급(request);
 
+        // then : 토큰은 DB 에서 읽지 않고, 새 액세스 토큰의 권한은 디렉터리의 현재 권한
+        verify(tokenRepository, never()).findByUuid(any());
+        String accessjwt = tokenInfo.getFirst().replace(MyJwtProvider.TOKEN_PREFIX, "");
+        Assertions.assertThat(verify(accessjwt).getClaim("role").asString()).isEqualTo(UserRole.ROLE_USER.name());
+    }
+
+    @Test
+    void 액세스재발급_퇴사_test() {
+        // given : 캐시에 있는 리프레시 토큰이지만 (다른 서버에서) 퇴사 처리됨
+        Long userId = 1L;
+        User testUser = User.builder().id(userId).username("testUser").role(UserRole.ROLE_USER).build();
+        Pair<String, RefreshTokenEntity> refreshInfo = MyJwtProvider.createRefresh(testUser);
+        String uuid = refreshInfo.getSecond().getUuid();
+        refreshTokenCache.put(uuid, new RefreshTokenCache.Entry(userId, uuid, refreshInfo.getSecond().getExpiresAt()));
+
+        when(userDirectory.get(userId)).thenReturn(Optional.empty()); // 퇴사하면 디렉터리에서 빠진다
+        when(tokenRepository.updateStatus(uuid, TokenStatus.VALID, TokenStatus.ROTATED)).thenReturn(1);
+
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        when(request.getHeader(MyJwtProvider.HEADER_REFRESH)).thenReturn(refreshInfo.getFirst());
+
+        // when & then
+        Assertions.assertThatThrownBy(() -> refreshService.액세스재발급(request))
+                .isInstanceOf(Exception401.class);
+        verify(tokenRepository, never()).save(any());
+    }
+
+    @Test
+    void 액세스재발급_재사용감지_test() {
+        // given (이미 교체된 토큰으로 다시 요청)
+        User testUser = User.builder().id(1L).username("testUser").role(UserRole.ROLE_USER).build();
+        Pair<String, RefreshTokenEntity> refreshInfo = MyJwtProvider.createRefresh(testUser);
+        RefreshTokenEntity rotated = refreshInfo.getSecond();
+        rotated.setStatus(TokenStatus.ROTATED);
+        when(tokenRepository.findByUuid(rotated.getUuid())).thenReturn(Optional.of(rotated));
+
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        when(request.getHeader(MyJwtProvider.HEADER_REFRESH)).thenReturn(refreshInfo.getFirst());
+
+        // when
+        Assertions.assertThatThrownBy(() -> refreshService.액세스재발급(request))
+                .isInstanceOf(Exception401.class);
+
+        // then (family 전체 폐기)
+        verify(tokenRepository).updateStatusByFamilyId(rotated.getFamilyId(), TokenStatus.VALID, TokenStatus.REVOKED);
+        verify(tokenRepository, never()).save(any());
+        Assertions.assertThat(refreshService.getReuseDetectedCount()).isEqualTo(1);
     }
 
     @Test
@@ -76,21 +162,35 @@ class RefreshServiceTest {
 
     @Test
     void 만료리프레쉬삭제_test() {
-        // given
-        RefreshTokenEntity expiredToken = new RefreshTokenEntity();
-        RefreshTokenEntity revokedToken = new RefreshTokenEntity();
-        List<RefreshTokenEntity> expiredTokens = Arrays.asList(expiredToken);
-        List<RefreshTokenEntity> revokedTokens = Arrays.asList(revokedToken);
-
-        // mock the findByStatus method
-        when(tokenRepository.findByStatus(TokenStatus.EXPIRED)).thenReturn(expiredTokens);
-        when(tokenRepository.findByStatus(TokenStatus.REVOKED)).thenReturn(revokedTokens);
-
-        // call the method to test
-        refreshService.만료리프레쉬삭제();
-
-        // verify that deleteInBatch was called with the correct arguments
-        //verify(tokenRepository).deleteInBatch(expiredTokens);
-        //verify(tokenRepository).deleteInBatch(revokedTokens);
+        // given (exp 지난 토큰 2개, exp 없이 유효기간 전에 발급된 예전 토큰 1개, 폐기된 토큰 1개)
+        when(tokenRepository.findIdsExpiredBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(tokenRepository.findIdsWithoutExpiryIssuedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Arrays.asList(4L));
+        when(tokenRepository.findIdsByStatusIn(anyCollection(), any(Pageable.class)))
+                .thenReturn(Arrays.asList(3L));
+        when(tokenRepository.deleteByIds(anyCollection())).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+
+        // when
+        int purged = refreshService.만료리프레쉬삭제();
+
+        // then (엔티티를 읽지 않고 id 로 지운다)
+        Assertions.assertThat(purged).isEqualTo(4);
+        verify(tokenRepository, never()).findByStatus(any());
+        verify(tokenRepository, times(3)).deleteByIds(anyCollection());
+
+        // 예전 토큰은 지금부터 리프레시 토큰 유효기간(7일) 전에 발급된 것만
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tokenRepository).findIdsWithoutExpiryIssuedBefore(cutoff.capture(), any(Pageable.class));
+        Assertions.assertThat(cutoff.getValue()).isBefore(LocalDateTime.now().minusDays(7).plusMinutes(1));
+        Assertions.assertThat(cutoff.getValue()).isAfter(LocalDateTime.now().minusDays(7).minusMinutes(1));
+    }
+
+    private UserDirectory.Entry directoryEntry(User user) {
+        UserDirectory.Entry entry = Mockito.mock(UserDirectory.Entry.class);
+        when(entry.getId()).thenReturn(user.getId());
+        when(entry.getUsername()).thenReturn(user.getUsername());
+        when(entry.getRole()).thenReturn(user.getRole());
+        return entry;
     }
-}
\ No newline at end of file
+}
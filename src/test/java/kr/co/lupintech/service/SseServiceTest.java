@@ -0,0 +1,154 @@
+package kr.co.lupintech.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+
+public class SseServiceTest {
+
+    private final SseService sseService = new SseService(new ObjectMapper(), 1);
+
+    @AfterEach
+    public void tearDown() {
+        sseService.removeAll();
+        sseService.shutdown();
+    }
+
+    @Test
+    public void add_multi_connection_test() {
+        // 같은 유저가 탭 두 개
+        sseService.add(1L);
+        sseService.add(1L);
+        sseService.add(2L);
+
+        Assertions.assertThat(sseService.getConnectedUserCount()).isEqualTo(2);
+        Assertions.assertThat(sseService.getConnectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void add_max_connections_test() {
+        ReflectionTestUtils.setField(sseService, "maxConnectionsPerUser", 2);
+
+        sseService.add(1L);
+        sseService.add(1L);
+        sseService.add(1L);
+
+        Assertions.assertThat(sseService.getConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void remove_test() {
+        sseService.add(1L);
+        sseService.add(1L);
+
+        Assertions.assertThat(sseService.remove(1L)).isTrue();
+        Assertions.assertThat(sseService.remove(1L)).isFalse();
+        Assertions.assertThat(sseService.getConnectionCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void sendToUsers_test() throws InterruptedException {
+        sseService.add(1L);
+        sseService.add(1L);
+        sseService.add(2L);
+
+        sseService.sendToUsers(Arrays.asList(1L, 2L, 3L), "alarm", "hello");
+
+        for (int i = 0; i < 100 && sseService.getSentCount() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(sseService.getSentCount()).isEqualTo(3);
+        Assertions.assertThat(sseService.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void replay_after_last_event_id_test() {
+        // given: 연결이 없을 때 온 알람 세 개
+        sseService.sendToUser(1L, "alarm", "first");
+        long firstId = sseService.getLastEventId();
+        sseService.sendToUser(1L, "alarm", "second");
+        sseService.sendToUser(1L, "alarm", "third");
+        sseService.sendToUser(1L, "export", "progress"); // 다시 보내지 않는 이벤트
+
+        // when: first 까지 받은 클라이언트가 재연결
+        sseService.add(1L, firstId);
+
+        // then
+        Assertions.assertThat(sseService.getReplayedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void replay_buffer_bounded_test() {
+        ReflectionTestUtils.setField(sseService, "replaySize", 2);
+        long beforeId = sseService.getLastEventId();
+        for (int i = 0; i < 5; i++) {
+            sseService.sendToUser(1L, "alarm", "alarm" + i);
+        }
+
+        sseService.add(1L, beforeId);
+
+        Assertions.assertThat(sseService.getReplayedCount()).isEqualTo(2); // 최근 두 개만 (앞은 resync 안내)
+    }
+
+    @Test
+    public void heartbeat_reap_dead_connection_test() throws InterruptedException {
+        // given: 탭 두 개 중 하나는 이미 끊김
+        sseService.add(1L);
+        SseEmitter dead = sseService.add(1L);
+        dead.complete();
+
+        // when: 큐에만 넣고 바로 돌아온다
+        int queued = sseService.heartbeat();
+
+        // then: 전송 스레드가 보내다 실패한 연결을 정리
+        Assertions.assertThat(queued).isEqualTo(2);
+        for (int i = 0; i < 100 && sseService.getReapedCount() + sseService.getHeartbeatCount() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(sseService.getReapedCount()).isEqualTo(1);
+        Assertions.assertThat(sseService.getHeartbeatCount()).isEqualTo(1);
+        Assertions.assertThat(sseService.getConnectionCount()).isEqualTo(1);
+        Assertions.assertThat(sseService.getConnectCount()).isEqualTo(2);
+        Assertions.assertThat(sseService.getDisconnectCount()).isEqualTo(1);
+        Assertions.assertThat(sseService.getSentCount()).isEqualTo(0); // heartbeat 는 이벤트로 세지 않는다
+    }
+
+    @Test
+    public void replay_source_test() {
+        // given: 서버 여러 대. 다시 보낼 이벤트는 sse_outbox_tb 에서 온다
+        sseService.setReplaySource((userId, lastEventId, eventNames, register, sink) -> {
+            register.run();
+            sink.send(lastEventId + 1, "alarm", "{}");
+        });
+
+        // when
+        sseService.add(1L, 10L);
+
+        // then
+        Assertions.assertThat(sseService.getConnectionCount()).isEqualTo(1);
+        Assertions.assertThat(sseService.getReplayedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void sendToUsers_event_id_test() throws InterruptedException {
+        // given: 다른 서버에서 12번까지 받고 넘어온 클라이언트
+        sseService.setReplaySource((userId, lastEventId, eventNames, register, sink) -> register.run());
+        sseService.add(1L, 12L);
+
+        // when: 이 서버의 폴링이 아직 11, 12번을 보내는 중
+        sseService.sendToUsers(Arrays.asList(1L), "alarm", "{}", 11L);
+        sseService.sendToUsers(Arrays.asList(1L), "alarm", "{}", 12L);
+        sseService.sendToUsers(Arrays.asList(1L), "alarm", "{}", 13L);
+
+        // then: 이미 받은 것은 건너뛴다
+        for (int i = 0; i < 100 && sseService.getSentCount() < 1; i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertThat(sseService.getSentCount()).isEqualTo(1);
+    }
+}
@@ -1,6 +1,17 @@
 package kr.co.lupintech.service;
 
+import kr.co.lupintech.core.cache.RefreshTokenCache;
+import kr.co.lupintech.core.auth.jwt.TokenRevocationList;
 import kr.co.lupintech.core.auth.session.MyUserDetails;
+import kr.co.lupintech.core.cache.UserCredentialCache;
+import kr.co.lupintech.core.cache.UserDirectory;
+import kr.co.lupintech.core.cache.UserSearchIndex;
+import kr.co.lupintech.core.cache.UserSnapshotCache;
+import kr.co.lupintech.core.exception.Exception401;
+import kr.co.lupintech.core.exception.Exception429;
+import kr.co.lupintech.core.exception.Exception500;
+import kr.co.lupintech.dto.PageDTO;
+import kr.co.lupintech.dto.SliceDTO;
 import kr.co.lupintech.dto.user.UserRequest;
 import kr.co.lupintech.dto.user.UserResponse;
 import kr.co.lupintech.model.token.TokenRepository;
@@ -16,8 +27,10 @@ import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.util.Pair;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -25,6 +38,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import kr.co.lupintech.core.dummy.DummyEntity;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 
@@ -53,10 +67,32 @@ public class UserServiceTest extends DummyEntity {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private RefreshTokenCache refreshTokenCache;
+
+    @Mock
+    private UserCredentialCache userCredentialCache;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private UserSnapshotCache userSnapshotCache;
+
     // 진짜 객체를 만들어서 Mockito 환경에 Load
     @Spy
     private BCryptPasswordEncoder bCryptPasswordEncoder;
 
+    // 해싱 전용 풀도 진짜 객체로
+    @Spy
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(), 1, 10);
+
 
     @Test
     public void hello_test() {
@@ -117,6 +153,53 @@ public class UserServiceTest extends DummyEntity {
         Assertions.assertThat(tokenInfo.getSecond().startsWith("Bearer ")).isTrue();
     }
 
+    @Test
+    public void 로그인_비밀번호틀림_test() throws Exception {
+        // given
+        UserRequest.LoginInDTO loginInDTO = new UserRequest.LoginInDTO();
+        loginInDTO.setEmail("cos@nate.com");
+        loginInDTO.setPassword("wrong");
+
+        // stub
+        Mockito.when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("bad credentials"));
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> userService.로그인(loginInDTO))
+                .isInstanceOf(Exception401.class);
+    }
+
+    @Test
+    public void 로그인_해싱_대기열초과_test() throws Exception {
+        // given
+        UserRequest.LoginInDTO loginInDTO = new UserRequest.LoginInDTO();
+        loginInDTO.setEmail("cos@nate.com");
+        loginInDTO.setPassword("1234");
+
+        // stub
+        Mockito.doThrow(new Exception429("로그인 요청이 많습니다. 잠시 후 다시 시도해주세요.", 1))
+                .when(passwordHashingService).call(any());
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> userService.로그인(loginInDTO))
+                .isInstanceOf(Exception429.class);
+    }
+
+    @Test
+    public void 로그인_해싱_시간초과_test() throws Exception {
+        // given
+        UserRequest.LoginInDTO loginInDTO = new UserRequest.LoginInDTO();
+        loginInDTO.setEmail("cos@nate.com");
+        loginInDTO.setPassword("1234");
+
+        // stub
+        Mockito.doThrow(new Exception500("비밀번호 처리 시간 초과"))
+                .when(passwordHashingService).call(any());
+
+        // when, then
+        Assertions.assertThatThrownBy(() -> userService.로그인(loginInDTO))
+                .isInstanceOf(Exception500.class);
+    }
+
     @Test
     public void 유저상세보기_test() throws Exception {
         // given
@@ -138,4 +221,69 @@ public class UserServiceTest extends DummyEntity {
         Assertions.assertThat(detailOutDTO.getRole()).isEqualTo(UserRole.ROLE_USER);
     }
 
+    @Test
+    public void 사원목록_색인_페이지전체퇴사_test() throws Exception {
+        // given: 색인 결과 1, 2, 3 중 첫 페이지(1, 2)가 방금 퇴사해서 DB 에서만 퇴사자
+        User resigned1 = User.builder().id(1L).username("김퇴사").status(false).build();
+        User resigned2 = User.builder().id(2L).username("이퇴사").status(false).build();
+
+        // stub
+        Mockito.when(userSearchIndex.isEnabled()).thenReturn(true);
+        Mockito.when(userSearchIndex.search("퇴사")).thenReturn(Arrays.asList(1L, 2L, 3L));
+        Mockito.when(userDirectory.contains(Mockito.anyLong())).thenReturn(true);
+        Mockito.when(userRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(resigned1, resigned2));
+
+        // when
+        SliceDTO<UserResponse.UserOutDTO> slice = userService.사원목록("퇴사", 0L, 2, false);
+
+        // then: 빈 페이지여도 다음 페이지는 색인 위치(2) 다음부터
+        Assertions.assertThat(slice.getContent()).isEmpty();
+        Assertions.assertThat(slice.isHasNext()).isTrue();
+        Assertions.assertThat(slice.getNextAfterId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void 사원목록_색인_전체수_퇴사자제외_test() throws Exception {
+        // given: 색인 결과 1, 2, 3 중 2 는 이미 퇴사
+        User ssar = newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15);
+        User jin = newMockUser(3L, "김진진", "jin@nate.com", 17);
+
+        // stub
+        Mockito.when(userSearchIndex.isEnabled()).thenReturn(true);
+        Mockito.when(userSearchIndex.search("김")).thenReturn(Arrays.asList(1L, 2L, 3L));
+        Mockito.when(userDirectory.contains(1L)).thenReturn(true);
+        Mockito.when(userDirectory.contains(2L)).thenReturn(false);
+        Mockito.when(userDirectory.contains(3L)).thenReturn(true);
+        Mockito.when(userRepository.findAllById(Arrays.asList(1L, 3L))).thenReturn(Arrays.asList(ssar, jin));
+
+        // when
+        SliceDTO<UserResponse.UserOutDTO> slice = userService.사원목록("김", 0L, 10, true);
+
+        // then: 사원검색과 같은 전체 수
+        Assertions.assertThat(slice.getTotalElements()).isEqualTo(2L);
+        Assertions.assertThat(slice.getContent()).extracting("username").containsExactly("김쌀쌀", "김진진");
+        Assertions.assertThat(slice.isHasNext()).isFalse();
+    }
+
+    @Test
+    public void 사원검색_색인_퇴사자제외_test() throws Exception {
+        // given: 색인 결과 1, 2, 3 중 2 는 이미 퇴사
+        User ssar = newMockUser(1L, "김쌀쌀", "ssar@nate.com", 15);
+        User jin = newMockUser(3L, "김진진", "jin@nate.com", 17);
+
+        // stub
+        Mockito.when(userSearchIndex.isEnabled()).thenReturn(true);
+        Mockito.when(userSearchIndex.search("김")).thenReturn(Arrays.asList(1L, 2L, 3L));
+        Mockito.when(userDirectory.contains(1L)).thenReturn(true);
+        Mockito.when(userDirectory.contains(2L)).thenReturn(false); // 다른 서버의 퇴사가 색인에 아직 반영 전
+        Mockito.when(userDirectory.contains(3L)).thenReturn(true);
+        Mockito.when(userRepository.findAllById(Arrays.asList(1L, 3L))).thenReturn(Arrays.asList(jin, ssar));
+
+        // when
+        PageDTO<UserResponse.UserOutDTO, User> page = userService.사원검색("김", PageRequest.of(0, 10));
+
+        // then: 전체 수도 퇴사자를 뺀 값
+        Assertions.assertThat(page.getTotalElements()).isEqualTo(2);
+        Assertions.assertThat(page.getContent()).extracting("username").containsExactly("김쌀쌀", "김진진");
+    }
 }